@@ -0,0 +1,98 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.network.chat.TextComponent;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.enchantment.Enchantments;
+
+import de.markusbordihn.easyquests.data.quest.QuestCategory;
+import de.markusbordihn.easyquests.data.quest.QuestData;
+import de.markusbordihn.easyquests.data.quest.QuestDifficulty;
+import de.markusbordihn.easyquests.data.quest.QuestType;
+
+public final class BenchmarkData {
+
+  private static final String DESCRIPTION =
+      "Travel to the old watchtower, defeat the skeletons guarding the entrance and bring back "
+          + "the lost map of the northern mines. Be careful, the tower is known to collapse.";
+
+  private static boolean bootstrapped = false;
+
+  private BenchmarkData() {}
+
+  public static synchronized void bootstrap() {
+    // Item stacks and registries are only usable after the Minecraft bootstrap.
+    if (!bootstrapped) {
+      SharedConstants.tryDetectVersion();
+      Bootstrap.bootStrap();
+      bootstrapped = true;
+    }
+  }
+
+  public static QuestData createQuest(int index, Random random) {
+    QuestData questData = new QuestData("Benchmark Quest " + index, DESCRIPTION + " #" + index);
+    questData.setCategory(randomValue(QuestCategory.values(), random));
+    questData.setDifficulty(randomValue(QuestDifficulty.values(), random));
+    questData.setType(randomValue(QuestType.values(), random));
+
+    ItemStack icon = new ItemStack(Items.DIAMOND_SWORD);
+    icon.enchant(Enchantments.SHARPNESS, 1 + random.nextInt(5));
+    icon.setHoverName(new TextComponent("Sword of Quest " + index));
+    questData.setIcon(icon);
+    questData.setBackground(
+        new ResourceLocation("minecraft", "textures/gui/advancements/backgrounds/stone.png"));
+    questData.setDescriptionColor(0xFFCCCCCC);
+    questData.setTitleColor(0xFFFFAA00);
+    return questData;
+  }
+
+  public static List<QuestData> createQuests(int numberOfQuests) {
+    Random random = new Random(numberOfQuests);
+    List<QuestData> questDataList = new ArrayList<>(numberOfQuests);
+    for (int i = 0; i < numberOfQuests; i++) {
+      questDataList.add(createQuest(i, random));
+    }
+    return questDataList;
+  }
+
+  public static byte[] writeCompressed(CompoundTag compoundTag) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    NbtIo.writeCompressed(compoundTag, outputStream);
+    return outputStream.toByteArray();
+  }
+
+  private static <T> T randomValue(T[] values, Random random) {
+    return values[random.nextInt(values.length)];
+  }
+
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+
+import de.markusbordihn.easyquests.data.quest.QuestData;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QuestDataBenchmark {
+
+  private QuestData questData;
+  private CompoundTag questDataTag;
+  private byte[] compressedQuestData;
+
+  @Setup
+  public void setup() throws IOException {
+    BenchmarkData.bootstrap();
+    this.questData = BenchmarkData.createQuest(1, new Random(1));
+    this.questDataTag = this.questData.save(new CompoundTag());
+    this.compressedQuestData = BenchmarkData.writeCompressed(this.questDataTag);
+  }
+
+  @Benchmark
+  public QuestData load() {
+    return QuestData.load(this.questDataTag);
+  }
+
+  @Benchmark
+  public CompoundTag save() {
+    return this.questData.save(new CompoundTag());
+  }
+
+  @Benchmark
+  public QuestData saveAndLoad() {
+    return QuestData.load(this.questData.save(new CompoundTag()));
+  }
+
+  @Benchmark
+  public byte[] writeCompressed() throws IOException {
+    return BenchmarkData.writeCompressed(this.questDataTag);
+  }
+
+  @Benchmark
+  public CompoundTag readCompressed() throws IOException {
+    return NbtIo.readCompressed(new ByteArrayInputStream(this.compressedQuestData));
+  }
+
+  @Benchmark
+  public QuestData readCompressedAndLoad() throws IOException {
+    return QuestData
+        .load(NbtIo.readCompressed(new ByteArrayInputStream(this.compressedQuestData)));
+  }
+
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import net.minecraft.resources.ResourceLocation;
+
+import de.markusbordihn.easyquests.data.quest.QuestData;
+import de.markusbordihn.easyquests.data.quest.QuestManager;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QuestLookupBenchmark {
+
+  @Param({"1000", "10000"})
+  public int numberOfQuests;
+
+  private String[] titles;
+  private String[] normalizedTitles;
+  private ResourceLocation[] ids;
+  private int index = 0;
+
+  @Setup
+  public void setup() {
+    // Each parameter runs in its own fork, so the static quest manager starts empty.
+    BenchmarkData.bootstrap();
+    List<QuestData> questDataList = BenchmarkData.createQuests(this.numberOfQuests);
+    QuestManager.addQuests(questDataList);
+
+    this.titles = new String[questDataList.size()];
+    this.normalizedTitles = new String[questDataList.size()];
+    this.ids = new ResourceLocation[questDataList.size()];
+    for (int i = 0; i < questDataList.size(); i++) {
+      QuestData questData = questDataList.get(i);
+      this.titles[i] = questData.getTitle();
+      this.normalizedTitles[i] = QuestData.normalizeResourceName(questData.getTitle());
+      this.ids[i] = questData.getId();
+    }
+  }
+
+  private int next() {
+    this.index = (this.index + 1) % this.numberOfQuests;
+    return this.index;
+  }
+
+  @Benchmark
+  public QuestData getQuestByTitle() {
+    return QuestManager.getQuest(this.titles[next()]);
+  }
+
+  @Benchmark
+  public QuestData getQuestById() {
+    return QuestManager.getQuest(this.ids[next()]);
+  }
+
+  @Benchmark
+  public boolean hasQuestByTitle() {
+    return QuestManager.hasQuest(this.titles[next()]);
+  }
+
+  @Benchmark
+  public ResourceLocation getQuestId() {
+    return QuestData.getQuestId(this.titles[next()]);
+  }
+
+  @Benchmark
+  public String normalizeResourceName() {
+    return QuestData.normalizeResourceName(this.titles[next()]);
+  }
+
+  @Benchmark
+  public String normalizeNormalizedResourceName() {
+    return QuestData.normalizeResourceName(this.normalizedTitles[next()]);
+  }
+
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import net.minecraft.nbt.CompoundTag;
+
+import de.markusbordihn.easyquests.data.quest.QuestData;
+import de.markusbordihn.easyquests.data.quest.QuestDataLoader;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class QuestScanBenchmark {
+
+  private static final int QUESTS_PER_FOLDER = 500;
+
+  @Param({"1000", "10000", "50000"})
+  public int numberOfFiles;
+
+  private Path questDataFolder;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    BenchmarkData.bootstrap();
+
+    // Synthetic quest data folder with the same layout as <world>/easy_quests/<namespace>/...
+    this.questDataFolder = Files.createTempDirectory("easy_quests_benchmark");
+    Random random = new Random(this.numberOfFiles);
+    for (int i = 0; i < this.numberOfFiles; i++) {
+      Path questFolder = this.questDataFolder.resolve("benchmark")
+          .resolve("quests_" + (i / QUESTS_PER_FOLDER));
+      Files.createDirectories(questFolder);
+      CompoundTag questDataTag = BenchmarkData.createQuest(i, random).save(new CompoundTag());
+      Files.write(questFolder.resolve("quest_" + i + QuestDataLoader.QUEST_DATA_FILE_EXTENSION),
+          BenchmarkData.writeCompressed(questDataTag));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(this.questDataFolder)) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Benchmark
+  public List<Path> scanQuestDataFolder() {
+    return QuestDataLoader.scanQuestDataFolder(this.questDataFolder);
+  }
+
+  @Benchmark
+  public List<QuestData> loadQuestData() {
+    return QuestDataLoader.loadQuestData(this.questDataFolder);
+  }
+
+}
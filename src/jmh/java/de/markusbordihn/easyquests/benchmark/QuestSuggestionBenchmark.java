@@ -0,0 +1,97 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.benchmark;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+
+import de.markusbordihn.easyquests.commands.QuestSuggestionIndex;
+import de.markusbordihn.easyquests.data.quest.QuestData;
+import de.markusbordihn.easyquests.data.quest.QuestRegistry;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QuestSuggestionBenchmark {
+
+  private static final String COMMAND = "easy_quests show ";
+
+  @Param({"1000", "10000"})
+  public int numberOfQuests;
+
+  private QuestRegistry.Snapshot snapshot;
+  private List<Path> questDataFiles;
+  private QuestSuggestionIndex questSuggestionIndex;
+
+  @Setup
+  public void setup() {
+    BenchmarkData.bootstrap();
+    List<QuestData> questDataList = BenchmarkData.createQuests(this.numberOfQuests);
+    QuestRegistry questRegistry = new QuestRegistry();
+    questRegistry.addAll(questDataList);
+    this.snapshot = questRegistry.getSnapshot();
+    this.questDataFiles = new ArrayList<>(questDataList.size());
+    for (QuestData questData : questDataList) {
+      this.questDataFiles.add(Path.of(questData.getId().getNamespace(),
+          questData.getId().getPath() + ".nbt"));
+    }
+    this.questSuggestionIndex = QuestSuggestionIndex.create(this.snapshot, this.questDataFiles);
+  }
+
+  @Benchmark
+  public QuestSuggestionIndex buildIndex() {
+    return QuestSuggestionIndex.create(this.snapshot, this.questDataFiles);
+  }
+
+  @Benchmark
+  public Suggestions suggestQuestIdsWithoutInput() {
+    return this.questSuggestionIndex
+        .suggestQuestIds(new SuggestionsBuilder(COMMAND, COMMAND.length())).build();
+  }
+
+  @Benchmark
+  public Suggestions suggestQuestIdsWithPrefix() {
+    String input = COMMAND + "easy_quests_default:quests/benchmark_quest_12";
+    return this.questSuggestionIndex
+        .suggestQuestIds(new SuggestionsBuilder(input, COMMAND.length())).build();
+  }
+
+  @Benchmark
+  public Suggestions suggestQuestTitlesWithPrefix() {
+    String input = COMMAND + "\"Benchmark Quest 12";
+    return this.questSuggestionIndex
+        .suggestQuestTitles(new SuggestionsBuilder(input, COMMAND.length())).build();
+  }
+
+}
@@ -27,7 +27,9 @@ import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
 
 import de.markusbordihn.easyquests.block.ModBlocks;
+import de.markusbordihn.easyquests.config.CommonConfig;
 import de.markusbordihn.easyquests.item.ModItems;
+import de.markusbordihn.easyquests.network.NetworkHandler;
 import de.markusbordihn.easyquests.utils.StopModReposts;
 
 @Mod(Constants.MOD_ID)
@@ -40,10 +42,14 @@ public class EasyQuests {
 
     StopModReposts.checkStopModReposts();
 
+    CommonConfig.register();
+
     log.info("Register Items ...");
     ModItems.ITEMS.register(modEventBus);
 
     log.info("Register Blocks ...");
     ModBlocks.BLOCKS.register(modEventBus);
+
+    modEventBus.addListener(NetworkHandler::registerNetworkHandler);
   }
 }
@@ -0,0 +1,248 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.hash.Hashing;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ServerData;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceLocation;
+
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.loading.FMLPaths;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.data.quest.QuestData;
+import de.markusbordihn.easyquests.network.NetworkHandler;
+import de.markusbordihn.easyquests.network.message.QuestSyncDeltaMessage;
+import de.markusbordihn.easyquests.network.message.QuestSyncHashesMessage;
+import de.markusbordihn.easyquests.network.message.QuestSyncHelloMessage;
+
+@EventBusSubscriber(value = Dist.CLIENT)
+public class ClientQuestManager {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  // Data Tags
+  private static final String DATA_HASH_TAG = "Hash";
+  private static final String DATA_ID_TAG = "Id";
+  private static final String DATA_QUESTS_TAG = "Quests";
+
+  // Quest definitions are cached by content hash and shared between all servers.
+  private static final Path CACHE_PATH =
+      FMLPaths.GAMEDIR.get().resolve(Constants.MOD_ID + "_cache");
+  private static final Path QUEST_CACHE_PATH = CACHE_PATH.resolve("quests");
+  private static final Path SERVER_CACHE_PATH = CACHE_PATH.resolve("servers");
+
+  // Known quest hashes of the current server and the already loaded quest definitions.
+  private static final Map<ResourceLocation, Long> questHashes = new HashMap<>();
+  private static final Map<ResourceLocation, QuestData> quests = new HashMap<>();
+  private static Path serverIndexFile = null;
+
+  protected ClientQuestManager() {}
+
+  @SubscribeEvent
+  public static void handleLoggedOutEvent(ClientPlayerNetworkEvent.LoggedOutEvent event) {
+    questHashes.clear();
+    quests.clear();
+    serverIndexFile = null;
+  }
+
+  public static void handleQuestSyncHello(QuestSyncHelloMessage message) {
+    serverIndexFile = SERVER_CACHE_PATH.resolve(getServerKey() + ".nbt");
+    loadServerIndex(serverIndexFile);
+    quests.clear();
+
+    // Namespaces which are no longer known by the server are removed directly.
+    Map<String, Long> serverNamespaceHashes = message.getNamespaceHashes();
+    questHashes.keySet()
+        .removeIf(questId -> !serverNamespaceHashes.containsKey(questId.getNamespace()));
+
+    // Quest hashes are only sent for namespaces with a different hash.
+    Map<String, Long> namespaceHashes = getNamespaceHashes();
+    List<QuestSyncHashesMessage> messages = new ArrayList<>();
+    Map<ResourceLocation, Long> changedQuestHashes = new HashMap<>();
+    for (Map.Entry<ResourceLocation, Long> entry : questHashes.entrySet()) {
+      String namespace = entry.getKey().getNamespace();
+      if (!serverNamespaceHashes.get(namespace).equals(namespaceHashes.get(namespace))) {
+        changedQuestHashes.put(entry.getKey(), entry.getValue());
+        if (changedQuestHashes.size() >= QuestSyncHashesMessage.MAX_ENTRIES) {
+          messages.add(new QuestSyncHashesMessage(Map.of(), changedQuestHashes, false));
+          changedQuestHashes = new HashMap<>();
+        }
+      }
+    }
+    messages.add(new QuestSyncHashesMessage(namespaceHashes, changedQuestHashes, true));
+    messages.forEach(NetworkHandler::sendToServer);
+    log.debug("Requested quest sync for {} known quests with {} messages", questHashes.size(),
+        messages.size());
+  }
+
+  public static void handleQuestSyncDelta(QuestSyncDeltaMessage message) {
+    List<CompoundTag> changedQuests = message.getChangedQuests();
+    long[] changedQuestHashes = message.getChangedQuestHashes();
+    for (int i = 0; i < changedQuests.size(); i++) {
+      CompoundTag questTag = changedQuests.get(i);
+      if (questTag == null) {
+        continue;
+      }
+      QuestData questData = QuestData.load(questTag);
+      saveQuest(changedQuestHashes[i], questTag);
+      questHashes.put(questData.getId(), changedQuestHashes[i]);
+      quests.put(questData.getId(), questData);
+    }
+    for (ResourceLocation questId : message.getRemovedQuests()) {
+      questHashes.remove(questId);
+      quests.remove(questId);
+    }
+    if (message.isLast() && serverIndexFile != null) {
+      saveServerIndex(serverIndexFile);
+    }
+  }
+
+  public static QuestData getQuest(ResourceLocation questId) {
+    QuestData questData = quests.get(questId);
+    if (questData != null) {
+      return questData;
+    }
+    Long questHash = questHashes.get(questId);
+    if (questHash == null) {
+      return null;
+    }
+    Path questFile = getQuestFile(questHash);
+    try (InputStream inputStream = Files.newInputStream(questFile)) {
+      questData = QuestData.load(NbtIo.readCompressed(inputStream));
+      quests.put(questId, questData);
+    } catch (IOException | RuntimeException e) {
+      log.error("Unable to load cached quest {} from {}:", questId, questFile, e);
+    }
+    return questData;
+  }
+
+  public static Set<ResourceLocation> getQuestIds() {
+    return Collections.unmodifiableSet(questHashes.keySet());
+  }
+
+  public static Map<String, Long> getNamespaceHashes() {
+    // Same as the server side namespace hash, the sum of all quest hashes of the namespace.
+    Map<String, Long> namespaceHashes = new HashMap<>();
+    for (Map.Entry<ResourceLocation, Long> entry : questHashes.entrySet()) {
+      namespaceHashes.merge(entry.getKey().getNamespace(), entry.getValue(), Long::sum);
+    }
+    return namespaceHashes;
+  }
+
+  private static String getServerKey() {
+    ServerData serverData = Minecraft.getInstance().getCurrentServer();
+    String serverAddress = serverData != null ? serverData.ip : "singleplayer";
+    return Hashing.murmur3_128().hashUnencodedChars(serverAddress).toString();
+  }
+
+  private static Path getQuestFile(long questHash) {
+    return QUEST_CACHE_PATH.resolve(String.format("%016x.nbt", questHash));
+  }
+
+  private static void saveQuest(long questHash, CompoundTag questTag) {
+    Path questFile = getQuestFile(questHash);
+    if (Files.exists(questFile)) {
+      return;
+    }
+    try {
+      Files.createDirectories(QUEST_CACHE_PATH);
+      writeCompressed(questTag, questFile);
+    } catch (IOException e) {
+      log.error("Unable to cache quest in {}:", questFile, e);
+    }
+  }
+
+  private static void loadServerIndex(Path indexFile) {
+    questHashes.clear();
+    if (!Files.exists(indexFile)) {
+      return;
+    }
+    try (InputStream inputStream = Files.newInputStream(indexFile)) {
+      ListTag questsTag =
+          NbtIo.readCompressed(inputStream).getList(DATA_QUESTS_TAG, Tag.TAG_COMPOUND);
+      for (int i = 0; i < questsTag.size(); i++) {
+        CompoundTag questTag = questsTag.getCompound(i);
+        ResourceLocation questId = ResourceLocation.tryParse(questTag.getString(DATA_ID_TAG));
+        long questHash = questTag.getLong(DATA_HASH_TAG);
+
+        // Quests without a cached definition are requested again.
+        if (questId != null && Files.exists(getQuestFile(questHash))) {
+          questHashes.put(questId, questHash);
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      log.error("Unable to load quest cache index {}:", indexFile, e);
+      questHashes.clear();
+    }
+  }
+
+  private static void saveServerIndex(Path indexFile) {
+    ListTag questsTag = new ListTag();
+    for (Map.Entry<ResourceLocation, Long> entry : questHashes.entrySet()) {
+      CompoundTag questTag = new CompoundTag();
+      questTag.putString(DATA_ID_TAG, entry.getKey().toString());
+      questTag.putLong(DATA_HASH_TAG, entry.getValue());
+      questsTag.add(questTag);
+    }
+    CompoundTag indexTag = new CompoundTag();
+    indexTag.put(DATA_QUESTS_TAG, questsTag);
+    try {
+      Files.createDirectories(SERVER_CACHE_PATH);
+      writeCompressed(indexTag, indexFile);
+    } catch (IOException e) {
+      log.error("Unable to save quest cache index {}:", indexFile, e);
+    }
+  }
+
+  private static void writeCompressed(CompoundTag compoundTag, Path file) throws IOException {
+    Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+    try (OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+      NbtIo.writeCompressed(compoundTag, outputStream);
+    }
+    Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+}
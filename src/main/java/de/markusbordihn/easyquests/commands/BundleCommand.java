@@ -0,0 +1,82 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.commands;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.TextComponent;
+
+import de.markusbordihn.easyquests.data.quest.QuestDataManager;
+import de.markusbordihn.easyquests.data.storage.QuestStorageManager;
+import de.markusbordihn.easyquests.data.storage.QuestStorageType;
+
+public class BundleCommand extends CustomCommand {
+
+  public static final String NAMESPACE_ARG = "namespace";
+
+  public static ArgumentBuilder<CommandSourceStack, ?> register() {
+
+    return Commands.literal("bundle")
+        .requires(commandSourceStack -> commandSourceStack.hasPermission(2))
+
+        // Convert quest data files of namespace into a quest bundle.
+        .then(Commands.argument(NAMESPACE_ARG, StringArgumentType.word())
+            .suggests(BundleCommand::suggestQuestNamespace).executes(BundleCommand::bundle));
+  }
+
+  private static int bundle(CommandContext<CommandSourceStack> context) {
+    CommandSourceStack source = context.getSource();
+
+    // Validate namespace and show error message if namespace is invalid.
+    String namespace = StringArgumentType.getString(context, NAMESPACE_ARG);
+    if (namespace == null || namespace.isEmpty()) {
+      source.sendFailure(new TextComponent("Namespace " + namespace + " is not valid!"));
+      return 0;
+    }
+
+    // Quest bundles of the file storage are replaced by the bundle storage.
+    if (QuestStorageManager.getQuestStorageType() != QuestStorageType.FILE) {
+      source.sendFailure(
+          new TextComponent("Quest bundles could only be created for the FILE quest storage!"));
+      return 0;
+    }
+
+    // Convert quest data files and show error message if conversion failed.
+    int numberOfBundledQuests = QuestDataManager.bundleQuestData(namespace);
+    if (numberOfBundledQuests < 0) {
+      source.sendFailure(
+          new TextComponent("Unable to create quest bundle for namespace " + namespace + "!"));
+      return 0;
+    } else if (numberOfBundledQuests == 0) {
+      source.sendFailure(new TextComponent("No quests found for namespace " + namespace + "!"));
+      return 0;
+    }
+
+    source.sendSuccess(new TextComponent(
+        "Bundled " + numberOfBundledQuests + " quests for namespace " + namespace + "!"), true);
+    return Command.SINGLE_SUCCESS;
+  }
+
+}
@@ -46,10 +46,18 @@ public class CommandManager {
     CommandDispatcher<CommandSourceStack> commandDispatcher = event.getDispatcher();
     commandDispatcher.register(Commands.literal(Constants.MOD_COMMAND)
     // @formatter:off
+      .then(BundleCommand.register())
       .then(CreateCommand.register())
+      .then(ExportCommand.register())
+      .then(ImportCommand.register())
       .then(LoadCommand.register())
+      .then(ProgressCommand.register())
+      .then(ReloadCommand.register())
       .then(SaveCommand.register())
+      .then(SaveAllCommand.register())
       .then(ShowCommand.register())
+      .then(StatsCommand.register())
+      .then(StorageCommand.register())
     // @formatter:on
     );
   }
@@ -33,6 +33,7 @@ import net.minecraft.resources.ResourceLocation;
 import de.markusbordihn.easyquests.Constants;
 import de.markusbordihn.easyquests.data.quest.QuestData;
 import de.markusbordihn.easyquests.data.quest.QuestManager;
+import de.markusbordihn.easyquests.network.QuestSyncManager;
 
 public class CreateCommand extends CustomCommand {
 
@@ -98,10 +99,12 @@ public class CreateCommand extends CustomCommand {
     // Create quest and show success message.
     if (description != null && !description.isEmpty()) {
       QuestData questData = QuestManager.createQuest(title, description);
+      QuestSyncManager.broadcastQuest(questData);
       source.sendSuccess(new TextComponent("Create quest: " + questData), false);
       return Command.SINGLE_SUCCESS;
     } else {
       QuestData questData = QuestManager.createQuest(title);
+      QuestSyncManager.broadcastQuest(questData);
       source.sendSuccess(new TextComponent("Create quest: " + questData), false);
       return Command.SINGLE_SUCCESS;
     }
@@ -144,11 +147,13 @@ public class CreateCommand extends CustomCommand {
     // Create quest and show success message.
     if (description != null && !description.isEmpty()) {
       QuestData questData = QuestManager.createQuest(resourceLocation, title, description);
+      QuestSyncManager.broadcastQuest(questData);
       source.sendSuccess(new TextComponent("Create quest " + resourceLocation + " : " + questData),
           false);
       return Command.SINGLE_SUCCESS;
     } else {
       QuestData questData = QuestManager.createQuest(resourceLocation, title);
+      QuestSyncManager.broadcastQuest(questData);
       source.sendSuccess(new TextComponent("Create quest " + resourceLocation + " : " + questData),
           false);
       return Command.SINGLE_SUCCESS;
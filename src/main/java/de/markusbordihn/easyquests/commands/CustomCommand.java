@@ -19,9 +19,6 @@
 
 package de.markusbordihn.easyquests.commands;
 
-import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import org.apache.logging.log4j.LogManager;
@@ -33,13 +30,10 @@ import com.mojang.brigadier.suggestion.Suggestions;
 import com.mojang.brigadier.suggestion.SuggestionsBuilder;
 
 import net.minecraft.commands.CommandSourceStack;
-import net.minecraft.commands.SharedSuggestionProvider;
-import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
 
 import de.markusbordihn.easyquests.Constants;
-import de.markusbordihn.easyquests.data.quest.QuestDataManager;
-import de.markusbordihn.easyquests.data.quest.QuestManager;
+import de.markusbordihn.easyquests.metrics.QuestMetrics;
 
 public class CustomCommand {
 
@@ -52,13 +46,12 @@ public class CustomCommand {
       throws CommandSyntaxException {
     ServerPlayer serverPlayer = context.getSource().getPlayerOrException();
 
-    ArrayList<ResourceLocation> questIds = new ArrayList<>();
-    QuestManager.getQuests().forEach(quest -> {
-      questIds.add(quest.getId());
-    });
-
     // Return all quests for creative mode and only the available of the player.
-    return SharedSuggestionProvider.suggestResource(questIds, build);
+    long startTime = System.nanoTime();
+    CompletableFuture<Suggestions> suggestions =
+        QuestSuggestionIndex.get().suggestQuestIds(build).buildFuture();
+    QuestMetrics.SUGGESTIONS.recordSince(startTime);
+    return suggestions;
   }
 
   protected static CompletableFuture<Suggestions> suggestQuestTitle(
@@ -66,28 +59,30 @@ public class CustomCommand {
       throws CommandSyntaxException {
     ServerPlayer serverPlayer = context.getSource().getPlayerOrException();
 
-    ArrayList<String> questTitles = new ArrayList<>();
-    QuestManager.getQuests().forEach(quest -> {
-      questTitles.add('"' + quest.getTitle() + '"');
-    });
-
     // Return all quests for creative mode and only the available of the player.
-    return SharedSuggestionProvider.suggest(questTitles, build);
+    long startTime = System.nanoTime();
+    CompletableFuture<Suggestions> suggestions =
+        QuestSuggestionIndex.get().suggestQuestTitles(build).buildFuture();
+    QuestMetrics.SUGGESTIONS.recordSince(startTime);
+    return suggestions;
   }
 
-  protected static CompletableFuture<Suggestions> suggestQuestFile(
+  protected static CompletableFuture<Suggestions> suggestQuestNamespace(
       CommandContext<CommandSourceStack> context, SuggestionsBuilder build) {
+    long startTime = System.nanoTime();
+    CompletableFuture<Suggestions> suggestions =
+        QuestSuggestionIndex.get().suggestQuestNamespaces(build).buildFuture();
+    QuestMetrics.SUGGESTIONS.recordSince(startTime);
+    return suggestions;
+  }
 
-    // Format quest files for suggestion.
-    List<Path> questFiles = QuestDataManager.getQuestDataFiles();
-    ArrayList<String> questFilePaths = new ArrayList<>();
-    questFiles.forEach(questPath -> {
-      log.info(questPath);
-      questFilePaths.add('"' + questPath.toString().replace("\\","/") + '"');
-    });
-
-    // Return all quests for creative mode and only the available of the player.
-    return SharedSuggestionProvider.suggest(questFilePaths, build);
+  protected static CompletableFuture<Suggestions> suggestQuestFile(
+      CommandContext<CommandSourceStack> context, SuggestionsBuilder build) {
+    long startTime = System.nanoTime();
+    CompletableFuture<Suggestions> suggestions =
+        QuestSuggestionIndex.get().suggestQuestFiles(build).buildFuture();
+    QuestMetrics.SUGGESTIONS.recordSince(startTime);
+    return suggestions;
   }
 
 }
@@ -0,0 +1,78 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.commands;
+
+import java.nio.file.Path;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.TextComponent;
+
+import de.markusbordihn.easyquests.data.quest.QuestArchive;
+
+public class ExportCommand extends CustomCommand {
+
+  public static final String NAMESPACE_ARG = "namespace";
+  public static final String FILE_ARG = "file";
+
+  public static ArgumentBuilder<CommandSourceStack, ?> register() {
+    return Commands.literal("export")
+        .requires(commandSourceStack -> commandSourceStack.hasPermission(2))
+        .then(Commands.argument(NAMESPACE_ARG, StringArgumentType.word())
+            .suggests(CustomCommand::suggestQuestNamespace)
+            .then(Commands.argument(FILE_ARG, StringArgumentType.string())
+                .executes(ExportCommand::export)));
+  }
+
+  private static int export(CommandContext<CommandSourceStack> context) {
+    CommandSourceStack source = context.getSource();
+    String namespace = StringArgumentType.getString(context, NAMESPACE_ARG);
+    String fileName = StringArgumentType.getString(context, FILE_ARG);
+    Path archiveFile = QuestArchive.getArchiveFile(fileName);
+    if (archiveFile == null) {
+      source.sendFailure(new TextComponent("Quest archive " + fileName + " is not valid!"));
+      return 0;
+    } else if (QuestArchive.isRunning()) {
+      source.sendFailure(new TextComponent("Quest import or export is already running!"));
+      return 0;
+    }
+
+    // Quests are streamed into the archive in the background.
+    source.sendSuccess(new TextComponent(
+        "Exporting quests of namespace " + namespace + " to " + archiveFile.getFileName() + " ..."),
+        true);
+    QuestArchive.exportQuests(namespace, archiveFile).whenCompleteAsync((result, throwable) -> {
+      if (throwable != null) {
+        log.error("Error while exporting quests to {}:", archiveFile, throwable);
+        source.sendFailure(new TextComponent("Unable to export quests: " + throwable.getMessage()));
+      } else {
+        source.sendSuccess(new TextComponent(
+            "Exported " + result + " quests to " + archiveFile.getFileName() + "."), true);
+      }
+    }, source.getServer());
+    return Command.SINGLE_SUCCESS;
+  }
+
+}
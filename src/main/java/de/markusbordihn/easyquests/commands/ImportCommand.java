@@ -0,0 +1,90 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.commands;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.SharedSuggestionProvider;
+import net.minecraft.network.chat.TextComponent;
+
+import de.markusbordihn.easyquests.data.quest.QuestArchive;
+
+public class ImportCommand extends CustomCommand {
+
+  public static final String FILE_ARG = "file";
+
+  public static ArgumentBuilder<CommandSourceStack, ?> register() {
+    return Commands.literal("import")
+        .requires(commandSourceStack -> commandSourceStack.hasPermission(2))
+        .then(Commands.argument(FILE_ARG, StringArgumentType.string())
+            .suggests(ImportCommand::suggestQuestArchive)
+            .executes(ImportCommand::importQuests));
+  }
+
+  private static int importQuests(CommandContext<CommandSourceStack> context) {
+    CommandSourceStack source = context.getSource();
+    String fileName = StringArgumentType.getString(context, FILE_ARG);
+    Path archiveFile = QuestArchive.getArchiveFile(fileName);
+    if (archiveFile == null) {
+      source.sendFailure(new TextComponent("Quest archive " + fileName + " is not valid!"));
+      return 0;
+    } else if (QuestArchive.isRunning()) {
+      source.sendFailure(new TextComponent("Quest import or export is already running!"));
+      return 0;
+    }
+
+    // The archive is read in the background and the quests are registered in batches.
+    source.sendSuccess(
+        new TextComponent("Importing quests from " + archiveFile.getFileName() + " ..."), true);
+    QuestArchive.importQuests(source.getServer(), archiveFile)
+        .whenCompleteAsync((importResult, throwable) -> {
+          if (throwable != null) {
+            log.error("Error while importing quests from {}:", archiveFile, throwable);
+            source.sendFailure(
+                new TextComponent("Unable to import quests: " + throwable.getMessage()));
+          } else {
+            source.sendSuccess(new TextComponent("Imported quests: " + importResult), true);
+          }
+        }, source.getServer());
+    return Command.SINGLE_SUCCESS;
+  }
+
+  private static CompletableFuture<Suggestions> suggestQuestArchive(
+      CommandContext<CommandSourceStack> context, SuggestionsBuilder build) {
+    for (String fileName : QuestArchive.getArchiveFiles()) {
+      if (SharedSuggestionProvider.matchesSubStr(build.getRemaining().toLowerCase(),
+          fileName.toLowerCase())) {
+        build.suggest(StringArgumentType.escapeIfRequired(fileName));
+      }
+    }
+    return build.buildFuture();
+  }
+
+}
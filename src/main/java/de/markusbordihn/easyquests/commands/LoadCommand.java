@@ -32,6 +32,8 @@ import net.minecraft.network.chat.TextComponent;
 
 import de.markusbordihn.easyquests.data.quest.QuestData;
 import de.markusbordihn.easyquests.data.quest.QuestDataManager;
+import de.markusbordihn.easyquests.data.quest.QuestManager;
+import de.markusbordihn.easyquests.network.QuestSyncManager;
 
 public class LoadCommand extends CustomCommand {
 
@@ -64,6 +66,10 @@ public class LoadCommand extends CustomCommand {
       return 0;
     }
 
+    // Register loaded quest, so that it could be used without a restart.
+    QuestManager.addQuest(questData);
+    QuestSyncManager.broadcastQuest(questData);
+
     source.sendSuccess(new TextComponent("Quest " + filename + " loaded!" + questData), true);
     return Command.SINGLE_SUCCESS;
   }
@@ -0,0 +1,89 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.commands;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.arguments.EntityArgument;
+import net.minecraft.network.chat.TextComponent;
+import net.minecraft.server.level.ServerPlayer;
+
+import de.markusbordihn.easyquests.data.criteria.CriteriaAreaManager;
+import de.markusbordihn.easyquests.data.criteria.CriteriaManager;
+import de.markusbordihn.easyquests.data.player.PlayerQuestProgress;
+import de.markusbordihn.easyquests.data.player.PlayerQuestProgressManager;
+import de.markusbordihn.easyquests.data.quest.QuestManager;
+
+public class ProgressCommand extends CustomCommand {
+
+  public static final String PLAYER_ARG = "player";
+
+  public static ArgumentBuilder<CommandSourceStack, ?> register() {
+
+    return Commands.literal("progress")
+        .requires(commandSourceStack -> commandSourceStack.hasPermission(2))
+
+        // Show quest progress summary for all online players.
+        .executes(ProgressCommand::overview)
+
+        // Show quest progress for a single player.
+        .then(Commands.argument(PLAYER_ARG, EntityArgument.player())
+            .executes(ProgressCommand::progress));
+  }
+
+  private static int overview(CommandContext<CommandSourceStack> context) {
+    CommandSourceStack source = context.getSource();
+    int numberOfPlayers = PlayerQuestProgressManager.getPlayerQuestProgress().size();
+    long memoryUsage = PlayerQuestProgressManager.getMemoryUsage();
+    source.sendSuccess(new TextComponent("Quest progress of " + numberOfPlayers
+        + " players for " + QuestManager.getQuestOrdinals().size() + " quest ordinals uses ~"
+        + memoryUsage + " bytes (~" + (numberOfPlayers > 0 ? memoryUsage / numberOfPlayers : 0)
+        + " bytes per player)."), false);
+    source.sendSuccess(new TextComponent(CriteriaManager.getNumberOfSubscriptions()
+        + " open criteria are indexed by " + CriteriaManager.getNumberOfEventKeys()
+        + " event keys and " + CriteriaAreaManager.getNumberOfAreas() + " areas."), false);
+    return Command.SINGLE_SUCCESS;
+  }
+
+  private static int progress(CommandContext<CommandSourceStack> context)
+      throws CommandSyntaxException {
+    CommandSourceStack source = context.getSource();
+    ServerPlayer player = EntityArgument.getPlayer(context, PLAYER_ARG);
+
+    // Get player quest progress and show error message if not found.
+    PlayerQuestProgress playerQuestProgress =
+        PlayerQuestProgressManager.getPlayerQuestProgress(player);
+    if (playerQuestProgress == null) {
+      source.sendFailure(new TextComponent(
+          "No quest progress found for player " + player.getName().getString() + "!"));
+      return 0;
+    }
+
+    source.sendSuccess(new TextComponent("Quest progress of player "
+        + player.getName().getString() + ": " + playerQuestProgress), false);
+    return Command.SINGLE_SUCCESS;
+  }
+
+}
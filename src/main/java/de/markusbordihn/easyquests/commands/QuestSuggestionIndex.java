@@ -0,0 +1,170 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.commands;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+
+import de.markusbordihn.easyquests.data.quest.QuestDataManager;
+import de.markusbordihn.easyquests.data.quest.QuestHeader;
+import de.markusbordihn.easyquests.data.quest.QuestManager;
+import de.markusbordihn.easyquests.data.quest.QuestRegistry;
+
+/**
+ * Sorted prefix indexes over quest ids, titles and file paths for command suggestions. The index
+ * is rebuilt on the first request after the quest registry or the known quest data files changed,
+ * all other requests are answered by a binary search.
+ */
+public class QuestSuggestionIndex {
+
+  private static volatile QuestSuggestionIndex questSuggestionIndex = null;
+
+  private final long questRegistryVersion;
+  private final long questDataFilesVersion;
+  private final PrefixIndex questIds;
+  private final PrefixIndex questTitles;
+  private final PrefixIndex questFiles;
+  private final PrefixIndex questNamespaces;
+
+  private QuestSuggestionIndex(QuestRegistry.Snapshot snapshot, long questDataFilesVersion,
+      Collection<Path> questDataFiles) {
+    this.questRegistryVersion = snapshot.getVersion();
+    this.questDataFilesVersion = questDataFilesVersion;
+
+    List<String> ids = new ArrayList<>(snapshot.size());
+    List<String> titles = new ArrayList<>(snapshot.size());
+    Set<String> namespaces = new LinkedHashSet<>();
+    for (QuestHeader questHeader : snapshot.getQuestHeaders()) {
+      ids.add(questHeader.getId().toString());
+      titles.add('"' + questHeader.getTitle() + '"');
+      namespaces.add(questHeader.getId().getNamespace());
+    }
+    List<String> files = new ArrayList<>(questDataFiles.size());
+    for (Path questDataFile : questDataFiles) {
+      files.add('"' + questDataFile.toString().replace("\\", "/") + '"');
+    }
+
+    this.questIds = new PrefixIndex(ids);
+    this.questTitles = new PrefixIndex(titles);
+    this.questFiles = new PrefixIndex(files);
+    this.questNamespaces = new PrefixIndex(namespaces);
+  }
+
+  public static QuestSuggestionIndex get() {
+    QuestRegistry.Snapshot snapshot = QuestManager.getSnapshot();
+    long questDataFilesVersion = QuestDataManager.getKnownQuestDataFilesVersion();
+    QuestSuggestionIndex index = questSuggestionIndex;
+    if (index == null || index.questRegistryVersion != snapshot.getVersion()
+        || index.questDataFilesVersion != questDataFilesVersion) {
+      index = new QuestSuggestionIndex(snapshot, questDataFilesVersion,
+          QuestDataManager.getKnownQuestDataFiles());
+      questSuggestionIndex = index;
+    }
+    return index;
+  }
+
+  public static QuestSuggestionIndex create(QuestRegistry.Snapshot snapshot,
+      Collection<Path> questDataFiles) {
+    return new QuestSuggestionIndex(snapshot, -1, questDataFiles);
+  }
+
+  public SuggestionsBuilder suggestQuestIds(SuggestionsBuilder builder) {
+    return this.questIds.suggest(builder);
+  }
+
+  public SuggestionsBuilder suggestQuestTitles(SuggestionsBuilder builder) {
+    return this.questTitles.suggest(builder);
+  }
+
+  public SuggestionsBuilder suggestQuestFiles(SuggestionsBuilder builder) {
+    return this.questFiles.suggest(builder);
+  }
+
+  public SuggestionsBuilder suggestQuestNamespaces(SuggestionsBuilder builder) {
+    return this.questNamespaces.suggest(builder);
+  }
+
+  private static class PrefixIndex {
+
+    // Sorted lower case keys for each word start of a value and the matching value.
+    private final String[] keys;
+    private final String[] values;
+
+    PrefixIndex(Collection<String> suggestions) {
+      List<String[]> entries = new ArrayList<>(suggestions.size() * 2);
+      for (String suggestion : suggestions) {
+        String text = suggestion.toLowerCase(Locale.ROOT);
+        int start = text.startsWith("\"") ? 1 : 0;
+        entries.add(new String[] {text.substring(start), suggestion});
+        for (int i = start; i < text.length() - 1; i++) {
+          if (isWordSeparator(text.charAt(i))) {
+            entries.add(new String[] {text.substring(i + 1), suggestion});
+          }
+        }
+      }
+      entries.sort(Comparator.comparing(entry -> entry[0]));
+      this.keys = new String[entries.size()];
+      this.values = new String[entries.size()];
+      for (int i = 0; i < entries.size(); i++) {
+        this.keys[i] = entries.get(i)[0];
+        this.values[i] = entries.get(i)[1];
+      }
+    }
+
+    SuggestionsBuilder suggest(SuggestionsBuilder builder) {
+      String prefix = builder.getRemaining().toLowerCase(Locale.ROOT);
+      if (prefix.startsWith("\"")) {
+        prefix = prefix.substring(1);
+      }
+
+      // Binary search for the first matching key and collect all following matches.
+      int index = Arrays.binarySearch(this.keys, prefix);
+      if (index < 0) {
+        index = -index - 1;
+      } else {
+        while (index > 0 && this.keys[index - 1].equals(prefix)) {
+          index--;
+        }
+      }
+      Set<String> matches = new LinkedHashSet<>();
+      for (; index < this.keys.length && this.keys[index].startsWith(prefix); index++) {
+        matches.add(this.values[index]);
+      }
+      for (String match : matches) {
+        builder.suggest(match);
+      }
+      return builder;
+    }
+
+    private static boolean isWordSeparator(char c) {
+      return c == '_' || c == ' ' || c == '/' || c == ':';
+    }
+  }
+
+}
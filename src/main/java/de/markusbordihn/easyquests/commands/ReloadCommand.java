@@ -0,0 +1,60 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.commands;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.TextComponent;
+
+import de.markusbordihn.easyquests.data.quest.QuestReloader;
+
+public class ReloadCommand extends CustomCommand {
+
+  public static ArgumentBuilder<CommandSourceStack, ?> register() {
+    return Commands.literal("reload")
+        .requires(commandSourceStack -> commandSourceStack.hasPermission(2))
+        .executes(ReloadCommand::reload);
+  }
+
+  private static int reload(CommandContext<CommandSourceStack> context) {
+    CommandSourceStack source = context.getSource();
+    if (QuestReloader.isReloading()) {
+      source.sendFailure(new TextComponent("Quest reload is already running!"));
+      return 0;
+    }
+
+    // Quest files are compared in the background, the result is reported on the server thread.
+    source.sendSuccess(new TextComponent("Reloading quests ..."), true);
+    QuestReloader.reload(source.getServer()).whenCompleteAsync((reloadResult, throwable) -> {
+      if (throwable != null) {
+        log.error("Error while reloading quests:", throwable);
+        source.sendFailure(new TextComponent("Unable to reload quests: " + throwable.getMessage()));
+      } else {
+        source.sendSuccess(new TextComponent("Reloaded quests: " + reloadResult), true);
+      }
+    }, source.getServer());
+    return Command.SINGLE_SUCCESS;
+  }
+
+}
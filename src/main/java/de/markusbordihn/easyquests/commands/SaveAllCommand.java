@@ -0,0 +1,56 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.commands;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.TextComponent;
+
+import de.markusbordihn.easyquests.data.quest.QuestManager;
+
+public class SaveAllCommand extends CustomCommand {
+
+  public static ArgumentBuilder<CommandSourceStack, ?> register() {
+
+    return Commands.literal("saveall")
+        .requires(commandSourceStack -> commandSourceStack.hasPermission(2))
+
+        // Save all changed quests.
+        .executes(SaveAllCommand::saveAll);
+  }
+
+  private static int saveAll(CommandContext<CommandSourceStack> context) {
+    CommandSourceStack source = context.getSource();
+
+    int numberOfSavedQuests = QuestManager.saveDirtyQuests();
+    if (numberOfSavedQuests == 0) {
+      source.sendSuccess(new TextComponent("No changed quests to save."), false);
+      return Command.SINGLE_SUCCESS;
+    }
+
+    source.sendSuccess(new TextComponent("Save " + numberOfSavedQuests + " changed quests."), true);
+    return Command.SINGLE_SUCCESS;
+  }
+
+}
@@ -32,7 +32,6 @@ import net.minecraft.network.chat.TextComponent;
 import net.minecraft.resources.ResourceLocation;
 
 import de.markusbordihn.easyquests.data.quest.QuestData;
-import de.markusbordihn.easyquests.data.quest.QuestDataManager;
 import de.markusbordihn.easyquests.data.quest.QuestManager;
 
 public class SaveCommand extends CustomCommand {
@@ -73,7 +72,7 @@ public class SaveCommand extends CustomCommand {
 
     source.sendSuccess(new TextComponent("Save quest with title: " + title + ":" + questData),
         false);
-    QuestDataManager.saveQuestData(questData);
+    QuestManager.saveQuest(questData);
     return Command.SINGLE_SUCCESS;
   }
 
@@ -97,7 +96,7 @@ public class SaveCommand extends CustomCommand {
 
     source.sendSuccess(
         new TextComponent("Save quest with id " + resourceLocation + ":" + questData), false);
-    QuestDataManager.saveQuestData(questData);
+    QuestManager.saveQuest(questData);
     return Command.SINGLE_SUCCESS;
   }
 
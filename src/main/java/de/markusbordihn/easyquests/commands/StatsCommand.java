@@ -0,0 +1,87 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.commands;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.TextComponent;
+import net.minecraft.world.level.storage.LevelResource;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.metrics.QuestMetrics;
+
+public class StatsCommand extends CustomCommand {
+
+  public static final String STATS_FILE_NAME = Constants.MOD_ID + "_stats.json";
+
+  private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+  public static ArgumentBuilder<CommandSourceStack, ?> register() {
+    return Commands.literal("stats")
+        .requires(commandSourceStack -> commandSourceStack.hasPermission(2))
+        .executes(StatsCommand::stats)
+        .then(Commands.literal("dump").executes(StatsCommand::dump))
+        .then(Commands.literal("reset").executes(StatsCommand::reset));
+  }
+
+  private static int stats(CommandContext<CommandSourceStack> context) {
+    CommandSourceStack source = context.getSource();
+    source.sendSuccess(new TextComponent("Easy Quests stats:"), false);
+    for (Map.Entry<String, String> metric : QuestMetrics.getMetrics().entrySet()) {
+      source.sendSuccess(new TextComponent("  " + metric.getKey() + ": " + metric.getValue()),
+          false);
+    }
+    return Command.SINGLE_SUCCESS;
+  }
+
+  private static int dump(CommandContext<CommandSourceStack> context) {
+    CommandSourceStack source = context.getSource();
+    Path statsFile = source.getServer().getWorldPath(LevelResource.ROOT).resolve(STATS_FILE_NAME);
+    try (Writer writer = Files.newBufferedWriter(statsFile, StandardCharsets.UTF_8)) {
+      GSON.toJson(QuestMetrics.toJson(), writer);
+    } catch (IOException e) {
+      log.error("Error while writing stats to file: {}", statsFile, e);
+      source.sendFailure(new TextComponent("Unable to write stats to " + statsFile + "!"));
+      return 0;
+    }
+    source.sendSuccess(new TextComponent("Saved stats to " + statsFile.normalize()), false);
+    return Command.SINGLE_SUCCESS;
+  }
+
+  private static int reset(CommandContext<CommandSourceStack> context) {
+    QuestMetrics.reset();
+    context.getSource().sendSuccess(new TextComponent("Reset stats."), false);
+    return Command.SINGLE_SUCCESS;
+  }
+
+}
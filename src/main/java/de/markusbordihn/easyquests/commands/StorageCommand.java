@@ -0,0 +1,132 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.commands;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+
+import net.minecraft.Util;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.SharedSuggestionProvider;
+import net.minecraft.network.chat.TextComponent;
+
+import de.markusbordihn.easyquests.data.storage.QuestStorage;
+import de.markusbordihn.easyquests.data.storage.QuestStorageManager;
+import de.markusbordihn.easyquests.data.storage.QuestStorageType;
+
+public class StorageCommand extends CustomCommand {
+
+  public static final String TYPE_ARG = "type";
+
+  public static ArgumentBuilder<CommandSourceStack, ?> register() {
+    return Commands.literal("storage")
+        .requires(commandSourceStack -> commandSourceStack.hasPermission(2))
+        .executes(StorageCommand::info)
+
+        // Copy all quests into another storage and use it from now on.
+        .then(Commands.literal("migrate")
+            .then(Commands.argument(TYPE_ARG, StringArgumentType.word())
+                .suggests(StorageCommand::suggestQuestStorageType)
+                .executes(StorageCommand::migrate)));
+  }
+
+  private static int info(CommandContext<CommandSourceStack> context) {
+    CommandSourceStack source = context.getSource();
+    QuestStorage questStorage = QuestStorageManager.getQuestStorage();
+    if (questStorage == null) {
+      source.sendFailure(new TextComponent("No quest storage available!"));
+      return 0;
+    }
+
+    // Counting the quests could require to walk the whole quest data folder.
+    CompletableFuture.supplyAsync(questStorage::size, Util.backgroundExecutor())
+        .whenCompleteAsync((numberOfQuests, throwable) -> {
+          if (throwable != null) {
+            log.error("Error while counting quests of {} storage:", questStorage.getType(),
+                throwable);
+            source.sendFailure(new TextComponent("Unable to count quests of "
+                + questStorage.getType() + " storage: " + getMessage(throwable)));
+          } else {
+            source.sendSuccess(new TextComponent("Quest storage " + questStorage.getType()
+                + " with " + numberOfQuests + " quests."), false);
+          }
+        }, source.getServer());
+    return Command.SINGLE_SUCCESS;
+  }
+
+  private static int migrate(CommandContext<CommandSourceStack> context) {
+    CommandSourceStack source = context.getSource();
+
+    // Validate storage type and show error message if type is invalid.
+    String type = StringArgumentType.getString(context, TYPE_ARG);
+    QuestStorageType questStorageType = QuestStorageType.get(type);
+    if (questStorageType == null) {
+      source.sendFailure(new TextComponent("Quest storage " + type + " is not valid!"));
+      return 0;
+    } else if (questStorageType == QuestStorageManager.getQuestStorageType()) {
+      source.sendFailure(new TextComponent("Quest storage " + type + " is already used!"));
+      return 0;
+    } else if (QuestStorageManager.isMigrating()) {
+      source.sendFailure(new TextComponent("Quest storage migration is already running!"));
+      return 0;
+    }
+
+    source.sendSuccess(
+        new TextComponent("Migrating quests to " + questStorageType + " storage ..."), true);
+    QuestStorageManager.migrate(source.getServer(), questStorageType)
+        .whenCompleteAsync((numberOfMigratedQuests, throwable) -> {
+          if (throwable != null) {
+            log.error("Error while migrating quests to {} storage:", questStorageType, throwable);
+            source.sendFailure(new TextComponent("Unable to migrate quests to "
+                + questStorageType + " storage: " + getMessage(throwable)));
+          } else {
+            source.sendSuccess(new TextComponent("Migrated " + numberOfMigratedQuests
+                + " quests to " + questStorageType + " storage."), true);
+          }
+        }, source.getServer());
+    return Command.SINGLE_SUCCESS;
+  }
+
+  private static String getMessage(Throwable throwable) {
+    return throwable instanceof CompletionException && throwable.getCause() != null
+        ? throwable.getCause().getMessage()
+        : throwable.getMessage();
+  }
+
+  private static CompletableFuture<Suggestions> suggestQuestStorageType(
+      CommandContext<CommandSourceStack> context, SuggestionsBuilder build) {
+    for (QuestStorageType questStorageType : QuestStorageType.values()) {
+      if (SharedSuggestionProvider.matchesSubStr(build.getRemaining().toLowerCase(),
+          questStorageType.name().toLowerCase())) {
+        build.suggest(questStorageType.name());
+      }
+    }
+    return build.buildFuture();
+  }
+
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.config;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.minecraftforge.common.ForgeConfigSpec;
+import net.minecraftforge.fml.ModLoadingContext;
+import net.minecraftforge.fml.config.ModConfig;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.data.storage.QuestStorageType;
+
+public class CommonConfig {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  public static final ForgeConfigSpec commonSpec;
+  public static final Config COMMON;
+
+  protected CommonConfig() {}
+
+  static {
+    com.electronwill.nightconfig.core.Config.setInsertionOrderPreserved(true);
+    final Pair<Config, ForgeConfigSpec> specPair =
+        new ForgeConfigSpec.Builder().configure(Config::new);
+    commonSpec = specPair.getRight();
+    COMMON = specPair.getLeft();
+  }
+
+  public static void register() {
+    log.info("Registering {} common config ...", Constants.MOD_NAME);
+    ModLoadingContext.get().registerConfig(ModConfig.Type.COMMON, commonSpec);
+  }
+
+  public static class Config {
+
+    public final ForgeConfigSpec.EnumValue<QuestStorageType> questStorage;
+    public final ForgeConfigSpec.BooleanValue lazyQuestLoading;
+    public final ForgeConfigSpec.IntValue questCacheSize;
+    public final ForgeConfigSpec.BooleanValue watchQuestDataFolder;
+    public final ForgeConfigSpec.IntValue watchDebounceMillis;
+
+    public final ForgeConfigSpec.IntValue rewardGrantsPerTick;
+
+    Config(ForgeConfigSpec.Builder builder) {
+      builder.comment(Constants.MOD_NAME);
+
+      builder.push("Quest Data");
+      questStorage = builder.comment(
+          "Storage for the quest data: FILE (one file per quest), BUNDLE (one file per namespace)"
+              + " or KEY_VALUE (single append-only file). Use the storage command to migrate.")
+          .defineEnum("questStorage", QuestStorageType.FILE);
+      lazyQuestLoading = builder
+          .comment("Keep only a header per quest in memory and load the full quest on demand.")
+          .define("lazyQuestLoading", false);
+      questCacheSize = builder
+          .comment("Max. number of fully loaded quests which are cached in the lazy loading mode.")
+          .defineInRange("questCacheSize", 1000, 16, 1000000);
+      watchQuestDataFolder = builder
+          .comment("Watch the quest data folder and apply changed quest files without a restart.")
+          .define("watchQuestDataFolder", false);
+      watchDebounceMillis = builder
+          .comment("Time in milliseconds without further file changes before they are applied.")
+          .defineInRange("watchDebounceMillis", 500, 50, 60000);
+      builder.pop();
+
+      builder.push("Rewards");
+      rewardGrantsPerTick = builder
+          .comment("Max. number of queued quest rewards which are granted per server tick.")
+          .defineInRange("rewardGrantsPerTick", 20, 1, 10000);
+      builder.pop();
+    }
+  }
+
+}
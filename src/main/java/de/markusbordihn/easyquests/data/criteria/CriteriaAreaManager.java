@@ -0,0 +1,332 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.criteria;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.EntityEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.data.player.PlayerQuestProgress;
+import de.markusbordihn.easyquests.data.player.PlayerQuestProgressManager;
+
+@EventBusSubscriber
+public class CriteriaAreaManager {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  // The amount of stay in area criteria is counted in seconds.
+  private static final int STAY_IN_AREA_TICKS = 20;
+
+  // Larger areas are not bucketed per chunk, they are checked on each section change instead.
+  private static final int MAX_INDEXED_AREA_CHUNKS = 4096;
+
+  // Open quest areas by quest ordinal and criterion index, shared by all subscribed players.
+  private static final Long2ObjectOpenHashMap<QuestArea> questAreas =
+      new Long2ObjectOpenHashMap<>();
+
+  // Quest areas per dimension, bucketed by every chunk the area overlaps.
+  private static final Map<ResourceLocation, Long2ObjectOpenHashMap<List<QuestArea>>> areaIndex =
+      new HashMap<>();
+
+  // Quest areas per dimension, which overlap too many chunks to be bucketed.
+  private static final Map<ResourceLocation, List<QuestArea>> largeAreaIndex = new HashMap<>();
+
+  // Open area criteria in the current section of a player, only these players are checked per tick.
+  private static final Map<UUID, List<NearbyArea>> nearbyAreas = new HashMap<>();
+
+  private static int ticks = 0;
+
+  protected CriteriaAreaManager() {}
+
+  @SubscribeEvent
+  public static void handleEnteringSectionEvent(EntityEvent.EnteringSection event) {
+    if (event.getEntity() instanceof ServerPlayer player) {
+      updateNearbyAreas(player, event.getNewPos());
+    }
+  }
+
+  @SubscribeEvent
+  public static void handlePlayerLoggedInEvent(PlayerEvent.PlayerLoggedInEvent event) {
+    if (event.getPlayer() instanceof ServerPlayer player) {
+      updateNearbyAreas(player);
+    }
+  }
+
+  @SubscribeEvent
+  public static void handlePlayerChangedDimensionEvent(
+      PlayerEvent.PlayerChangedDimensionEvent event) {
+    if (event.getPlayer() instanceof ServerPlayer player) {
+      updateNearbyAreas(player);
+    }
+  }
+
+  @SubscribeEvent
+  public static void handlePlayerLoggedOutEvent(PlayerEvent.PlayerLoggedOutEvent event) {
+    nearbyAreas.remove(event.getPlayer().getUUID());
+  }
+
+  @SubscribeEvent
+  public static void handleServerTickEvent(TickEvent.ServerTickEvent event) {
+    if (event.phase != TickEvent.Phase.END || nearbyAreas.isEmpty()) {
+      return;
+    }
+    MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+    if (server == null) {
+      return;
+    }
+    boolean stayInAreaTick = ++ticks % STAY_IN_AREA_TICKS == 0;
+
+    // Fulfilled criteria are removed from the nearby areas, so iterate over a copy.
+    for (UUID playerId : nearbyAreas.keySet().toArray(new UUID[0])) {
+      ServerPlayer player = server.getPlayerList().getPlayer(playerId);
+      PlayerQuestProgress playerQuestProgress =
+          PlayerQuestProgressManager.getPlayerQuestProgress(playerId);
+      List<NearbyArea> playerNearbyAreas = nearbyAreas.get(playerId);
+      if (player == null || playerQuestProgress == null || playerNearbyAreas == null) {
+        continue;
+      }
+      for (NearbyArea nearbyArea : playerNearbyAreas.toArray(new NearbyArea[0])) {
+        // Sections which are completely inside the area need no further check, only sections at
+        // the border of the area are checked per block.
+        CriteriaData criteriaData = nearbyArea.subscription().criteriaData();
+        if (!nearbyArea.inside()
+            && !nearbyArea.questArea().area().isInside(player.blockPosition())) {
+          continue;
+        }
+        if (criteriaData.getType() == CriteriaType.REACH_AREA) {
+          CriteriaManager.handleCriteriaProgress(nearbyArea.subscription(), playerQuestProgress,
+              criteriaData.getAmount());
+        } else if (stayInAreaTick) {
+          CriteriaManager.handleCriteriaProgress(nearbyArea.subscription(), playerQuestProgress,
+              1);
+        }
+      }
+    }
+  }
+
+  public static void add(CriteriaSubscription subscription) {
+    CriteriaData criteriaData = subscription.criteriaData();
+    long areaKey = getAreaKey(subscription);
+    QuestArea questArea = questAreas.get(areaKey);
+    boolean areaChanged = questArea != null && !questArea.matches(criteriaData);
+    if (areaChanged) {
+      // Changed quest area, the nearby areas of all subscribed players are pointing to the old one.
+      removeFromIndex(questArea);
+      questArea = new QuestArea(areaKey, criteriaData.getTarget(), criteriaData.getArea(),
+          questArea.subscriptions());
+      addToIndex(questArea);
+    } else if (questArea == null) {
+      questArea = new QuestArea(areaKey, criteriaData.getTarget(), criteriaData.getArea(),
+          new HashMap<>());
+      addToIndex(questArea);
+    }
+    questArea.subscriptions().put(subscription.playerId(), subscription);
+    List<UUID> changedPlayerIds = areaChanged ? new ArrayList<>(questArea.subscriptions().keySet())
+        : List.of(subscription.playerId());
+
+    // Players which are already online could already be inside the new area.
+    MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+    if (server == null) {
+      return;
+    }
+    for (UUID playerId : changedPlayerIds) {
+      ServerPlayer player = server.getPlayerList().getPlayer(playerId);
+      if (player != null) {
+        updateNearbyAreas(player);
+      }
+    }
+  }
+
+  public static void remove(CriteriaSubscription subscription) {
+    QuestArea questArea = questAreas.get(getAreaKey(subscription));
+    if (questArea != null
+        && questArea.subscriptions().remove(subscription.playerId(), subscription)
+        && questArea.subscriptions().isEmpty()) {
+      removeFromIndex(questArea);
+    }
+
+    List<NearbyArea> playerNearbyAreas = nearbyAreas.get(subscription.playerId());
+    if (playerNearbyAreas != null
+        && playerNearbyAreas.removeIf(nearbyArea -> nearbyArea.subscription() == subscription)
+        && playerNearbyAreas.isEmpty()) {
+      nearbyAreas.remove(subscription.playerId());
+    }
+  }
+
+  public static void updateNearbyAreas(ServerPlayer player) {
+    updateNearbyAreas(player, SectionPos.of(player));
+  }
+
+  public static void updateNearbyAreas(ServerPlayer player, SectionPos sectionPos) {
+    UUID playerId = player.getUUID();
+    ResourceLocation dimension = player.getLevel().dimension().location();
+    Long2ObjectOpenHashMap<List<QuestArea>> chunks = areaIndex.get(dimension);
+    List<NearbyArea> playerNearbyAreas = addNearbyAreas(null,
+        chunks != null ? chunks.get(ChunkPos.asLong(sectionPos.x(), sectionPos.z())) : null,
+        playerId, sectionPos);
+    playerNearbyAreas =
+        addNearbyAreas(playerNearbyAreas, largeAreaIndex.get(dimension), playerId, sectionPos);
+    if (playerNearbyAreas == null) {
+      nearbyAreas.remove(playerId);
+    } else {
+      nearbyAreas.put(playerId, playerNearbyAreas);
+    }
+  }
+
+  private static List<NearbyArea> addNearbyAreas(List<NearbyArea> playerNearbyAreas,
+      List<QuestArea> questAreaList, UUID playerId, SectionPos sectionPos) {
+    if (questAreaList == null) {
+      return playerNearbyAreas;
+    }
+    int minX = sectionPos.minBlockX();
+    int minY = sectionPos.minBlockY();
+    int minZ = sectionPos.minBlockZ();
+    int maxX = sectionPos.maxBlockX();
+    int maxY = sectionPos.maxBlockY();
+    int maxZ = sectionPos.maxBlockZ();
+    for (QuestArea questArea : questAreaList) {
+      CriteriaSubscription subscription = questArea.subscriptions().get(playerId);
+      BoundingBox area = questArea.area();
+      if (subscription == null || area.maxX() < minX || area.minX() > maxX || area.maxY() < minY
+          || area.minY() > maxY || area.maxZ() < minZ || area.minZ() > maxZ) {
+        continue;
+      }
+      if (playerNearbyAreas == null) {
+        playerNearbyAreas = new ArrayList<>();
+      }
+      playerNearbyAreas.add(new NearbyArea(questArea, subscription,
+          area.minX() <= minX && area.maxX() >= maxX && area.minY() <= minY
+              && area.maxY() >= maxY && area.minZ() <= minZ && area.maxZ() >= maxZ));
+    }
+    return playerNearbyAreas;
+  }
+
+  public static int getNumberOfAreas() {
+    return questAreas.size();
+  }
+
+  public static int getNumberOfNearbyAreas() {
+    return nearbyAreas.size();
+  }
+
+  public static void clear() {
+    questAreas.clear();
+    areaIndex.clear();
+    largeAreaIndex.clear();
+    nearbyAreas.clear();
+  }
+
+  private static long getAreaKey(CriteriaSubscription subscription) {
+    return ((long) subscription.questOrdinal() << 32)
+        | (subscription.criterionIndex() & 0xffffffffL);
+  }
+
+  private static void addToIndex(QuestArea questArea) {
+    questAreas.put(questArea.key(), questArea);
+    BoundingBox area = questArea.area();
+    if (getNumberOfChunks(area) > MAX_INDEXED_AREA_CHUNKS) {
+      log.warn("Quest area {} with {} chunks is too large to be indexed per chunk.", area,
+          getNumberOfChunks(area));
+      largeAreaIndex.computeIfAbsent(questArea.dimension(), key -> new ArrayList<>())
+          .add(questArea);
+      return;
+    }
+    Long2ObjectOpenHashMap<List<QuestArea>> chunks =
+        areaIndex.computeIfAbsent(questArea.dimension(), key -> new Long2ObjectOpenHashMap<>());
+    for (int chunkX = area.minX() >> 4; chunkX <= area.maxX() >> 4; chunkX++) {
+      for (int chunkZ = area.minZ() >> 4; chunkZ <= area.maxZ() >> 4; chunkZ++) {
+        chunks.computeIfAbsent(ChunkPos.asLong(chunkX, chunkZ), key -> new ArrayList<>())
+            .add(questArea);
+      }
+    }
+  }
+
+  private static void removeFromIndex(QuestArea questArea) {
+    questAreas.remove(questArea.key(), questArea);
+    BoundingBox area = questArea.area();
+    if (getNumberOfChunks(area) > MAX_INDEXED_AREA_CHUNKS) {
+      List<QuestArea> largeAreas = largeAreaIndex.get(questArea.dimension());
+      if (largeAreas != null && largeAreas.remove(questArea) && largeAreas.isEmpty()) {
+        largeAreaIndex.remove(questArea.dimension());
+      }
+      return;
+    }
+    Long2ObjectOpenHashMap<List<QuestArea>> chunks = areaIndex.get(questArea.dimension());
+    if (chunks == null) {
+      return;
+    }
+    for (int chunkX = area.minX() >> 4; chunkX <= area.maxX() >> 4; chunkX++) {
+      for (int chunkZ = area.minZ() >> 4; chunkZ <= area.maxZ() >> 4; chunkZ++) {
+        long chunkKey = ChunkPos.asLong(chunkX, chunkZ);
+        List<QuestArea> chunkAreas = chunks.get(chunkKey);
+        if (chunkAreas != null && chunkAreas.remove(questArea) && chunkAreas.isEmpty()) {
+          chunks.remove(chunkKey);
+        }
+      }
+    }
+    if (chunks.isEmpty()) {
+      areaIndex.remove(questArea.dimension());
+    }
+  }
+
+  private static long getNumberOfChunks(BoundingBox area) {
+    return (long) ((area.maxX() >> 4) - (area.minX() >> 4) + 1)
+        * ((area.maxZ() >> 4) - (area.minZ() >> 4) + 1);
+  }
+
+  /**
+   * Area of a single quest criterion, which is indexed once for all subscribed players.
+   */
+  private record QuestArea(long key, ResourceLocation dimension, BoundingBox area,
+      Map<UUID, CriteriaSubscription> subscriptions) {
+
+    private boolean matches(CriteriaData criteriaData) {
+      return this.dimension.equals(criteriaData.getTarget())
+          && this.area.equals(criteriaData.getArea());
+    }
+  }
+
+  private record NearbyArea(QuestArea questArea, CriteriaSubscription subscription,
+      boolean inside) {
+  }
+
+}
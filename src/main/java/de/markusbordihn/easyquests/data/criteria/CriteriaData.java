@@ -19,14 +19,137 @@
 
 package de.markusbordihn.easyquests.data.criteria;
 
+import net.minecraft.core.Vec3i;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
 
 public class CriteriaData {
 
+  // Data Tags
+  public static final String DATA_AMOUNT_TAG = "Amount";
+  public static final String DATA_AREA_TAG = "Area";
+  public static final String DATA_DESCRIPTION_TAG = "Description";
+  public static final String DATA_TARGET_TAG = "Target";
+  public static final String DATA_TYPE_TAG = "Type";
+
+  // Targets starting with this prefix are tags, e.g. #minecraft:logs
+  public static final String TAG_PREFIX = "#";
+
+  private final CriteriaType type;
+  private final ResourceLocation target;
+  private final boolean tag;
+  private final int amount;
+  private final String description;
+
+  // Area of location criteria, the target is the dimension of the area.
+  private final BoundingBox area;
+
+  public CriteriaData(CriteriaType type, ResourceLocation target, int amount) {
+    this(type, target, false, amount, "");
+  }
+
+  public CriteriaData(CriteriaType type, ResourceLocation target, boolean tag, int amount,
+      String description) {
+    this.type = type != null ? type : CriteriaType.CUSTOM;
+    this.target = target;
+    this.tag = tag;
+    this.amount = Math.max(1, amount);
+    this.description = description != null ? description : "";
+    this.area = null;
+  }
+
+  public CriteriaData(CriteriaType type, ResourceLocation dimension, BoundingBox area, int amount,
+      String description) {
+    this.type = type != null ? type : CriteriaType.CUSTOM;
+    this.target = dimension;
+    this.tag = false;
+    this.amount = Math.max(1, amount);
+    this.description = description != null ? description : "";
+    this.area = area;
+  }
+
+  public CriteriaType getType() {
+    return this.type;
+  }
+
+  public ResourceLocation getTarget() {
+    return this.target;
+  }
+
+  public boolean isTag() {
+    return this.tag;
+  }
+
+  public int getAmount() {
+    return this.amount;
+  }
+
+  public String getDescription() {
+    return this.description;
+  }
+
+  public BoundingBox getArea() {
+    return this.area;
+  }
+
+  public boolean hasArea() {
+    return this.area != null && this.target != null && this.type.isAreaCriteria();
+  }
+
+  public CriteriaEventKey getEventKey() {
+    return this.type == CriteriaType.CUSTOM || this.type.isAreaCriteria() || this.target == null
+        ? null
+        : new CriteriaEventKey(this.type, this.target, this.tag);
+  }
+
   public static CriteriaData load(CompoundTag compoundTag) {
-    return null;
+    CriteriaType type = CriteriaType.get(compoundTag.getString(DATA_TYPE_TAG));
+    String target = compoundTag.getString(DATA_TARGET_TAG);
+    int amount = compoundTag.contains(DATA_AMOUNT_TAG) ? compoundTag.getInt(DATA_AMOUNT_TAG) : 1;
+    String description = compoundTag.getString(DATA_DESCRIPTION_TAG);
+
+    // Location criteria, with the dimension as target.
+    if (type.isAreaCriteria()) {
+      int[] area = compoundTag.getIntArray(DATA_AREA_TAG);
+      return new CriteriaData(type, ResourceLocation.tryParse(target),
+          area.length == 6 ? BoundingBox.fromCorners(new Vec3i(area[0], area[1], area[2]),
+              new Vec3i(area[3], area[4], area[5])) : null,
+          amount, description);
+    }
+
+    // Item, block or entity criteria, with an optional tag as target.
+    boolean tag = target.startsWith(TAG_PREFIX);
+    if (tag) {
+      target = target.substring(TAG_PREFIX.length());
+    }
+    return new CriteriaData(type, target.isEmpty() ? null : ResourceLocation.tryParse(target), tag,
+        amount, description);
   }
 
-  public void save(CompoundTag compoundTag) {}
+
+  public CompoundTag save(CompoundTag compoundTag) {
+    compoundTag.putString(DATA_TYPE_TAG, this.type.name());
+    if (this.target != null) {
+      compoundTag.putString(DATA_TARGET_TAG,
+          this.tag ? TAG_PREFIX + this.target : this.target.toString());
+    }
+    if (this.area != null) {
+      compoundTag.putIntArray(DATA_AREA_TAG, new int[] {this.area.minX(), this.area.minY(),
+          this.area.minZ(), this.area.maxX(), this.area.maxY(), this.area.maxZ()});
+    }
+    compoundTag.putInt(DATA_AMOUNT_TAG, this.amount);
+    if (!this.description.isEmpty()) {
+      compoundTag.putString(DATA_DESCRIPTION_TAG, this.description);
+    }
+    return compoundTag;
+  }
+
+  @Override
+  public String toString() {
+    return "CriteriaData [type=" + this.type + ", target=" + (this.tag ? TAG_PREFIX : "")
+        + this.target + ", area=" + this.area + ", amount=" + this.amount + ", description="
+        + this.description + "]";
+  }
 
 }
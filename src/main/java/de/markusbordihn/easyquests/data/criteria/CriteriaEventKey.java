@@ -0,0 +1,38 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.criteria;
+
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Key of the criteria subscription index, e.g. KILL_ENTITY + minecraft:zombie or PICKUP_ITEM +
+ * #minecraft:logs for tag targets.
+ */
+public record CriteriaEventKey(CriteriaType type, ResourceLocation target, boolean tag) {
+
+  public CriteriaEventKey(CriteriaType type, ResourceLocation target) {
+    this(type, target, false);
+  }
+
+  @Override
+  public String toString() {
+    return this.type + " " + (this.tag ? "#" : "") + this.target;
+  }
+}
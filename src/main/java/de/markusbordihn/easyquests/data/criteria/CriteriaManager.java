@@ -0,0 +1,414 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.criteria;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+import net.minecraft.core.Registry;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.Block;
+
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.event.entity.living.LivingDeathEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStartingEvent;
+import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.data.player.PlayerQuestProgress;
+import de.markusbordihn.easyquests.data.player.PlayerQuestProgressManager;
+import de.markusbordihn.easyquests.data.quest.QuestData;
+import de.markusbordihn.easyquests.data.quest.QuestManager;
+import de.markusbordihn.easyquests.data.quest.QuestOrdinals;
+import de.markusbordihn.easyquests.data.quest.QuestStatus;
+import de.markusbordihn.easyquests.data.reward.RewardManager;
+
+@EventBusSubscriber
+public class CriteriaManager {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  // Open criteria by event key and player, so that an event only visits matching criteria.
+  private static final Map<CriteriaEventKey, Map<UUID, List<CriteriaSubscription>>>
+      subscriptionIndex = new HashMap<>();
+
+  // Open criteria by player and quest ordinal, to unsubscribe and detect completed quests.
+  private static final Map<UUID, Int2ObjectOpenHashMap<List<CriteriaSubscription>>>
+      playerSubscriptions = new HashMap<>();
+
+  // Number of indexed criteria per criteria type, to skip unused event types early.
+  private static final int[] numberOfSubscriptions = new int[CriteriaType.values().length];
+
+  // Expanded tags of all item, block and entity tag criteria.
+  private static final CriteriaTagIndex<Item> criteriaItemIndex = new CriteriaTagIndex<>(
+      Registry.ITEM, Registry.ITEM_REGISTRY, CriteriaType.CRAFT_ITEM, CriteriaType.PICKUP_ITEM);
+  private static final CriteriaTagIndex<Block> criteriaBlockIndex =
+      new CriteriaTagIndex<>(Registry.BLOCK, Registry.BLOCK_REGISTRY, CriteriaType.BREAK_BLOCK);
+  private static final CriteriaTagIndex<EntityType<?>> criteriaEntityIndex =
+      new CriteriaTagIndex<>(Registry.ENTITY_TYPE, Registry.ENTITY_TYPE_REGISTRY,
+          CriteriaType.KILL_ENTITY);
+
+  protected CriteriaManager() {}
+
+  @SubscribeEvent
+  public static void handleServerStartingEvent(ServerStartingEvent event) {
+    clear();
+  }
+
+  @SubscribeEvent
+  public static void handleServerStartedEvent(ServerStartedEvent event) {
+    rebuildTagIndexes();
+  }
+
+  @SubscribeEvent
+  public static void handleTagsUpdatedEvent(TagsUpdatedEvent event) {
+    // Tags received by the client are fired on the client thread, also in singleplayer.
+    if (event.getUpdateCause() != TagsUpdatedEvent.UpdateCause.SERVER_DATA_LOAD) {
+      return;
+    }
+    rebuildTagIndexes();
+  }
+
+  @SubscribeEvent(priority = EventPriority.LOWEST)
+  public static void handleLivingDeathEvent(LivingDeathEvent event) {
+    if (event.getSource().getEntity() instanceof ServerPlayer player) {
+      handleTagCriteriaEvent(player, CriteriaType.KILL_ENTITY, criteriaEntityIndex,
+          event.getEntityLiving().getType(), event.getEntityLiving().getType().getRegistryName(),
+          1);
+    }
+  }
+
+  @SubscribeEvent
+  public static void handleItemPickupEvent(PlayerEvent.ItemPickupEvent event) {
+    if (event.getPlayer() instanceof ServerPlayer player) {
+      handleItemCriteriaEvent(player, CriteriaType.PICKUP_ITEM, event.getStack());
+    }
+  }
+
+  @SubscribeEvent
+  public static void handleItemCraftedEvent(PlayerEvent.ItemCraftedEvent event) {
+    if (event.getPlayer() instanceof ServerPlayer player) {
+      handleItemCriteriaEvent(player, CriteriaType.CRAFT_ITEM, event.getCrafting());
+    }
+  }
+
+  @SubscribeEvent(priority = EventPriority.LOWEST)
+  public static void handleBlockBreakEvent(BlockEvent.BreakEvent event) {
+    if (event.getPlayer() instanceof ServerPlayer player) {
+      handleTagCriteriaEvent(player, CriteriaType.BREAK_BLOCK, criteriaBlockIndex,
+          event.getState().getBlock(), event.getState().getBlock().getRegistryName(), 1);
+    }
+  }
+
+  public static void handleItemCriteriaEvent(Player player, CriteriaType criteriaType,
+      ItemStack itemStack) {
+    if (numberOfSubscriptions[criteriaType.ordinal()] == 0 || itemStack.isEmpty()) {
+      return;
+    }
+    Item item = itemStack.getItem();
+    handleTagCriteriaEvent(player, criteriaType, criteriaItemIndex, item, item.getRegistryName(),
+        itemStack.getCount());
+  }
+
+  private static <T> void handleTagCriteriaEvent(Player player, CriteriaType criteriaType,
+      CriteriaTagIndex<T> criteriaTagIndex, T entry, ResourceLocation target, int amount) {
+    if (numberOfSubscriptions[criteriaType.ordinal()] == 0 || target == null) {
+      return;
+    }
+    handleCriteriaEvent(player, new CriteriaEventKey(criteriaType, target), amount);
+
+    // Tag criteria are resolved with a single lookup of the precomputed tag index.
+    for (CriteriaEventKey eventKey : criteriaTagIndex.getEventKeys(entry)) {
+      if (eventKey.type() == criteriaType) {
+        handleCriteriaEvent(player, eventKey, amount);
+      }
+    }
+  }
+
+  public static void handleCriteriaEvent(Player player, CriteriaType criteriaType,
+      ResourceLocation target, int amount) {
+    if (numberOfSubscriptions[criteriaType.ordinal()] == 0 || target == null) {
+      return;
+    }
+    handleCriteriaEvent(player, new CriteriaEventKey(criteriaType, target), amount);
+  }
+
+  private static void handleCriteriaEvent(Player player, CriteriaEventKey eventKey, int amount) {
+    if (amount <= 0 || eventKey.target() == null) {
+      return;
+    }
+    Map<UUID, List<CriteriaSubscription>> subscriptions = subscriptionIndex.get(eventKey);
+    if (subscriptions == null) {
+      return;
+    }
+    List<CriteriaSubscription> matchingSubscriptions = subscriptions.get(player.getUUID());
+    if (matchingSubscriptions == null) {
+      return;
+    }
+    PlayerQuestProgress playerQuestProgress =
+        PlayerQuestProgressManager.getPlayerQuestProgress(player);
+    if (playerQuestProgress == null) {
+      return;
+    }
+
+    // Copy the matching subscriptions, because fulfilled criteria are removed from the index.
+    for (CriteriaSubscription subscription : matchingSubscriptions
+        .toArray(new CriteriaSubscription[0])) {
+      handleCriteriaProgress(subscription, playerQuestProgress, amount);
+    }
+  }
+
+  public static boolean handleCriteriaProgress(CriteriaSubscription subscription,
+      PlayerQuestProgress playerQuestProgress, int amount) {
+    int requiredAmount = subscription.criteriaData().getAmount();
+    int counter = playerQuestProgress.incrementCriteriaCounter(subscription.questOrdinal(),
+        subscription.criterionIndex(), amount);
+    if (counter < requiredAmount) {
+      return false;
+    }
+    if (counter > requiredAmount) {
+      playerQuestProgress.setCriteriaCounter(subscription.questOrdinal(),
+          subscription.criterionIndex(), requiredAmount);
+    }
+    fulfill(subscription, playerQuestProgress);
+    return true;
+  }
+
+  public static void subscribe(PlayerQuestProgress playerQuestProgress) {
+    for (int questOrdinal : playerQuestProgress.getTrackedQuests()) {
+      if (playerQuestProgress.hasStatus(questOrdinal, QuestStatus.IN_PROGRESS)) {
+        QuestData questData = QuestManager.getQuest(questOrdinal);
+        if (questData != null) {
+          subscribe(playerQuestProgress, questOrdinal, questData);
+        }
+      }
+    }
+  }
+
+  public static void subscribe(PlayerQuestProgress playerQuestProgress, int questOrdinal,
+      QuestData questData) {
+    UUID playerId = playerQuestProgress.getPlayerId();
+    unsubscribe(playerId, questOrdinal);
+    List<CriteriaData> criterias = questData.getCriterias();
+
+    // Counters of criteria which were removed from the quest are no longer needed.
+    playerQuestProgress.clearCriteriaCounters(questOrdinal,
+        criterias != null ? criterias.size() : 0);
+    if (criterias == null || criterias.isEmpty()) {
+      return;
+    }
+
+    List<CriteriaSubscription> questSubscriptions = new ArrayList<>();
+    for (int criterionIndex = 0; criterionIndex < criterias.size()
+        && criterionIndex < PlayerQuestProgress.MAX_CRITERIA; criterionIndex++) {
+      CriteriaData criteriaData = criterias.get(criterionIndex);
+      if (criteriaData == null || playerQuestProgress.getCriteriaCounter(questOrdinal,
+          criterionIndex) >= criteriaData.getAmount()) {
+        continue;
+      }
+      CriteriaSubscription subscription =
+          new CriteriaSubscription(playerId, questOrdinal, criterionIndex, criteriaData);
+      questSubscriptions.add(subscription);
+
+      // Custom criteria stay open until they are fulfilled by an external call.
+      CriteriaEventKey eventKey = criteriaData.getEventKey();
+      if (criteriaData.hasArea()) {
+        CriteriaAreaManager.add(subscription);
+      } else if (eventKey != null) {
+        subscriptionIndex.computeIfAbsent(eventKey, key -> new HashMap<>())
+            .computeIfAbsent(playerId, key -> new ArrayList<>()).add(subscription);
+        numberOfSubscriptions[eventKey.type().ordinal()]++;
+        if (eventKey.tag()) {
+          criteriaItemIndex.add(eventKey);
+          criteriaBlockIndex.add(eventKey);
+          criteriaEntityIndex.add(eventKey);
+        }
+      }
+    }
+    if (questSubscriptions.isEmpty()) {
+      completeQuest(playerQuestProgress, questOrdinal);
+    } else {
+      playerSubscriptions.computeIfAbsent(playerId, key -> new Int2ObjectOpenHashMap<>())
+          .put(questOrdinal, questSubscriptions);
+    }
+  }
+
+  public static void resubscribe(Collection<QuestData> questDataList) {
+    // Criteria of changed quests which are in progress for online players are indexed again.
+    Collection<PlayerQuestProgress> playerQuestProgressList =
+        PlayerQuestProgressManager.getPlayerQuestProgress();
+    if (playerQuestProgressList.isEmpty()) {
+      return;
+    }
+    for (QuestData questData : questDataList) {
+      int questOrdinal = QuestManager.getQuestOrdinals().get(questData.getId());
+      if (questOrdinal == QuestOrdinals.NO_ORDINAL) {
+        continue;
+      }
+      for (PlayerQuestProgress playerQuestProgress : playerQuestProgressList) {
+        if (playerQuestProgress.hasStatus(questOrdinal, QuestStatus.IN_PROGRESS)) {
+          subscribe(playerQuestProgress, questOrdinal, questData);
+        }
+      }
+    }
+  }
+
+  public static void unsubscribe(UUID playerId) {
+    Int2ObjectOpenHashMap<List<CriteriaSubscription>> questSubscriptions =
+        playerSubscriptions.remove(playerId);
+    if (questSubscriptions != null) {
+      for (List<CriteriaSubscription> subscriptions : questSubscriptions.values()) {
+        subscriptions.forEach(CriteriaManager::removeFromIndex);
+      }
+    }
+  }
+
+  public static void unsubscribe(UUID playerId, int questOrdinal) {
+    Int2ObjectOpenHashMap<List<CriteriaSubscription>> questSubscriptions =
+        playerSubscriptions.get(playerId);
+    if (questSubscriptions == null) {
+      return;
+    }
+    List<CriteriaSubscription> subscriptions = questSubscriptions.remove(questOrdinal);
+    if (subscriptions != null) {
+      subscriptions.forEach(CriteriaManager::removeFromIndex);
+    }
+    if (questSubscriptions.isEmpty()) {
+      playerSubscriptions.remove(playerId);
+    }
+  }
+
+  public static void unsubscribeQuest(int questOrdinal) {
+    // Removed quests could not be fulfilled anymore by any player.
+    for (UUID playerId : playerSubscriptions.keySet().toArray(new UUID[0])) {
+      unsubscribe(playerId, questOrdinal);
+    }
+  }
+
+  public static void fulfill(CriteriaSubscription subscription,
+      PlayerQuestProgress playerQuestProgress) {
+    removeFromIndex(subscription);
+    Int2ObjectOpenHashMap<List<CriteriaSubscription>> questSubscriptions =
+        playerSubscriptions.get(subscription.playerId());
+    if (questSubscriptions == null) {
+      return;
+    }
+    List<CriteriaSubscription> subscriptions = questSubscriptions.get(subscription.questOrdinal());
+    if (subscriptions == null || !subscriptions.remove(subscription) || !subscriptions.isEmpty()) {
+      return;
+    }
+
+    // All criteria are fulfilled, so the quest is completed.
+    questSubscriptions.remove(subscription.questOrdinal());
+    if (questSubscriptions.isEmpty()) {
+      playerSubscriptions.remove(subscription.playerId());
+    }
+    completeQuest(playerQuestProgress, subscription.questOrdinal());
+  }
+
+  public static void completeQuest(PlayerQuestProgress playerQuestProgress, int questOrdinal) {
+    playerQuestProgress.setStatus(questOrdinal, QuestStatus.COMPLETED);
+    log.debug("Player {} completed quest {}", playerQuestProgress.getPlayerId(),
+        QuestManager.getQuestOrdinals().getId(questOrdinal));
+    RewardManager.queueRewards(playerQuestProgress.getPlayerId(), questOrdinal);
+  }
+
+  public static int getNumberOfSubscriptions() {
+    int result = 0;
+    for (int numberOfSubscriptionsPerType : numberOfSubscriptions) {
+      result += numberOfSubscriptionsPerType;
+    }
+    return result;
+  }
+
+  public static int getNumberOfEventKeys() {
+    return subscriptionIndex.size();
+  }
+
+  public static CriteriaTagIndex<Item> getCriteriaItemIndex() {
+    return criteriaItemIndex;
+  }
+
+  public static void rebuildTagIndexes() {
+    List<CriteriaEventKey> subscribedTagEventKeys = new ArrayList<>();
+    for (CriteriaEventKey eventKey : subscriptionIndex.keySet()) {
+      if (eventKey.tag()) {
+        subscribedTagEventKeys.add(eventKey);
+      }
+    }
+    Collection<QuestData> questDataList = QuestManager.getSnapshot().getQuestData();
+    criteriaItemIndex.rebuild(questDataList, subscribedTagEventKeys);
+    criteriaBlockIndex.rebuild(questDataList, subscribedTagEventKeys);
+    criteriaEntityIndex.rebuild(questDataList, subscribedTagEventKeys);
+  }
+
+  public static void clear() {
+    subscriptionIndex.clear();
+    playerSubscriptions.clear();
+    Arrays.fill(numberOfSubscriptions, 0);
+    CriteriaAreaManager.clear();
+  }
+
+  private static void removeFromIndex(CriteriaSubscription subscription) {
+    if (subscription.criteriaData().hasArea()) {
+      CriteriaAreaManager.remove(subscription);
+      return;
+    }
+    CriteriaEventKey eventKey = subscription.criteriaData().getEventKey();
+    if (eventKey == null) {
+      return;
+    }
+    Map<UUID, List<CriteriaSubscription>> subscriptions = subscriptionIndex.get(eventKey);
+    if (subscriptions == null) {
+      return;
+    }
+    List<CriteriaSubscription> playerSubscriptionList = subscriptions.get(subscription.playerId());
+    if (playerSubscriptionList != null && playerSubscriptionList.remove(subscription)) {
+      numberOfSubscriptions[eventKey.type().ordinal()]--;
+      if (playerSubscriptionList.isEmpty()) {
+        subscriptions.remove(subscription.playerId());
+        if (subscriptions.isEmpty()) {
+          subscriptionIndex.remove(eventKey);
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.criteria;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.tags.TagKey;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.data.quest.QuestData;
+
+/**
+ * Precomputed registry entry to tag criteria lookup, e.g. for items, blocks or entity types, so
+ * that events don't need to check the tag membership of every tag criteria.
+ */
+public class CriteriaTagIndex<T> {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  private static final CriteriaEventKey[] EMPTY_EVENT_KEYS = new CriteriaEventKey[0];
+
+  private final Registry<T> registry;
+  private final ResourceKey<? extends Registry<T>> registryKey;
+  private final Set<CriteriaType> criteriaTypes;
+  private final Set<CriteriaEventKey> tagEventKeys = new HashSet<>();
+  private final Map<T, CriteriaEventKey[]> entryEventKeys = new HashMap<>();
+
+  public CriteriaTagIndex(Registry<T> registry, ResourceKey<? extends Registry<T>> registryKey,
+      CriteriaType criteriaType, CriteriaType... criteriaTypes) {
+    this.registry = registry;
+    this.registryKey = registryKey;
+    this.criteriaTypes = EnumSet.of(criteriaType, criteriaTypes);
+  }
+
+  public boolean isIndexed(CriteriaType criteriaType) {
+    return this.criteriaTypes.contains(criteriaType);
+  }
+
+  public CriteriaEventKey[] getEventKeys(T entry) {
+    return this.entryEventKeys.getOrDefault(entry, EMPTY_EVENT_KEYS);
+  }
+
+  public boolean contains(CriteriaEventKey eventKey) {
+    return this.tagEventKeys.contains(eventKey);
+  }
+
+  public int size() {
+    return this.entryEventKeys.size();
+  }
+
+  public int getNumberOfTags() {
+    return this.tagEventKeys.size();
+  }
+
+  public void add(CriteriaEventKey eventKey) {
+    if (eventKey == null || !eventKey.tag() || !isIndexed(eventKey.type())
+        || !this.tagEventKeys.add(eventKey)) {
+      return;
+    }
+    for (Holder<T> entry : this.registry
+        .getTagOrEmpty(TagKey.create(this.registryKey, eventKey.target()))) {
+      CriteriaEventKey[] eventKeys = this.entryEventKeys.get(entry.value());
+      if (eventKeys == null) {
+        this.entryEventKeys.put(entry.value(), new CriteriaEventKey[] {eventKey});
+      } else {
+        eventKeys = Arrays.copyOf(eventKeys, eventKeys.length + 1);
+        eventKeys[eventKeys.length - 1] = eventKey;
+        this.entryEventKeys.put(entry.value(), eventKeys);
+      }
+    }
+  }
+
+  public void rebuild(Collection<QuestData> questDataList,
+      Collection<CriteriaEventKey> additionalEventKeys) {
+    long start = System.nanoTime();
+    List<CriteriaEventKey> eventKeys = new ArrayList<>(additionalEventKeys);
+    for (QuestData questData : questDataList) {
+      List<CriteriaData> criterias = questData.getCriterias();
+      if (criterias != null) {
+        for (CriteriaData criteriaData : criterias) {
+          if (criteriaData != null && criteriaData.isTag()) {
+            eventKeys.add(criteriaData.getEventKey());
+          }
+        }
+      }
+    }
+    this.tagEventKeys.clear();
+    this.entryEventKeys.clear();
+    eventKeys.forEach(this::add);
+    log.debug("Indexed {} entries of {} for {} tag criteria in {} ms", this.entryEventKeys.size(),
+        this.registryKey.location(), this.tagEventKeys.size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.criteria;
+
+public enum CriteriaType {
+
+  // @formatter:off
+  CUSTOM,
+  BREAK_BLOCK,
+  CRAFT_ITEM,
+  KILL_ENTITY,
+  PICKUP_ITEM,
+  REACH_AREA,
+  STAY_IN_AREA;
+  // @formatter:on
+
+  public boolean isAreaCriteria() {
+    return this == REACH_AREA || this == STAY_IN_AREA;
+  }
+
+  public static CriteriaType get(String criteriaType) {
+    if (criteriaType == null || criteriaType.isEmpty()) {
+      return CriteriaType.CUSTOM;
+    }
+    try {
+      return CriteriaType.valueOf(criteriaType);
+    } catch (IllegalArgumentException e) {
+      return CriteriaType.CUSTOM;
+    }
+  }
+}
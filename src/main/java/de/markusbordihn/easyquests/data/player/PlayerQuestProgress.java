@@ -0,0 +1,343 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.player;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2LongMap;
+import it.unimi.dsi.fastutil.ints.Int2LongMaps;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.IntArrayTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceLocation;
+
+import de.markusbordihn.easyquests.data.quest.QuestOrdinals;
+import de.markusbordihn.easyquests.data.quest.QuestStatus;
+
+/**
+ * Compact quest progress of a single player. The quest status is stored as nibble per dense quest
+ * ordinal and the criteria counters are stored in a primitive int map.
+ */
+public class PlayerQuestProgress {
+
+  // Data Tags
+  public static final String DATA_CRITERIA_TAG = "Criteria";
+  public static final String DATA_DEADLINE_TAG = "Deadline";
+  public static final String DATA_LAST_RESET_TAG = "LastReset";
+  public static final String DATA_QUEST_ID_TAG = "Id";
+  public static final String DATA_QUESTS_TAG = "Quests";
+  public static final String DATA_STATUS_TAG = "Status";
+
+  // Max. number of criteria per quest, which could be tracked.
+  public static final int MAX_CRITERIA = 256;
+
+  // Max. quest ordinal with criteria counters, so that the counter key doesn't overflow.
+  public static final int MAX_CRITERIA_QUEST_ORDINAL = Integer.MAX_VALUE / MAX_CRITERIA - 1;
+
+  private static final QuestStatus[] QUEST_STATUS_VALUES = QuestStatus.values();
+  private static final byte[] EMPTY_STATUS = new byte[0];
+
+  private final UUID playerId;
+  private final QuestOrdinals questOrdinals;
+
+  // Two quests per byte, 0 = not tracked, otherwise quest status ordinal + 1.
+  private byte[] questStatus = EMPTY_STATUS;
+  private int numberOfTrackedQuests = 0;
+
+  // Criteria counter per (quest ordinal * MAX_CRITERIA + criterion index).
+  private final Int2IntOpenHashMap criteriaCounters = new Int2IntOpenHashMap();
+
+  // Deadline per quest ordinal of timed quests in progress, in epoch milliseconds.
+  private final Int2LongOpenHashMap deadlines = new Int2LongOpenHashMap();
+
+  // Time of the last quest reset check, in epoch milliseconds.
+  private long lastReset = 0;
+
+  private boolean dirty = false;
+
+  public PlayerQuestProgress(UUID playerId, QuestOrdinals questOrdinals) {
+    this.playerId = playerId;
+    this.questOrdinals = questOrdinals;
+  }
+
+  public UUID getPlayerId() {
+    return this.playerId;
+  }
+
+  public QuestStatus getStatus(ResourceLocation questId) {
+    return getStatus(this.questOrdinals.get(questId));
+  }
+
+  public QuestStatus getStatus(int questOrdinal) {
+    int value = getStatusValue(questOrdinal);
+    return value == 0 ? null : QUEST_STATUS_VALUES[value - 1];
+  }
+
+  public QuestStatus getStatus(int questOrdinal, QuestStatus defaultStatus) {
+    QuestStatus questStatus = getStatus(questOrdinal);
+    return questStatus != null ? questStatus : defaultStatus;
+  }
+
+  public void setStatus(ResourceLocation questId, QuestStatus questStatus) {
+    setStatus(this.questOrdinals.getOrCreate(questId), questStatus);
+  }
+
+  public void setStatus(int questOrdinal, QuestStatus questStatus) {
+    if (questOrdinal < 0) {
+      return;
+    }
+    int value = questStatus == null ? 0 : questStatus.ordinal() + 1;
+    int oldValue = getStatusValue(questOrdinal);
+    if (value == oldValue) {
+      return;
+    }
+
+    // Grow status array only up to the highest used quest ordinal.
+    int index = questOrdinal >> 1;
+    if (index >= this.questStatus.length) {
+      if (value == 0) {
+        return;
+      }
+      this.questStatus = Arrays.copyOf(this.questStatus,
+          Math.max(index + 1, this.questStatus.length + (this.questStatus.length >> 1)));
+    }
+    int shift = (questOrdinal & 1) << 2;
+    this.questStatus[index] =
+        (byte) ((this.questStatus[index] & ~(0x0F << shift)) | (value << shift));
+
+    if (questStatus != QuestStatus.IN_PROGRESS) {
+      this.deadlines.remove(questOrdinal);
+    }
+    if (oldValue == 0) {
+      this.numberOfTrackedQuests++;
+    } else if (value == 0) {
+      this.numberOfTrackedQuests--;
+      clearCriteriaCounters(questOrdinal);
+    }
+    this.dirty = true;
+  }
+
+  public boolean hasStatus(int questOrdinal, QuestStatus questStatus) {
+    return getStatusValue(questOrdinal) == questStatus.ordinal() + 1;
+  }
+
+  public int getNumberOfTrackedQuests() {
+    return this.numberOfTrackedQuests;
+  }
+
+  public int[] getTrackedQuests() {
+    IntArrayList trackedQuests = new IntArrayList(this.numberOfTrackedQuests);
+    for (int questOrdinal = 0; questOrdinal < this.questStatus.length << 1; questOrdinal++) {
+      if (getStatusValue(questOrdinal) != 0) {
+        trackedQuests.add(questOrdinal);
+      }
+    }
+    return trackedQuests.toIntArray();
+  }
+
+  public int getCriteriaCounter(int questOrdinal, int criterionIndex) {
+    if (!isValidCriteria(questOrdinal, criterionIndex)) {
+      return 0;
+    }
+    return this.criteriaCounters.get(getCriteriaKey(questOrdinal, criterionIndex));
+  }
+
+  public void setCriteriaCounter(int questOrdinal, int criterionIndex, int value) {
+    if (!isValidCriteria(questOrdinal, criterionIndex)) {
+      return;
+    }
+    int key = getCriteriaKey(questOrdinal, criterionIndex);
+    if (value == 0) {
+      this.criteriaCounters.remove(key);
+    } else {
+      this.criteriaCounters.put(key, value);
+    }
+    this.dirty = true;
+  }
+
+  public int incrementCriteriaCounter(int questOrdinal, int criterionIndex, int amount) {
+    if (!isValidCriteria(questOrdinal, criterionIndex)) {
+      return 0;
+    }
+    this.dirty = true;
+    return this.criteriaCounters.addTo(getCriteriaKey(questOrdinal, criterionIndex), amount)
+        + amount;
+  }
+
+  public void clearCriteriaCounters(int questOrdinal) {
+    clearCriteriaCounters(questOrdinal, 0);
+  }
+
+  public void clearCriteriaCounters(int questOrdinal, int fromCriterionIndex) {
+    // Counters from the given criterion index on, e.g. for criteria which no longer exist.
+    if (this.criteriaCounters.isEmpty() || !isValidCriteria(questOrdinal, 0)) {
+      return;
+    }
+    boolean removed = false;
+    for (int criterionIndex = Math.max(0, fromCriterionIndex); criterionIndex < MAX_CRITERIA;
+        criterionIndex++) {
+      removed |= this.criteriaCounters.remove(getCriteriaKey(questOrdinal, criterionIndex)) != 0;
+    }
+    if (removed) {
+      this.dirty = true;
+    }
+  }
+
+  public long getDeadline(int questOrdinal) {
+    return this.deadlines.get(questOrdinal);
+  }
+
+  public void setDeadline(int questOrdinal, long deadline) {
+    if (deadline <= 0) {
+      this.deadlines.remove(questOrdinal);
+    } else {
+      this.deadlines.put(questOrdinal, deadline);
+    }
+    this.dirty = true;
+  }
+
+  public boolean hasDeadline(int questOrdinal) {
+    return this.deadlines.containsKey(questOrdinal);
+  }
+
+  public Int2LongMap getDeadlines() {
+    return Int2LongMaps.unmodifiable(this.deadlines);
+  }
+
+  public long getLastReset() {
+    return this.lastReset;
+  }
+
+  public void setLastReset(long lastReset) {
+    this.lastReset = lastReset;
+    this.dirty = true;
+  }
+
+  public boolean isDirty() {
+    return this.dirty;
+  }
+
+  public void setDirty(boolean dirty) {
+    this.dirty = dirty;
+  }
+
+  public long getMemoryUsage() {
+    // Rough estimate of the retained heap size, based on the used arrays.
+    long statusBytes = 16L + this.questStatus.length;
+    long criteriaBytes = this.criteriaCounters.isEmpty() ? 0
+        : 2L * (16L + 4L * (HashCommon.arraySize(this.criteriaCounters.size(), 0.75f) + 1));
+    long deadlineBytes = this.deadlines.isEmpty() ? 0
+        : 16L + 12L * (HashCommon.arraySize(this.deadlines.size(), 0.75f) + 1);
+    return 64L + statusBytes + criteriaBytes + deadlineBytes;
+  }
+
+  public void load(CompoundTag compoundTag) {
+    ListTag questsTag = compoundTag.getList(DATA_QUESTS_TAG, Tag.TAG_COMPOUND);
+    for (int i = 0; i < questsTag.size(); i++) {
+      CompoundTag questTag = questsTag.getCompound(i);
+      ResourceLocation questId = new ResourceLocation(questTag.getString(DATA_QUEST_ID_TAG));
+      int questOrdinal = this.questOrdinals.getOrCreate(questId);
+      setStatus(questOrdinal, QuestStatus.get(questTag.getString(DATA_STATUS_TAG)));
+
+      // Criteria counters are stored as pairs of criterion index and counter. Invalid indexes
+      // are dropped here, indexes above the criteria of the quest when the quest is subscribed.
+      int[] criteria = questTag.getIntArray(DATA_CRITERIA_TAG);
+      for (int j = 0; j + 1 < criteria.length; j += 2) {
+        if (criteria[j] >= 0 && criteria[j] < MAX_CRITERIA && criteria[j + 1] > 0) {
+          setCriteriaCounter(questOrdinal, criteria[j], criteria[j + 1]);
+        }
+      }
+      if (questTag.contains(DATA_DEADLINE_TAG)) {
+        setDeadline(questOrdinal, questTag.getLong(DATA_DEADLINE_TAG));
+      }
+    }
+    this.lastReset = compoundTag.getLong(DATA_LAST_RESET_TAG);
+    this.dirty = false;
+  }
+
+  public CompoundTag save(CompoundTag compoundTag) {
+    // Group criteria counters by quest as pairs of criterion index and counter.
+    Int2ObjectOpenHashMap<IntArrayList> criteriaByQuest = new Int2ObjectOpenHashMap<>();
+    for (Int2IntMap.Entry entry : this.criteriaCounters.int2IntEntrySet()) {
+      IntArrayList criteria = criteriaByQuest.computeIfAbsent(entry.getIntKey() / MAX_CRITERIA,
+          key -> new IntArrayList());
+      criteria.add(entry.getIntKey() % MAX_CRITERIA);
+      criteria.add(entry.getIntValue());
+    }
+
+    // Quest ids are stored instead of ordinals, so that the progress stays readable without the
+    // quest ordinals file of the world, e.g. if it was lost or the player data was moved.
+    ListTag questsTag = new ListTag();
+    for (int questOrdinal : getTrackedQuests()) {
+      ResourceLocation questId = this.questOrdinals.getId(questOrdinal);
+      if (questId == null) {
+        continue;
+      }
+      CompoundTag questTag = new CompoundTag();
+      questTag.putString(DATA_QUEST_ID_TAG, questId.toString());
+      questTag.putString(DATA_STATUS_TAG, getStatus(questOrdinal).name());
+      IntArrayList criteria = criteriaByQuest.get(questOrdinal);
+      if (criteria != null) {
+        questTag.put(DATA_CRITERIA_TAG, new IntArrayTag(criteria.toIntArray()));
+      }
+      if (this.deadlines.containsKey(questOrdinal)) {
+        questTag.putLong(DATA_DEADLINE_TAG, this.deadlines.get(questOrdinal));
+      }
+      questsTag.add(questTag);
+    }
+    compoundTag.put(DATA_QUESTS_TAG, questsTag);
+    compoundTag.putLong(DATA_LAST_RESET_TAG, this.lastReset);
+    return compoundTag;
+  }
+
+  private int getStatusValue(int questOrdinal) {
+    int index = questOrdinal >> 1;
+    if (questOrdinal < 0 || index >= this.questStatus.length) {
+      return 0;
+    }
+    return (this.questStatus[index] >> ((questOrdinal & 1) << 2)) & 0x0F;
+  }
+
+  private static boolean isValidCriteria(int questOrdinal, int criterionIndex) {
+    return questOrdinal >= 0 && questOrdinal <= MAX_CRITERIA_QUEST_ORDINAL && criterionIndex >= 0
+        && criterionIndex < MAX_CRITERIA;
+  }
+
+  private static int getCriteriaKey(int questOrdinal, int criterionIndex) {
+    return questOrdinal * MAX_CRITERIA + criterionIndex;
+  }
+
+  @Override
+  public String toString() {
+    return "PlayerQuestProgress [playerId=" + this.playerId + ", trackedQuests="
+        + this.numberOfTrackedQuests + ", criteriaCounters=" + this.criteriaCounters.size()
+        + ", deadlines=" + this.deadlines.size() + ", memoryUsage=" + getMemoryUsage() + "]";
+  }
+
+}
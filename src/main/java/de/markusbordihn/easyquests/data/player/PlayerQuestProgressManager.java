@@ -0,0 +1,175 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.player;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.storage.LevelResource;
+
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.data.criteria.CriteriaManager;
+import de.markusbordihn.easyquests.data.quest.QuestData;
+import de.markusbordihn.easyquests.data.quest.QuestManager;
+import de.markusbordihn.easyquests.data.quest.QuestStatus;
+
+@EventBusSubscriber
+public class PlayerQuestProgressManager {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  // Player quest progress is stored next to the vanilla player data as <uuid>.easy_quests
+  private static final String PLAYER_DATA_FILE_SUFFIX = Constants.MOD_ID;
+
+  private static final Map<UUID, PlayerQuestProgress> playerQuestProgressMap =
+      new ConcurrentHashMap<>();
+
+  protected PlayerQuestProgressManager() {}
+
+  @SubscribeEvent
+  public static void handlePlayerLoadFromFileEvent(PlayerEvent.LoadFromFile event) {
+    UUID playerId = event.getPlayer().getUUID();
+    PlayerQuestProgress playerQuestProgress =
+        new PlayerQuestProgress(playerId, QuestManager.getQuestOrdinals());
+    Path playerDataFile = event.getPlayerFile(PLAYER_DATA_FILE_SUFFIX).toPath();
+    if (Files.exists(playerDataFile)) {
+      try (InputStream inputStream = Files.newInputStream(playerDataFile)) {
+        playerQuestProgress.load(NbtIo.readCompressed(inputStream));
+      } catch (IOException | RuntimeException e) {
+        log.error("Error while loading quest progress from file: {}", playerDataFile, e);
+      }
+    }
+    playerQuestProgressMap.put(playerId, playerQuestProgress);
+
+    // Resets which happened while the player was offline are applied lazily on login.
+    QuestResetManager.resetExpiredQuests(playerQuestProgress, System.currentTimeMillis());
+    QuestDeadlineManager.restore(playerQuestProgress);
+    CriteriaManager.subscribe(playerQuestProgress);
+  }
+
+  @SubscribeEvent
+  public static void handlePlayerSaveToFileEvent(PlayerEvent.SaveToFile event) {
+    PlayerQuestProgress playerQuestProgress =
+        playerQuestProgressMap.get(event.getPlayer().getUUID());
+    if (playerQuestProgress != null && playerQuestProgress.isDirty()) {
+      save(playerQuestProgress, event.getPlayerFile(PLAYER_DATA_FILE_SUFFIX).toPath());
+    }
+  }
+
+  @SubscribeEvent
+  public static void handlePlayerLoggedOutEvent(PlayerEvent.PlayerLoggedOutEvent event) {
+    // The logout event is fired before the vanilla player data is saved, so save it directly.
+    Player player = event.getPlayer();
+    PlayerQuestProgress playerQuestProgress = playerQuestProgressMap.remove(player.getUUID());
+    CriteriaManager.unsubscribe(player.getUUID());
+    MinecraftServer server = player.getServer();
+    if (playerQuestProgress != null && playerQuestProgress.isDirty() && server != null) {
+      save(playerQuestProgress, server.getWorldPath(LevelResource.PLAYER_DATA_DIR)
+          .resolve(player.getStringUUID() + "." + PLAYER_DATA_FILE_SUFFIX));
+    }
+  }
+
+  public static void startQuest(Player player, QuestData questData) {
+    PlayerQuestProgress playerQuestProgress = getPlayerQuestProgress(player);
+    if (playerQuestProgress == null || questData == null) {
+      return;
+    }
+    int questOrdinal = QuestManager.getQuestOrdinals().getOrCreate(questData.getId());
+    playerQuestProgress.clearCriteriaCounters(questOrdinal);
+    playerQuestProgress.setStatus(questOrdinal, QuestStatus.IN_PROGRESS);
+    if (questData.hasTimeLimit()) {
+      QuestDeadlineManager.schedule(playerQuestProgress, questOrdinal,
+          System.currentTimeMillis() + questData.getTimeLimit() * 1000L);
+    } else {
+      playerQuestProgress.setDeadline(questOrdinal, 0);
+    }
+    CriteriaManager.subscribe(playerQuestProgress, questOrdinal, questData);
+  }
+
+  public static void abandonQuest(Player player, QuestData questData) {
+    PlayerQuestProgress playerQuestProgress = getPlayerQuestProgress(player);
+    if (playerQuestProgress == null || questData == null) {
+      return;
+    }
+    int questOrdinal = QuestManager.getQuestOrdinals().getOrCreate(questData.getId());
+    CriteriaManager.unsubscribe(player.getUUID(), questOrdinal);
+    playerQuestProgress.setStatus(questOrdinal, QuestStatus.ABANDONED);
+  }
+
+  public static PlayerQuestProgress getPlayerQuestProgress(Player player) {
+    return player != null ? playerQuestProgressMap.get(player.getUUID()) : null;
+  }
+
+  public static PlayerQuestProgress getPlayerQuestProgress(UUID playerId) {
+    return playerQuestProgressMap.get(playerId);
+  }
+
+  public static Collection<PlayerQuestProgress> getPlayerQuestProgress() {
+    return Collections.unmodifiableCollection(playerQuestProgressMap.values());
+  }
+
+  public static long getMemoryUsage() {
+    long memoryUsage = 0;
+    for (PlayerQuestProgress playerQuestProgress : playerQuestProgressMap.values()) {
+      memoryUsage += playerQuestProgress.getMemoryUsage();
+    }
+    return memoryUsage;
+  }
+
+  private static void save(PlayerQuestProgress playerQuestProgress, Path playerDataFile) {
+    Path temporaryPlayerDataFile =
+        playerDataFile.resolveSibling(playerDataFile.getFileName() + ".tmp");
+    try (OutputStream outputStream =
+        new BufferedOutputStream(Files.newOutputStream(temporaryPlayerDataFile))) {
+      NbtIo.writeCompressed(playerQuestProgress.save(new CompoundTag()), outputStream);
+    } catch (IOException e) {
+      log.error("Error while saving quest progress to file: {}", playerDataFile, e);
+      return;
+    }
+    try {
+      Files.move(temporaryPlayerDataFile, playerDataFile, StandardCopyOption.REPLACE_EXISTING);
+      playerQuestProgress.setDirty(false);
+    } catch (IOException e) {
+      log.error("Error while replacing quest progress file: {}", playerDataFile, e);
+    }
+  }
+
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.player;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.data.criteria.CriteriaManager;
+import de.markusbordihn.easyquests.data.quest.QuestManager;
+import de.markusbordihn.easyquests.data.quest.QuestStatus;
+
+@EventBusSubscriber
+public class QuestDeadlineManager {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  // Deadlines of timed quests of online players, only the earliest deadline is checked per tick.
+  private static final PriorityQueue<Deadline> deadlines =
+      new PriorityQueue<>(Comparator.comparingLong(Deadline::time));
+
+  protected QuestDeadlineManager() {}
+
+  @SubscribeEvent
+  public static void handleServerStoppedEvent(ServerStoppedEvent event) {
+    deadlines.clear();
+  }
+
+  @SubscribeEvent
+  public static void handleServerTickEvent(TickEvent.ServerTickEvent event) {
+    if (event.phase != TickEvent.Phase.END || deadlines.isEmpty()) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    while (!deadlines.isEmpty() && deadlines.peek().time() <= now) {
+      Deadline deadline = deadlines.poll();
+
+      // Entries of completed quests or logged out players are dropped lazily.
+      PlayerQuestProgress playerQuestProgress =
+          PlayerQuestProgressManager.getPlayerQuestProgress(deadline.playerId());
+      if (playerQuestProgress != null
+          && playerQuestProgress.getDeadline(deadline.questOrdinal()) == deadline.time()) {
+        failQuest(playerQuestProgress, deadline.questOrdinal());
+      }
+    }
+  }
+
+  public static void schedule(PlayerQuestProgress playerQuestProgress, int questOrdinal,
+      long deadline) {
+    playerQuestProgress.setDeadline(questOrdinal, deadline);
+    deadlines.add(new Deadline(deadline, playerQuestProgress.getPlayerId(), questOrdinal));
+  }
+
+  public static void restore(PlayerQuestProgress playerQuestProgress) {
+    // Only the stored deadlines of the player are restored, expired ones fail immediately.
+    long now = System.currentTimeMillis();
+    for (int questOrdinal : playerQuestProgress.getDeadlines().keySet().toIntArray()) {
+      long deadline = playerQuestProgress.getDeadline(questOrdinal);
+      if (!playerQuestProgress.hasStatus(questOrdinal, QuestStatus.IN_PROGRESS)) {
+        playerQuestProgress.setDeadline(questOrdinal, 0);
+      } else if (deadline <= now) {
+        failQuest(playerQuestProgress, questOrdinal);
+      } else {
+        deadlines.add(new Deadline(deadline, playerQuestProgress.getPlayerId(), questOrdinal));
+      }
+    }
+  }
+
+  public static int getNumberOfDeadlines() {
+    return deadlines.size();
+  }
+
+  private static void failQuest(PlayerQuestProgress playerQuestProgress, int questOrdinal) {
+    CriteriaManager.unsubscribe(playerQuestProgress.getPlayerId(), questOrdinal);
+    playerQuestProgress.setStatus(questOrdinal, QuestStatus.FAILED);
+    log.debug("Player {} failed timed quest {}", playerQuestProgress.getPlayerId(),
+        QuestManager.getQuestOrdinals().getId(questOrdinal));
+  }
+
+  private record Deadline(long time, UUID playerId, int questOrdinal) {
+  }
+
+}
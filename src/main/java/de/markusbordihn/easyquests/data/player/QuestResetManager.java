@@ -0,0 +1,136 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.player;
+
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.data.criteria.CriteriaManager;
+import de.markusbordihn.easyquests.data.quest.QuestHeader;
+import de.markusbordihn.easyquests.data.quest.QuestIndex;
+import de.markusbordihn.easyquests.data.quest.QuestManager;
+import de.markusbordihn.easyquests.data.quest.QuestResetPeriod;
+
+@EventBusSubscriber
+public class QuestResetManager {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  private static final ZoneId ZONE_ID = ZoneId.systemDefault();
+
+  // Next reset time of each reset period, only the head is checked per tick.
+  private static final PriorityQueue<ScheduledReset> scheduledResets =
+      new PriorityQueue<>(Comparator.comparingLong(ScheduledReset::time));
+
+  protected QuestResetManager() {}
+
+  @SubscribeEvent
+  public static void handleServerStartedEvent(ServerStartedEvent event) {
+    scheduledResets.clear();
+    long now = System.currentTimeMillis();
+    for (QuestResetPeriod resetPeriod : QuestResetPeriod.values()) {
+      if (resetPeriod != QuestResetPeriod.NONE) {
+        scheduledResets
+            .add(new ScheduledReset(resetPeriod.getNextReset(now, ZONE_ID), resetPeriod));
+      }
+    }
+  }
+
+  @SubscribeEvent
+  public static void handleServerStoppedEvent(ServerStoppedEvent event) {
+    scheduledResets.clear();
+  }
+
+  @SubscribeEvent
+  public static void handleServerTickEvent(TickEvent.ServerTickEvent event) {
+    if (event.phase != TickEvent.Phase.END || scheduledResets.isEmpty()) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    if (scheduledResets.peek().time() > now) {
+      return;
+    }
+
+    // Reschedule all due reset periods and reset the quests of the online players only.
+    while (!scheduledResets.isEmpty() && scheduledResets.peek().time() <= now) {
+      ScheduledReset scheduledReset = scheduledResets.poll();
+      log.info("Resetting {} quests for online players ...", scheduledReset.resetPeriod());
+      scheduledResets.add(new ScheduledReset(
+          scheduledReset.resetPeriod().getNextReset(now, ZONE_ID), scheduledReset.resetPeriod()));
+    }
+    int numberOfResetQuests = 0;
+    for (PlayerQuestProgress playerQuestProgress : PlayerQuestProgressManager
+        .getPlayerQuestProgress()) {
+      numberOfResetQuests += resetExpiredQuests(playerQuestProgress, now);
+    }
+    log.info("Reset {} quests in {} ms", numberOfResetQuests, System.currentTimeMillis() - now);
+  }
+
+  public static int resetExpiredQuests(PlayerQuestProgress playerQuestProgress, long now) {
+    long lastReset = playerQuestProgress.getLastReset();
+    playerQuestProgress.setLastReset(now);
+    if (lastReset <= 0 || playerQuestProgress.getNumberOfTrackedQuests() == 0) {
+      return 0;
+    }
+
+    // Reset periods with at least one reset since the last check of the player.
+    Set<QuestResetPeriod> expiredResetPeriods = EnumSet.noneOf(QuestResetPeriod.class);
+    for (QuestResetPeriod resetPeriod : QuestResetPeriod.values()) {
+      if (resetPeriod != QuestResetPeriod.NONE
+          && resetPeriod.getLastReset(now, ZONE_ID) > lastReset) {
+        expiredResetPeriods.add(resetPeriod);
+      }
+    }
+    if (expiredResetPeriods.isEmpty()) {
+      return 0;
+    }
+
+    // Only the tracked quests of the player need to be checked.
+    int numberOfResetQuests = 0;
+    QuestIndex questIndex = QuestManager.getSnapshot().getQuestIndex();
+    for (int questOrdinal : playerQuestProgress.getTrackedQuests()) {
+      QuestHeader questHeader = questIndex.getQuestHeader(questOrdinal);
+      if (questHeader != null
+          && expiredResetPeriods.contains(questHeader.getType().getResetPeriod())) {
+        CriteriaManager.unsubscribe(playerQuestProgress.getPlayerId(), questOrdinal);
+        playerQuestProgress.setStatus(questOrdinal, null);
+        numberOfResetQuests++;
+      }
+    }
+    return numberOfResetQuests;
+  }
+
+  private record ScheduledReset(long time, QuestResetPeriod resetPeriod) {
+  }
+
+}
@@ -0,0 +1,281 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.quest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.server.MinecraftServer;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.data.storage.QuestStorage;
+import de.markusbordihn.easyquests.data.storage.QuestStorageManager;
+import de.markusbordihn.easyquests.network.QuestSyncManager;
+
+/**
+ * Quest packs as zip archive with one entry &lt;namespace&gt;/&lt;path&gt;.nbt per quest.
+ *
+ * Export and import are streaming entry by entry on a background worker. Imported quests are
+ * registered on the server thread in small batches, the worker waits for each batch before it
+ * continues reading.
+ */
+public class QuestArchive {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  public static final String ARCHIVE_FOLDER_NAME = "exports";
+  public static final String ARCHIVE_FILE_EXTENSION = ".zip";
+
+  private static final int IMPORT_BATCH_SIZE = 100;
+  private static final long IMPORT_BATCH_TIMEOUT_SECONDS = 60;
+
+  // Upper limit for the NBT data of a single quest, archives could be from other servers.
+  private static final long MAX_QUEST_SIZE = 16L * 1024L * 1024L;
+
+  private static final AtomicBoolean running = new AtomicBoolean(false);
+  private static ExecutorService executorService = null;
+
+  protected QuestArchive() {}
+
+  public static boolean isRunning() {
+    return running.get();
+  }
+
+  public static Path getArchiveFolder() {
+    return QuestDataManager.getQuestDataFolder().resolve(ARCHIVE_FOLDER_NAME);
+  }
+
+  public static Path getArchiveFile(String fileName) {
+    // Archives are restricted to the archive folder.
+    Path archiveFolder = getArchiveFolder();
+    Path archiveFile = archiveFolder
+        .resolve(fileName.endsWith(ARCHIVE_FILE_EXTENSION) ? fileName
+            : fileName + ARCHIVE_FILE_EXTENSION)
+        .normalize();
+    return archiveFile.startsWith(archiveFolder) && !archiveFile.equals(archiveFolder)
+        ? archiveFile
+        : null;
+  }
+
+  public static List<String> getArchiveFiles() {
+    Path archiveFolder = getArchiveFolder();
+    if (!Files.isDirectory(archiveFolder)) {
+      return Collections.emptyList();
+    }
+    try (Stream<Path> files = Files.list(archiveFolder)) {
+      return files.map(file -> file.getFileName().toString())
+          .filter(fileName -> fileName.endsWith(ARCHIVE_FILE_EXTENSION)).sorted()
+          .collect(Collectors.toList());
+    } catch (IOException e) {
+      log.error("Error while listing quest archives in {}:", archiveFolder, e);
+    }
+    return Collections.emptyList();
+  }
+
+  public static CompletableFuture<Integer> exportQuests(String namespace, Path archiveFile) {
+    QuestStorage questStorage = QuestStorageManager.getQuestStorage();
+    if (questStorage == null) {
+      return CompletableFuture.failedFuture(new IllegalStateException("No quest storage"));
+    }
+    if (!running.compareAndSet(false, true)) {
+      return CompletableFuture
+          .failedFuture(new IllegalStateException("Quest import or export already running"));
+    }
+
+    // Changed quests are written to the storage first, which is streamed afterwards.
+    QuestManager.saveDirtyQuests();
+    return CompletableFuture.supplyAsync(() -> {
+      QuestDataSaver.awaitPendingSaves();
+      try {
+        return writeArchive(questStorage, namespace, archiveFile);
+      } catch (IOException e) {
+        throw new IllegalStateException("Unable to write " + archiveFile, e);
+      }
+    }, getExecutorService()).whenComplete((result, throwable) -> running.set(false));
+  }
+
+  private static int writeArchive(QuestStorage questStorage, String namespace, Path archiveFile)
+      throws IOException {
+    long startTime = System.nanoTime();
+    Files.createDirectories(archiveFile.getParent());
+    Path temporaryFile = archiveFile.resolveSibling(archiveFile.getFileName() + ".tmp");
+    int numberOfExportedQuests = 0;
+    try (ZipOutputStream zipOutputStream =
+        new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)));
+        Stream<QuestData> questDataStream = questStorage.stream(namespace)) {
+      // The zip entries are already compressed, so the NBT data is written uncompressed.
+      DataOutputStream dataOutputStream = new DataOutputStream(zipOutputStream);
+      for (QuestData questData : (Iterable<QuestData>) questDataStream::iterator) {
+        zipOutputStream.putNextEntry(new ZipEntry(questData.getId().getNamespace() + "/"
+            + questData.getId().getPath() + QuestDataLoader.QUEST_DATA_FILE_EXTENSION));
+        NbtIo.write(questData.save(new CompoundTag()), dataOutputStream);
+        dataOutputStream.flush();
+        zipOutputStream.closeEntry();
+        numberOfExportedQuests++;
+      }
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(temporaryFile);
+      throw e;
+    }
+    Files.move(temporaryFile, archiveFile, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    log.info("Exported {} quests of namespace {} to {} in {} ms.", numberOfExportedQuests,
+        namespace, archiveFile, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    return numberOfExportedQuests;
+  }
+
+  public static CompletableFuture<ImportResult> importQuests(MinecraftServer server,
+      Path archiveFile) {
+    if (!Files.isRegularFile(archiveFile)) {
+      return CompletableFuture.failedFuture(
+          new IllegalArgumentException("Quest archive " + archiveFile + " not found"));
+    }
+    if (!running.compareAndSet(false, true)) {
+      return CompletableFuture
+          .failedFuture(new IllegalStateException("Quest import or export already running"));
+    }
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return readArchive(server, archiveFile);
+      } catch (IOException e) {
+        throw new IllegalStateException("Unable to read " + archiveFile, e);
+      }
+    }, getExecutorService()).whenComplete((result, throwable) -> running.set(false));
+  }
+
+  private static ImportResult readArchive(MinecraftServer server, Path archiveFile)
+      throws IOException {
+    long startTime = System.nanoTime();
+    int[] numberOfQuests = new int[3];
+    int numberOfFailedQuests = 0;
+    List<QuestData> questDataBatch = new ArrayList<>(IMPORT_BATCH_SIZE);
+    try (ZipInputStream zipInputStream =
+        new ZipInputStream(new BufferedInputStream(Files.newInputStream(archiveFile)))) {
+      DataInputStream dataInputStream = new DataInputStream(zipInputStream);
+      ZipEntry zipEntry;
+      while ((zipEntry = zipInputStream.getNextEntry()) != null) {
+        if (zipEntry.isDirectory()
+            || !zipEntry.getName().endsWith(QuestDataLoader.QUEST_DATA_FILE_EXTENSION)) {
+          continue;
+        }
+        try {
+          CompoundTag compoundTag =
+              NbtIo.read(dataInputStream, new NbtAccounter(MAX_QUEST_SIZE));
+          questDataBatch.add(QuestData.load(compoundTag));
+        } catch (IOException | RuntimeException e) {
+          log.error("Skip invalid quest {} in {}:", zipEntry.getName(), archiveFile, e);
+          numberOfFailedQuests++;
+        }
+        if (questDataBatch.size() >= IMPORT_BATCH_SIZE) {
+          registerBatch(server, questDataBatch, numberOfQuests);
+        }
+      }
+    }
+    registerBatch(server, questDataBatch, numberOfQuests);
+    if (numberOfQuests[0] + numberOfQuests[1] > 0) {
+      server.execute(QuestSyncManager::resync);
+    }
+
+    ImportResult importResult = new ImportResult(numberOfQuests[0], numberOfQuests[1],
+        numberOfFailedQuests, numberOfQuests[2],
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    log.info("Imported quests from {}: {}", archiveFile, importResult);
+    return importResult;
+  }
+
+  private static void registerBatch(MinecraftServer server, List<QuestData> questDataBatch,
+      int[] numberOfQuests) {
+    if (questDataBatch.isEmpty()) {
+      return;
+    }
+
+    // Quests are registered and saved on the server thread, the reader waits for it.
+    List<QuestData> questDataList = List.copyOf(questDataBatch);
+    questDataBatch.clear();
+    try {
+      CompletableFuture.runAsync(() -> {
+        QuestRegistry.Snapshot snapshot = QuestManager.getSnapshot();
+        for (QuestData questData : questDataList) {
+          if (snapshot.getQuestHeader(questData.getId()) == null) {
+            numberOfQuests[0]++;
+          } else {
+            numberOfQuests[1]++;
+          }
+        }
+        // Lazy loaded quests are already saved by the replace, only pinned quests are saved here.
+        QuestManager.replaceQuests(questDataList, List.of());
+        QuestManager.saveQuests(questDataList.stream().filter(QuestData::isDirty).toList());
+        numberOfQuests[2]++;
+      }, server).get(IMPORT_BATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while importing quests", e);
+    } catch (ExecutionException | TimeoutException e) {
+      throw new IllegalStateException("Unable to register imported quests", e);
+    }
+  }
+
+  private static synchronized ExecutorService getExecutorService() {
+    if (executorService == null) {
+      executorService = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+          .setNameFormat(Constants.LOG_NAME + " Archive").setDaemon(true).build());
+    }
+    return executorService;
+  }
+
+  public record ImportResult(int added, int replaced, int failed, int batches, long time) {
+
+    @Override
+    public String toString() {
+      return added + " added, " + replaced + " replaced" + (failed > 0 ? ", " + failed + " failed"
+          : "") + " in " + batches + " batches (" + time + " ms)";
+    }
+  }
+
+}
@@ -0,0 +1,356 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.quest;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.resources.ResourceLocation;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.metrics.QuestMetrics;
+
+/**
+ * Packed quest bundle with one file per namespace.
+ *
+ * Layout: fixed header (magic, version, index offset, entry count), the gzip compressed NBT data
+ * of all quests and the index (quest id, offset, length) at the index offset. The bundle is read
+ * through a memory-mapped file, so single quests could be decoded without touching the others.
+ *
+ * Mapped bundles are never replaced in place. Each write creates the next generation of the bundle
+ * like &lt;namespace&gt;@&lt;generation&gt;.bundle and older generations are removed as soon as
+ * they are no longer mapped, or with the next start at the latest.
+ */
+public class QuestBundle {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  public static final String QUEST_BUNDLE_FILE_EXTENSION = ".bundle";
+
+  // Not allowed in namespaces, so the generation could not be mistaken for a part of them.
+  private static final char GENERATION_SEPARATOR = '@';
+
+  private static final int BUNDLE_MAGIC = 0x45514231;
+  private static final int BUNDLE_VERSION = 1;
+  private static final int BUNDLE_HEADER_SIZE = 20;
+
+  private final Path bundleFile;
+  private final ByteBuffer buffer;
+  private final Map<ResourceLocation, Entry> entries;
+
+  private QuestBundle(Path bundleFile, ByteBuffer buffer, Map<ResourceLocation, Entry> entries) {
+    this.bundleFile = bundleFile;
+    this.buffer = buffer;
+    this.entries = entries;
+  }
+
+  public static QuestBundle open(Path bundleFile) throws IOException {
+    MappedByteBuffer buffer;
+    try (FileChannel fileChannel = FileChannel.open(bundleFile, StandardOpenOption.READ)) {
+      long size = fileChannel.size();
+      if (size < BUNDLE_HEADER_SIZE || size > Integer.MAX_VALUE) {
+        throw new IOException("Invalid quest bundle size " + size + " for " + bundleFile);
+      }
+      buffer = fileChannel.map(MapMode.READ_ONLY, 0, size);
+    }
+
+    // Verify header.
+    if (buffer.getInt(0) != BUNDLE_MAGIC) {
+      throw new IOException("Invalid quest bundle header for " + bundleFile);
+    }
+    int version = buffer.getInt(4);
+    if (version != BUNDLE_VERSION) {
+      throw new IOException("Unsupported quest bundle version " + version + " for " + bundleFile);
+    }
+    long indexOffset = buffer.getLong(8);
+    int numberOfEntries = buffer.getInt(16);
+    if (indexOffset < BUNDLE_HEADER_SIZE || indexOffset > buffer.limit() || numberOfEntries < 0) {
+      throw new IOException("Corrupted quest bundle index for " + bundleFile);
+    }
+
+    // Read index with quest id, offset and length for each entry.
+    Map<ResourceLocation, Entry> entries = new LinkedHashMap<>(numberOfEntries);
+    try (DataInputStream indexInputStream = new DataInputStream(
+        new ByteBufInputStream(Unpooled.wrappedBuffer(buffer.slice((int) indexOffset,
+            buffer.limit() - (int) indexOffset))))) {
+      for (int i = 0; i < numberOfEntries; i++) {
+        ResourceLocation questId = new ResourceLocation(indexInputStream.readUTF());
+        long offset = indexInputStream.readLong();
+        int length = indexInputStream.readInt();
+        if (offset < BUNDLE_HEADER_SIZE || length < 0 || offset + length > indexOffset) {
+          throw new IOException("Corrupted quest bundle entry " + questId + " for " + bundleFile);
+        }
+        entries.put(questId, new Entry((int) offset, length));
+      }
+    }
+
+    return new QuestBundle(bundleFile, buffer, Collections.unmodifiableMap(entries));
+  }
+
+  public static Writer create(Path bundleFile) throws IOException {
+    return new Writer(bundleFile);
+  }
+
+  public static Path getBundleFile(Path questDataFolder, String namespace) {
+    // Latest generation of the bundle or the file of the first generation, if there is none.
+    Path bundleFile = questDataFolder.resolve(namespace + QUEST_BUNDLE_FILE_EXTENSION);
+    for (Path generationFile : getGenerationFiles(questDataFolder, namespace)) {
+      if (getGeneration(generationFile) > getGeneration(bundleFile)) {
+        bundleFile = generationFile;
+      }
+    }
+    return bundleFile;
+  }
+
+  public static Path getNextBundleFile(Path questDataFolder, String namespace) {
+    Path bundleFile = getBundleFile(questDataFolder, namespace);
+    return questDataFolder.resolve(namespace + GENERATION_SEPARATOR
+        + (Files.exists(bundleFile) ? getGeneration(bundleFile) + 1 : 1)
+        + QUEST_BUNDLE_FILE_EXTENSION);
+  }
+
+  public static String getNamespace(Path bundleFile) {
+    String fileName = bundleFile.getFileName().toString();
+    int separatorIndex = fileName.lastIndexOf(GENERATION_SEPARATOR);
+    return fileName.substring(0, separatorIndex >= 0 ? separatorIndex
+        : fileName.length() - QUEST_BUNDLE_FILE_EXTENSION.length());
+  }
+
+  public static long getGeneration(Path bundleFile) {
+    String fileName = bundleFile.getFileName().toString();
+    int separatorIndex = fileName.lastIndexOf(GENERATION_SEPARATOR);
+    if (separatorIndex < 0) {
+      return 0;
+    }
+    try {
+      return Long.parseLong(fileName.substring(separatorIndex + 1,
+          fileName.length() - QUEST_BUNDLE_FILE_EXTENSION.length()));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  public static List<Path> getLatestGenerations(Collection<Path> questFiles) {
+    // Only the latest generation of each bundle is used, all other files are kept as they are.
+    Map<Path, Path> latestBundleFiles = new HashMap<>();
+    for (Path questFile : questFiles) {
+      if (questFile.getFileName().toString().endsWith(QUEST_BUNDLE_FILE_EXTENSION)) {
+        latestBundleFiles.merge(questFile.resolveSibling(getNamespace(questFile)), questFile,
+            (bundleFile, otherBundleFile) -> getGeneration(otherBundleFile) > getGeneration(
+                bundleFile) ? otherBundleFile : bundleFile);
+      }
+    }
+    List<Path> latestQuestFiles = new ArrayList<>(questFiles.size());
+    for (Path questFile : questFiles) {
+      if (!questFile.getFileName().toString().endsWith(QUEST_BUNDLE_FILE_EXTENSION)
+          || questFile.equals(latestBundleFiles.get(questFile.resolveSibling(
+              getNamespace(questFile))))) {
+        latestQuestFiles.add(questFile);
+      }
+    }
+    return latestQuestFiles;
+  }
+
+  public static void deleteOldGenerations(Path bundleFile) {
+    long generation = getGeneration(bundleFile);
+    for (Path generationFile : getGenerationFiles(bundleFile.getParent(),
+        getNamespace(bundleFile))) {
+      if (getGeneration(generationFile) >= generation) {
+        continue;
+      }
+      try {
+        Files.deleteIfExists(generationFile);
+      } catch (IOException e) {
+        // Some platforms refuse to delete files which are still mapped, try again on next start.
+        log.debug("Unable to delete old quest bundle {}: {}", generationFile, e.getMessage());
+      }
+    }
+  }
+
+  private static List<Path> getGenerationFiles(Path questDataFolder, String namespace) {
+    if (!Files.isDirectory(questDataFolder)) {
+      return Collections.emptyList();
+    }
+    try (Stream<Path> files = Files.list(questDataFolder)) {
+      return files.filter(file -> file.getFileName().toString().endsWith(
+          QUEST_BUNDLE_FILE_EXTENSION) && namespace.equals(getNamespace(file))).toList();
+    } catch (IOException e) {
+      log.error("Error while listing quest bundles of {} in {}", namespace, questDataFolder, e);
+    }
+    return Collections.emptyList();
+  }
+
+  public Path getBundleFile() {
+    return this.bundleFile;
+  }
+
+  public Set<ResourceLocation> getQuestIds() {
+    return this.entries.keySet();
+  }
+
+  public boolean contains(ResourceLocation questId) {
+    return this.entries.containsKey(questId);
+  }
+
+  public int size() {
+    return this.entries.size();
+  }
+
+  public ByteBuffer getCompressedData(ResourceLocation questId) {
+    Entry entry = this.entries.get(questId);
+    if (entry == null) {
+      return null;
+    }
+    // Slices are independent of the shared buffer position and could be used by several threads.
+    return this.buffer.slice(entry.offset(), entry.length());
+  }
+
+  public CompoundTag readTag(ResourceLocation questId) throws IOException {
+    ByteBuffer compressedData = getCompressedData(questId);
+    if (compressedData == null) {
+      return null;
+    }
+    QuestMetrics.BYTES_READ.add(compressedData.remaining());
+    try (InputStream inputStream = new ByteBufInputStream(Unpooled.wrappedBuffer(compressedData))) {
+      return NbtIo.readCompressed(inputStream);
+    }
+  }
+
+  public QuestData read(ResourceLocation questId) throws IOException {
+    CompoundTag compoundTag = readTag(questId);
+    return compoundTag != null ? QuestData.load(compoundTag) : null;
+  }
+
+  private record Entry(int offset, int length) {}
+
+  public static class Writer implements Closeable {
+
+    private final Path bundleFile;
+    private final Path temporaryFile;
+    private final FileChannel fileChannel;
+    private final Map<ResourceLocation, Entry> entries = new LinkedHashMap<>();
+    private boolean finished = false;
+
+    private Writer(Path bundleFile) throws IOException {
+      this.bundleFile = bundleFile;
+      this.temporaryFile = bundleFile.resolveSibling(bundleFile.getFileName() + ".tmp");
+      this.fileChannel = FileChannel.open(this.temporaryFile, StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+      this.fileChannel.position(BUNDLE_HEADER_SIZE);
+    }
+
+    public boolean contains(ResourceLocation questId) {
+      return this.entries.containsKey(questId);
+    }
+
+    public void add(ResourceLocation questId, CompoundTag compoundTag) throws IOException {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      NbtIo.writeCompressed(compoundTag, outputStream);
+      add(questId, ByteBuffer.wrap(outputStream.toByteArray()));
+    }
+
+    public void add(ResourceLocation questId, ByteBuffer compressedData) throws IOException {
+      if (this.entries.containsKey(questId)) {
+        throw new IOException("Quest " + questId + " is already part of bundle " + this.bundleFile);
+      }
+      long offset = this.fileChannel.position();
+      int length = compressedData.remaining();
+      if (offset + length > Integer.MAX_VALUE) {
+        throw new IOException("Quest bundle " + this.bundleFile + " exceeds the maximum size!");
+      }
+      while (compressedData.hasRemaining()) {
+        this.fileChannel.write(compressedData);
+      }
+      this.entries.put(questId, new Entry((int) offset, length));
+    }
+
+    public int size() {
+      return this.entries.size();
+    }
+
+    public void finish() throws IOException {
+      // Write index after the quest data.
+      long indexOffset = this.fileChannel.position();
+      DataOutputStream indexOutputStream = new DataOutputStream(
+          new BufferedOutputStream(Channels.newOutputStream(this.fileChannel)));
+      for (Map.Entry<ResourceLocation, Entry> entry : this.entries.entrySet()) {
+        indexOutputStream.writeUTF(entry.getKey().toString());
+        indexOutputStream.writeLong(entry.getValue().offset());
+        indexOutputStream.writeInt(entry.getValue().length());
+      }
+      indexOutputStream.flush();
+
+      // Write header with the index offset at the start of the bundle.
+      ByteBuffer header = ByteBuffer.allocate(BUNDLE_HEADER_SIZE);
+      header.putInt(BUNDLE_MAGIC).putInt(BUNDLE_VERSION).putLong(indexOffset)
+          .putInt(this.entries.size()).flip();
+      while (header.hasRemaining()) {
+        this.fileChannel.write(header, BUNDLE_HEADER_SIZE - header.remaining());
+      }
+      this.fileChannel.force(true);
+      this.fileChannel.close();
+
+      // Publish the new generation only after it was completely written, existing bundles are
+      // never replaced, because they could still be mapped.
+      Files.move(this.temporaryFile, this.bundleFile, StandardCopyOption.ATOMIC_MOVE);
+      this.finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!this.finished) {
+        this.fileChannel.close();
+        Files.deleteIfExists(this.temporaryFile);
+      }
+    }
+  }
+
+}
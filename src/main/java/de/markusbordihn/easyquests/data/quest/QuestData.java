@@ -45,6 +45,7 @@ public class QuestData {
   public static final String DATA_QUEST_ICON_TAG = "Icon";
   public static final String DATA_QUEST_ID_TAG = "Id";
   public static final String DATA_QUEST_REWARDS_TAG = "Rewards";
+  public static final String DATA_QUEST_TIME_LIMIT_TAG = "TimeLimit";
   public static final String DATA_QUEST_TITLE_COLOR_TAG = "TitleColor";
   public static final String DATA_QUEST_TITLE_TAG = "Title";
   public static final String DATA_QUEST_TYPE_TAG = "Type";
@@ -60,6 +61,7 @@ public class QuestData {
   private QuestDifficulty difficulty = QuestDifficulty.NORMAL;
   private QuestType type = QuestType.CUSTOM;
   private String description = "";
+  private int timeLimit = 0;
 
   // Styling
   private ItemStack icon;
@@ -67,13 +69,18 @@ public class QuestData {
   private int descriptionColor = 0xFFCCCCCC;
   private int titleColor = 0xFFFFFFFF;
 
+  // Changed since the last load or save.
+  private boolean dirty = true;
+
+  // Number of changes, to detect changes of the same quest data instance.
+  private int changeCount = 0;
+
   public QuestData(String title) {
     this(title, "");
   }
 
   public QuestData(String title, String description) {
-    this(new ResourceLocation(Constants.QUEST_NAMESPACE, "quests/" + normalizeResourceName(title)),
-        title, description);
+    this(getQuestId(title), title, description);
   }
 
   public QuestData(ResourceLocation id, String title) {
@@ -100,6 +107,7 @@ public class QuestData {
 
   public void setDescription(String description) {
     this.description = description;
+    setDirty();
   }
 
   public QuestCategory getCategory() {
@@ -108,6 +116,7 @@ public class QuestData {
 
   public void setCategory(QuestCategory category) {
     this.category = category;
+    setDirty();
   }
 
   public QuestDifficulty getDifficulty() {
@@ -116,6 +125,7 @@ public class QuestData {
 
   public void setDifficulty(QuestDifficulty difficulty) {
     this.difficulty = difficulty;
+    setDirty();
   }
 
   public QuestType getType() {
@@ -124,6 +134,20 @@ public class QuestData {
 
   public void setType(QuestType type) {
     this.type = type;
+    setDirty();
+  }
+
+  public int getTimeLimit() {
+    return this.timeLimit;
+  }
+
+  public void setTimeLimit(int timeLimit) {
+    this.timeLimit = timeLimit;
+    setDirty();
+  }
+
+  public boolean hasTimeLimit() {
+    return this.timeLimit > 0;
   }
 
   public List<CriteriaData> getCriterias() {
@@ -132,6 +156,7 @@ public class QuestData {
 
   public void setCriterias(List<CriteriaData> criterias) {
     this.criterias = criterias;
+    setDirty();
   }
 
   public List<RewardData> getRewards() {
@@ -140,6 +165,7 @@ public class QuestData {
 
   public void setRewards(List<RewardData> rewards) {
     this.rewards = rewards;
+    setDirty();
   }
 
   public ItemStack getIcon() {
@@ -148,10 +174,12 @@ public class QuestData {
 
   public void setIcon(ItemStack icon) {
     this.icon = icon;
+    setDirty();
   }
 
   public void setIcon(ResourceLocation icon) {
     this.icon = ForgeRegistries.ITEMS.getValue(icon).getDefaultInstance();
+    setDirty();
   }
 
   public ResourceLocation getBackground() {
@@ -160,6 +188,7 @@ public class QuestData {
 
   public void setBackground(ResourceLocation background) {
     this.background = background;
+    setDirty();
   }
 
   public int getDescriptionColor() {
@@ -168,6 +197,7 @@ public class QuestData {
 
   public void setDescriptionColor(int descriptionColor) {
     this.descriptionColor = descriptionColor;
+    setDirty();
   }
 
   public int getTitleColor() {
@@ -176,6 +206,24 @@ public class QuestData {
 
   public void setTitleColor(int titleColor) {
     this.titleColor = titleColor;
+    setDirty();
+  }
+
+  public boolean isDirty() {
+    return this.dirty;
+  }
+
+  public void setDirty() {
+    this.dirty = true;
+    this.changeCount++;
+  }
+
+  public int getChangeCount() {
+    return this.changeCount;
+  }
+
+  public void setDirty(boolean dirty) {
+    this.dirty = dirty;
   }
 
   public static ResourceLocation getQuestId(String title) {
@@ -184,7 +232,47 @@ public class QuestData {
   }
 
   public static String normalizeResourceName(String text) {
-    return text.toLowerCase().replace(" ", "_").replaceAll("\\W", "");
+    // Hand-written scanner for text.toLowerCase().replace(" ", "_").replaceAll("\\W", "").
+    int length = text.length();
+    int index = 0;
+    while (index < length && isNormalizedResourceChar(text.charAt(index))) {
+      index++;
+    }
+    if (index == length) {
+      return text;
+    }
+
+    // Copy the already normalized prefix and normalize the remaining characters.
+    char[] normalizedText = new char[length];
+    text.getChars(0, index, normalizedText, 0);
+    int normalizedLength = index;
+    for (; index < length; index++) {
+      char normalizedChar = normalizeResourceChar(text.charAt(index));
+      if (normalizedChar != 0) {
+        normalizedText[normalizedLength++] = normalizedChar;
+      }
+    }
+    return new String(normalizedText, 0, normalizedLength);
+  }
+
+  private static boolean isNormalizedResourceChar(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_';
+  }
+
+  private static char normalizeResourceChar(char c) {
+    if (isNormalizedResourceChar(c)) {
+      return c;
+    } else if (c >= 'A' && c <= 'Z') {
+      return (char) (c + ('a' - 'A'));
+    } else if (c == ' ') {
+      return '_';
+    } else if (c < 128) {
+      return 0;
+    }
+
+    // Some non-ASCII characters have an ASCII lower case variant, e.g. the Kelvin sign.
+    char lowerCaseChar = Character.toLowerCase(c);
+    return lowerCaseChar < 128 && lowerCaseChar != c ? normalizeResourceChar(lowerCaseChar) : 0;
   }
 
   public static QuestData load(CompoundTag compoundTag) {
@@ -206,6 +294,9 @@ public class QuestData {
     if (compoundTag.contains(DATA_QUEST_TYPE_TAG)) {
       questData.setType(QuestType.valueOf(compoundTag.getString(DATA_QUEST_TYPE_TAG)));
     }
+    if (compoundTag.contains(DATA_QUEST_TIME_LIMIT_TAG)) {
+      questData.setTimeLimit(compoundTag.getInt(DATA_QUEST_TIME_LIMIT_TAG));
+    }
 
     // Quest criterias and rewards.
     if (compoundTag.contains(DATA_QUEST_CRITERIAS_TAG)) {
@@ -242,6 +333,9 @@ public class QuestData {
     if (compoundTag.contains(DATA_QUEST_TITLE_COLOR_TAG)) {
       questData.setTitleColor(compoundTag.getInt(DATA_QUEST_TITLE_COLOR_TAG));
     }
+
+    // Loaded quest data is in sync with the stored quest data.
+    questData.setDirty(false);
     return questData;
   }
 
@@ -260,6 +354,9 @@ public class QuestData {
     if (this.type != null) {
       compoundTag.putString(DATA_QUEST_TYPE_TAG, this.type.name());
     }
+    if (this.timeLimit > 0) {
+      compoundTag.putInt(DATA_QUEST_TIME_LIMIT_TAG, this.timeLimit);
+    }
 
     // Quest criterias and rewards.
     if (this.criterias != null) {
@@ -302,9 +399,9 @@ public class QuestData {
   public String toString() {
     return "QuestData [id=" + this.id + ", title=" + this.title + ", description="
         + this.description + ", category=" + this.category + ", difficulty=" + this.difficulty
-        + ", type=" + this.type + ", criterias=" + this.criterias + ", rewards=" + this.rewards
-        + ", icon=" + this.icon + ", background=" + this.background + ", descriptionColor="
-        + this.descriptionColor + ", titleColor=" + this.titleColor + "]";
+        + ", type=" + this.type + ", timeLimit=" + this.timeLimit + ", criterias=" + this.criterias
+        + ", rewards=" + this.rewards + ", icon=" + this.icon + ", background=" + this.background
+        + ", descriptionColor=" + this.descriptionColor + ", titleColor=" + this.titleColor + "]";
   }
 
 }
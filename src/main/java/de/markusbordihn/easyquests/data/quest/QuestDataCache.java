@@ -0,0 +1,130 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.quest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import net.minecraft.resources.ResourceLocation;
+
+public class QuestDataCache {
+
+  private final int maxSize;
+  private final Map<ResourceLocation, QuestData> cache;
+
+  // Cache statistics
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  // Receives evicted quest data, e.g. to keep changed quest data in memory.
+  private final Consumer<QuestData> evictionListener;
+
+  public QuestDataCache(int maxSize) {
+    this(maxSize, null);
+  }
+
+  public QuestDataCache(int maxSize, Consumer<QuestData> evictionListener) {
+    this.maxSize = maxSize;
+    this.evictionListener = evictionListener;
+    this.cache = new LinkedHashMap<>(Math.min(maxSize, 1024), 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<ResourceLocation, QuestData> eldest) {
+        if (size() > QuestDataCache.this.maxSize) {
+          QuestDataCache.this.evictions.increment();
+          if (QuestDataCache.this.evictionListener != null) {
+            QuestDataCache.this.evictionListener.accept(eldest.getValue());
+          }
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  public QuestData get(QuestHeader questHeader) {
+    ResourceLocation questId = questHeader.getId();
+    synchronized (this) {
+      QuestData questData = this.cache.get(questId);
+      if (questData != null) {
+        this.hits.increment();
+        return questData;
+      }
+    }
+
+    // Decode the quest data outside of the lock, concurrent misses for the same quest are rare.
+    this.misses.increment();
+    QuestData questData = QuestDataLoader.loadQuestData(questHeader);
+    if (questData == null) {
+      return null;
+    }
+    synchronized (this) {
+      QuestData existingQuestData = this.cache.putIfAbsent(questId, questData);
+      return existingQuestData != null ? existingQuestData : questData;
+    }
+  }
+
+  public synchronized void put(QuestData questData) {
+    this.cache.put(questData.getId(), questData);
+  }
+
+  public synchronized void invalidate(ResourceLocation questId) {
+    this.cache.remove(questId);
+  }
+
+  public synchronized void clear() {
+    this.cache.clear();
+  }
+
+  public synchronized List<QuestData> values() {
+    return new ArrayList<>(this.cache.values());
+  }
+
+  public synchronized int size() {
+    return this.cache.size();
+  }
+
+  public int getMaxSize() {
+    return this.maxSize;
+  }
+
+  public long getHits() {
+    return this.hits.sum();
+  }
+
+  public long getMisses() {
+    return this.misses.sum();
+  }
+
+  public long getEvictions() {
+    return this.evictions.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "QuestDataCache [size=" + size() + ", maxSize=" + this.maxSize + ", hits=" + getHits()
+        + ", misses=" + getMisses() + ", evictions=" + getEvictions() + "]";
+  }
+
+}
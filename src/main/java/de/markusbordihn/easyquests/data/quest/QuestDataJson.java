@@ -0,0 +1,163 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.quest;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+
+import net.minecraft.nbt.ByteTag;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.DoubleTag;
+import net.minecraft.nbt.IntArrayTag;
+import net.minecraft.nbt.IntTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.LongTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Quest data in JSON format, which uses the same keys as the NBT format, for example:
+ *
+ * <pre>
+ * {
+ *   "Title": "Lumberjack",
+ *   "Type": "DAILY_QUEST",
+ *   "Criterias": [{"Type": "BREAK_BLOCK", "Target": "#minecraft:logs", "Amount": 32}],
+ *   "Rewards": [{"Type": "EXPERIENCE", "Experience": 50}]
+ * }
+ * </pre>
+ *
+ * Whole numbers are converted to int (or long) tags and arrays of whole numbers to int arrays.
+ * Category, difficulty and type are case insensitive, unknown values are rejected with the list
+ * of valid values.
+ */
+public class QuestDataJson {
+
+  protected QuestDataJson() {}
+
+  public static QuestData parse(ResourceLocation questId, JsonElement jsonElement) {
+    if (!jsonElement.isJsonObject()) {
+      throw new JsonSyntaxException("Expected quest " + questId + " to be a JSON object");
+    }
+    JsonObject jsonObject = jsonElement.getAsJsonObject();
+    if (!jsonObject.has(QuestData.DATA_QUEST_TITLE_TAG)) {
+      throw new JsonSyntaxException(
+          "Missing " + QuestData.DATA_QUEST_TITLE_TAG + " for quest " + questId);
+    }
+
+    // The quest id is always defined by the location of the file.
+    CompoundTag compoundTag = (CompoundTag) toTag(jsonObject);
+    compoundTag.putString(QuestData.DATA_QUEST_ID_TAG, questId.toString());
+    normalizeEnum(questId, compoundTag, QuestData.DATA_QUEST_CATEGORY_TAG, QuestCategory.class);
+    normalizeEnum(questId, compoundTag, QuestData.DATA_QUEST_DIFFICULTY_TAG,
+        QuestDifficulty.class);
+    normalizeEnum(questId, compoundTag, QuestData.DATA_QUEST_TYPE_TAG, QuestType.class);
+    return QuestData.load(compoundTag);
+  }
+
+  private static <E extends Enum<E>> void normalizeEnum(ResourceLocation questId,
+      CompoundTag compoundTag, String key, Class<E> enumClass) {
+    if (!compoundTag.contains(key)) {
+      return;
+    }
+    String value = compoundTag.getString(key);
+    for (E enumConstant : enumClass.getEnumConstants()) {
+      if (enumConstant.name().equalsIgnoreCase(value)) {
+        compoundTag.putString(key, enumConstant.name());
+        return;
+      }
+    }
+    throw new JsonSyntaxException("Unknown " + key + " \"" + value + "\" for quest " + questId
+        + ", expected one of " + Arrays.toString(enumClass.getEnumConstants()));
+  }
+
+  public static Tag toTag(JsonElement jsonElement) {
+    if (jsonElement.isJsonObject()) {
+      CompoundTag compoundTag = new CompoundTag();
+      for (Map.Entry<String, JsonElement> entry : jsonElement.getAsJsonObject().entrySet()) {
+        Tag tag = toTag(entry.getValue());
+        if (tag != null) {
+          compoundTag.put(entry.getKey(), tag);
+        }
+      }
+      return compoundTag;
+    } else if (jsonElement.isJsonArray()) {
+      return toTag(jsonElement.getAsJsonArray());
+    } else if (jsonElement.isJsonPrimitive()) {
+      return toTag(jsonElement.getAsJsonPrimitive());
+    }
+    return null;
+  }
+
+  private static Tag toTag(JsonArray jsonArray) {
+    boolean intArray = jsonArray.size() > 0;
+    for (JsonElement jsonElement : jsonArray) {
+      if (!(toTag(jsonElement) instanceof IntTag)) {
+        intArray = false;
+        break;
+      }
+    }
+    if (intArray) {
+      int[] values = new int[jsonArray.size()];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = jsonArray.get(i).getAsInt();
+      }
+      return new IntArrayTag(values);
+    }
+
+    // List tags only accept elements of the same type.
+    ListTag listTag = new ListTag();
+    for (JsonElement jsonElement : jsonArray) {
+      Tag tag = toTag(jsonElement);
+      if (tag != null && !listTag.addTag(listTag.size(), tag)) {
+        throw new JsonSyntaxException("Mixed element types in array " + jsonArray);
+      }
+    }
+    return listTag;
+  }
+
+  private static Tag toTag(JsonPrimitive jsonPrimitive) {
+    if (jsonPrimitive.isBoolean()) {
+      return ByteTag.valueOf(jsonPrimitive.getAsBoolean());
+    } else if (jsonPrimitive.isNumber()) {
+      BigDecimal value = jsonPrimitive.getAsBigDecimal();
+      if (value.signum() == 0 || value.stripTrailingZeros().scale() <= 0) {
+        try {
+          long longValue = value.longValueExact();
+          return longValue == (int) longValue ? IntTag.valueOf((int) longValue)
+              : LongTag.valueOf(longValue);
+        } catch (ArithmeticException e) {
+          // Too large for a long, will be stored as double.
+        }
+      }
+      return DoubleTag.valueOf(value.doubleValue());
+    }
+    return StringTag.valueOf(jsonPrimitive.getAsString());
+  }
+
+}
@@ -0,0 +1,316 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.quest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.io.CountingInputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.resources.ResourceLocation;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.metrics.QuestMetrics;
+
+public class QuestDataLoader {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  public static final String QUEST_DATA_FILE_EXTENSION = ".nbt";
+
+  // Upper limit for the decode workers, the server thread should not starve during start.
+  private static final int MAX_WORKER_THREADS = 8;
+
+  protected QuestDataLoader() {}
+
+  public static List<QuestData> loadQuestData(Path questDataFolder) {
+    return loadQuestData(questDataFolder, null);
+  }
+
+  public static List<QuestData> loadQuestData(Path questDataFolder,
+      Consumer<List<Path>> questFilesListener) {
+    return QuestDataLoader.<QuestData>loadQuestDataFolder(questDataFolder,
+        questFilesListener, QuestDataLoader::decodeQuestData,
+        QuestDataLoader::decodeQuestData);
+  }
+
+  public static List<QuestHeader> loadQuestHeaders(Path questDataFolder) {
+    return loadQuestHeaders(questDataFolder, null);
+  }
+
+  public static List<QuestHeader> loadQuestHeaders(Path questDataFolder,
+      Consumer<List<Path>> questFilesListener) {
+    return QuestDataLoader.<QuestHeader>loadQuestDataFolder(questDataFolder,
+        questFilesListener, QuestDataLoader::decodeQuestHeader,
+        QuestDataLoader::decodeQuestHeader);
+  }
+
+  public static QuestData loadQuestData(QuestHeader questHeader) {
+    // Pending saves are newer than the stored quest data.
+    CompoundTag pendingSave = QuestDataSaver.getPendingSave(questHeader.getId());
+    if (pendingSave != null) {
+      return QuestData.load(pendingSave);
+    }
+
+    if (questHeader.isBundled()) {
+      return decodeQuestData(questHeader.getBundle(), questHeader.getId());
+    } else if (questHeader.hasLocation()) {
+      return decodeQuestData(questHeader.getLocation());
+    }
+    return null;
+  }
+
+  private static <T> List<T> loadQuestDataFolder(Path questDataFolder,
+      Consumer<List<Path>> questFilesListener,
+      BiFunction<QuestBundle, ResourceLocation, T> questBundleDecoder,
+      Function<Path, T> questDataFileDecoder) {
+    // Phase 1: Scan the quest data folder once for all quest bundles and quest data files.
+    long scanStartTime = System.nanoTime();
+    List<Path> questFiles = scanQuestDataFolder(questDataFolder);
+    List<Path> questBundleFiles = new ArrayList<>();
+    List<Path> questDataFiles = new ArrayList<>(questFiles.size());
+    for (Path questFile : questFiles) {
+      if (isQuestBundleFile(questFile)) {
+        // Old generations of the bundle are no longer mapped before the bundles are opened.
+        QuestBundle.deleteOldGenerations(questFile);
+        questBundleFiles.add(questFile);
+      } else {
+        questDataFiles.add(questFile);
+      }
+    }
+    long scanTime = System.nanoTime() - scanStartTime;
+    log.info("Found {} quest bundles and {} quest data files in {} ms.", questBundleFiles.size(),
+        questDataFiles.size(), TimeUnit.NANOSECONDS.toMillis(scanTime));
+    if (questFilesListener != null) {
+      questFilesListener.accept(questFiles);
+    }
+    if (questFiles.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    // Phase 2: Decompress and decode all quests on a bounded worker pool.
+    // Bundled quests are decoded first, so that single quest data files are able to override them.
+    long decodeStartTime = System.nanoTime();
+    List<Callable<T>> decodeTasks = new ArrayList<>(questDataFiles.size());
+    List<Object> decodeSources = new ArrayList<>(questDataFiles.size());
+    for (Path questBundleFile : questBundleFiles) {
+      QuestBundle questBundle = openQuestBundle(questBundleFile);
+      if (questBundle != null) {
+        for (ResourceLocation questId : questBundle.getQuestIds()) {
+          decodeTasks.add(() -> questBundleDecoder.apply(questBundle, questId));
+          decodeSources.add(questBundleFile + "#" + questId);
+        }
+      }
+    }
+    for (Path questDataFile : questDataFiles) {
+      decodeTasks.add(() -> questDataFileDecoder.apply(questDataFile));
+      decodeSources.add(questDataFile);
+    }
+    List<T> results = decode(decodeTasks, decodeSources);
+    long decodeTime = System.nanoTime() - decodeStartTime;
+    log.info("Decoded {} of {} quests in {} ms.", results.size(), decodeTasks.size(),
+        TimeUnit.NANOSECONDS.toMillis(decodeTime));
+
+    return results;
+  }
+
+  public static List<Path> scanQuestDataFiles(Path questDataFolder) {
+    return scanQuestDataFolder(questDataFolder).stream().filter(QuestDataLoader::isQuestDataFile)
+        .collect(Collectors.toList());
+  }
+
+  public static List<Path> scanQuestDataFolder(Path questDataFolder) {
+    if (questDataFolder == null || !Files.isDirectory(questDataFolder)) {
+      return Collections.emptyList();
+    }
+
+    // Use the already read file attributes of the walk instead of an additional stat per file.
+    try (Stream<Path> questFiles = Files.find(questDataFolder, Integer.MAX_VALUE,
+        (path, attributes) -> attributes.isRegularFile()
+            && (isQuestDataFile(path) || isQuestBundleFile(path)))) {
+      return QuestBundle.getLatestGenerations(questFiles.collect(Collectors.toList()));
+    } catch (IOException e) {
+      log.error("Error while scanning quest data folder: {}", questDataFolder, e);
+    }
+    return Collections.emptyList();
+  }
+
+  public static boolean isQuestDataFile(Path path) {
+    return path.getFileName().toString().endsWith(QUEST_DATA_FILE_EXTENSION);
+  }
+
+  public static boolean isQuestBundleFile(Path path) {
+    return path.getFileName().toString().endsWith(QuestBundle.QUEST_BUNDLE_FILE_EXTENSION);
+  }
+
+  public static <T> List<T> decode(List<Callable<T>> decodeTasks) {
+    return decode(decodeTasks, null);
+  }
+
+  public static <T> List<T> decode(List<Callable<T>> decodeTasks, List<?> decodeSources) {
+    if (decodeTasks.isEmpty()) {
+      return Collections.emptyList();
+    }
+    int workerThreads = getWorkerThreads(decodeTasks.size());
+    ExecutorService executorService = Executors.newFixedThreadPool(workerThreads,
+        new ThreadFactoryBuilder().setNameFormat(Constants.LOG_NAME + " Loader #%d")
+            .setDaemon(true).build());
+    log.debug("Decoding {} quests with {} worker threads ...", decodeTasks.size(), workerThreads);
+
+    // Decode quests in parallel, but keep the original order for the results.
+    // A failed task only drops its own quest, all other results are kept.
+    List<T> results = new ArrayList<>(decodeTasks.size());
+    try {
+      List<Future<T>> decodeResults = executorService.invokeAll(decodeTasks);
+      for (int index = 0; index < decodeResults.size(); index++) {
+        try {
+          T result = decodeResults.get(index).get();
+          if (result != null) {
+            results.add(result);
+          }
+        } catch (ExecutionException e) {
+          QuestMetrics.QUEST_LOAD_ERRORS.increment();
+          log.error("Error while decoding quest {}:",
+              decodeSources != null ? decodeSources.get(index) : "#" + index, e.getCause());
+        }
+      }
+    } catch (InterruptedException e) {
+      log.error("Interrupted while decoding quests!", e);
+      Thread.currentThread().interrupt();
+    } finally {
+      executorService.shutdownNow();
+    }
+    return results;
+  }
+
+  public static QuestBundle openQuestBundle(Path questBundleFile) {
+    try {
+      return QuestBundle.open(questBundleFile);
+    } catch (IOException | RuntimeException e) {
+      log.error("Error while opening quest bundle: {}", questBundleFile, e);
+    }
+    return null;
+  }
+
+  public static QuestData decodeQuestData(QuestBundle questBundle, ResourceLocation questId) {
+    long startTime = System.nanoTime();
+    try {
+      return questBundle.read(questId);
+    } catch (IOException | RuntimeException e) {
+      QuestMetrics.QUEST_LOAD_ERRORS.increment();
+      log.error("Error while loading quest data {} from bundle: {}", questId,
+          questBundle.getBundleFile(), e);
+    } finally {
+      QuestMetrics.QUEST_LOADS.recordSince(startTime);
+    }
+    return null;
+  }
+
+  public static QuestHeader decodeQuestHeader(QuestBundle questBundle, ResourceLocation questId) {
+    long startTime = System.nanoTime();
+    try {
+      CompoundTag compoundTag = questBundle.readTag(questId);
+      return compoundTag != null
+          ? QuestHeader.load(compoundTag, questBundle.getBundleFile(), questBundle)
+          : null;
+    } catch (IOException | RuntimeException e) {
+      QuestMetrics.QUEST_LOAD_ERRORS.increment();
+      log.error("Error while loading quest header {} from bundle: {}", questId,
+          questBundle.getBundleFile(), e);
+    } finally {
+      QuestMetrics.QUEST_LOADS.recordSince(startTime);
+    }
+    return null;
+  }
+
+  public static QuestHeader decodeQuestHeader(Path questDataFile) {
+    long startTime = System.nanoTime();
+    try (CountingInputStream inputStream =
+        new CountingInputStream(Files.newInputStream(questDataFile))) {
+      CompoundTag compoundTag = NbtIo.readCompressed(inputStream);
+      QuestMetrics.BYTES_READ.add(inputStream.getCount());
+      return QuestHeader.load(compoundTag, questDataFile, null);
+    } catch (IOException | RuntimeException e) {
+      QuestMetrics.QUEST_LOAD_ERRORS.increment();
+      log.error("Error while loading quest header from file: {}", questDataFile, e);
+    } finally {
+      QuestMetrics.QUEST_LOADS.recordSince(startTime);
+    }
+    return null;
+  }
+
+  public static QuestData decodeQuestData(Path questDataFile) {
+    long startTime = System.nanoTime();
+    try (CountingInputStream inputStream =
+        new CountingInputStream(Files.newInputStream(questDataFile))) {
+      CompoundTag compoundTag = NbtIo.readCompressed(inputStream);
+      QuestMetrics.BYTES_READ.add(inputStream.getCount());
+      return QuestData.load(compoundTag);
+    } catch (IOException | RuntimeException e) {
+      QuestMetrics.QUEST_LOAD_ERRORS.increment();
+      log.error("Error while loading quest data from file: {}", questDataFile, e);
+    } finally {
+      QuestMetrics.QUEST_LOADS.recordSince(startTime);
+    }
+    return null;
+  }
+
+  public static QuestData decodeQuestData(Path questDataFile, byte[] data) {
+    long startTime = System.nanoTime();
+    try {
+      QuestMetrics.BYTES_READ.add(data.length);
+      return QuestData.load(NbtIo.readCompressed(new ByteArrayInputStream(data)));
+    } catch (IOException | RuntimeException e) {
+      QuestMetrics.QUEST_LOAD_ERRORS.increment();
+      log.error("Error while loading quest data from file: {}", questDataFile, e);
+    } finally {
+      QuestMetrics.QUEST_LOADS.recordSince(startTime);
+    }
+    return null;
+  }
+
+  private static int getWorkerThreads(int numberOfFiles) {
+    int availableProcessors = Runtime.getRuntime().availableProcessors();
+    return Math.max(1, Math.min(numberOfFiles, Math.min(availableProcessors, MAX_WORKER_THREADS)));
+  }
+
+}
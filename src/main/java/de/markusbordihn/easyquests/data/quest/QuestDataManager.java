@@ -20,57 +20,73 @@
 package de.markusbordihn.easyquests.data.quest;
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.google.common.io.CountingOutputStream;
+
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.NbtIo;
 import net.minecraft.resources.ResourceLocation;
-
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.level.storage.LevelResource;
-import net.minecraftforge.server.ServerLifecycleHooks;
 
 import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.metrics.QuestMetrics;
 
 public class QuestDataManager {
 
   protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
 
-  // Quest data folder path and file reference.
-  public static final Path QUEST_DATA_FOLDER_PATH = Path.of(
-      ServerLifecycleHooks.getCurrentServer().getWorldPath(LevelResource.ROOT).toFile().getPath(),
-      Constants.MOD_ID).normalize();
-  public static final File QUEST_DATA_FOLDER = QUEST_DATA_FOLDER_PATH.toFile();
+  // Quest data folder inside the world folder, which is set before the server is starting.
+  private static volatile Path questDataFolder = null;
+
+  // Quest ids in the order of their ordinals, see QuestOrdinals.
+  public static final String QUEST_ORDINALS_FILE_NAME = "quest_ordinals.txt";
+
+  // Known quest data files, relative to the quest data folder, e.g. for command suggestions.
+  private static final Set<Path> knownQuestDataFiles = ConcurrentHashMap.newKeySet();
+  private static final AtomicLong knownQuestDataFilesVersion = new AtomicLong();
 
   public static void saveQuestData(QuestData questData) {
     if (questData == null) {
       return;
     }
 
-    // Quest resource location for storing the quest data.
-    ResourceLocation resourceLocation = questData.getId();
+    // Save quest data to compound tag.
+    CompoundTag questDataTag = new CompoundTag();
+    questData.save(questDataTag);
+
+    saveQuestData(questData.getId(), questDataTag);
+  }
+
+  public static boolean saveQuestData(ResourceLocation resourceLocation,
+      CompoundTag questDataTag) {
 
     // Check if folder for namespace exists and create it if not.
     String namespace = resourceLocation.getNamespace();
-    Path namespaceFolder = Paths.get(QUEST_DATA_FOLDER.toString(), namespace);
+    Path namespaceFolder = questDataFolder.resolve(namespace);
     try {
       Files.createDirectories(namespaceFolder);
     } catch (IOException e) {
       log.error("Error while creating quest folder for namespace: {}", namespace, e);
-      return;
+      return false;
     }
 
     // Extract quest path folder/subfolder/... from quest resource path and check if folder exists.
@@ -83,30 +99,75 @@ public class QuestDataManager {
         Files.createDirectories(questPathFolderFile);
       } catch (IOException e) {
         log.error("Error while creating quest folder for path: {}", questPathFolder, e);
-        return;
+        return false;
       }
     }
 
-    // Save quest data to compound tag.
-    CompoundTag questDataTag = new CompoundTag();
-    questData.save(questDataTag);
-
-    // Save quest compound tag to nbt file.
-    Path questDataFile = namespaceFolder.resolve(questPath + ".nbt");
+    // Save quest compound tag to a temporary file first, to avoid half written quest data files.
+    Path questDataFile = getQuestDataFile(resourceLocation);
+    Path temporaryQuestDataFile =
+        questDataFile.resolveSibling(questDataFile.getFileName() + ".tmp");
     log.info("Save quest data to file: {}", questDataFile);
-    try (OutputStream outputStream =
-        new BufferedOutputStream(Files.newOutputStream(questDataFile))) {
+    long startTime = System.nanoTime();
+    try (CountingOutputStream outputStream = new CountingOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(temporaryQuestDataFile)))) {
       NbtIo.writeCompressed(questDataTag, outputStream);
+      QuestMetrics.BYTES_WRITTEN.add(outputStream.getCount());
     } catch (IOException e) {
+      QuestMetrics.QUEST_SAVE_ERRORS.increment();
       log.error("Error while saving quest data to file: {}", questDataFile, e);
+      return false;
+    }
+    try {
+      Files.move(temporaryQuestDataFile, questDataFile, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      QuestMetrics.QUEST_SAVE_ERRORS.increment();
+      log.error("Error while replacing quest data file: {}", questDataFile, e);
+      return false;
+    }
+    QuestMetrics.QUEST_SAVES.recordSince(startTime);
+    addKnownQuestDataFile(questDataFile);
+    QuestReloader.updateQuestFile(questDataFile, resourceLocation);
+    return true;
+  }
+
+  public static void setQuestDataFolder(MinecraftServer server) {
+    questDataFolder =
+        server.getWorldPath(LevelResource.ROOT).resolve(Constants.MOD_ID).normalize();
+    knownQuestDataFiles.clear();
+    knownQuestDataFilesVersion.incrementAndGet();
+  }
+
+  public static Path getQuestDataFolder() {
+    return questDataFolder;
+  }
+
+  public static Path getQuestOrdinalsFile() {
+    return questDataFolder.resolve(QUEST_ORDINALS_FILE_NAME);
+  }
+
+  public static Path getQuestDataFile(ResourceLocation resourceLocation) {
+    return questDataFolder.resolve(resourceLocation.getNamespace())
+        .resolve(resourceLocation.getPath() + QuestDataLoader.QUEST_DATA_FILE_EXTENSION);
+  }
+
+  public static ResourceLocation getQuestId(Path questDataFile) {
+    // <namespace>/<path>.nbt is mapped to the quest id <namespace>:<path>
+    Path questPath = questDataFolder.relativize(questDataFile.normalize());
+    if (questPath.getNameCount() < 2 || !QuestDataLoader.isQuestDataFile(questPath)) {
+      return null;
     }
+    String path = questPath.subpath(1, questPath.getNameCount()).toString().replace('\\', '/');
+    return ResourceLocation.tryParse(questPath.getName(0) + ":"
+        + path.substring(0, path.length() - QuestDataLoader.QUEST_DATA_FILE_EXTENSION.length()));
   }
 
   public static QuestData loadQuestData(Path filePath) {
     // Check if base quest path is included and normalize path.
     Path questPath = filePath.normalize();
-    if (!questPath.startsWith(QUEST_DATA_FOLDER_PATH)) {
-      questPath = QUEST_DATA_FOLDER_PATH.resolve(questPath);
+    if (!questPath.startsWith(questDataFolder)) {
+      questPath = questDataFolder.resolve(questPath);
     }
 
     // Check if quest file exists.
@@ -117,32 +178,118 @@ public class QuestDataManager {
     }
 
     // Load quest data from nbt file.
-    try (InputStream inputStream = new FileInputStream(questFile)) {
-      CompoundTag compoundTag = NbtIo.readCompressed(inputStream);
-      return QuestData.load(compoundTag);
-    } catch (IOException exception) {
-      log.error("Error while loading quest data from file: {}", questFile, exception);
-      return null;
+    return QuestDataLoader.decodeQuestData(questPath);
+  }
+
+  public static int bundleQuestData(String namespace) {
+    Path namespaceFolder = questDataFolder.resolve(namespace).normalize();
+    if (!namespaceFolder.startsWith(questDataFolder)) {
+      log.error("Invalid quest namespace: {}", namespace);
+      return -1;
+    }
+
+    // Collect existing quest data files and quest bundle for the namespace.
+    Path existingQuestBundleFile = QuestBundle.getBundleFile(questDataFolder, namespace);
+    Path questBundleFile = QuestBundle.getNextBundleFile(questDataFolder, namespace);
+    List<Path> questDataFiles = QuestDataLoader.scanQuestDataFiles(namespaceFolder);
+    QuestBundle existingQuestBundle = Files.exists(existingQuestBundleFile)
+        ? QuestDataLoader.openQuestBundle(existingQuestBundleFile)
+        : null;
+    if (questDataFiles.isEmpty() && existingQuestBundle == null) {
+      log.info("No quest data files found for namespace: {}", namespace);
+      return 0;
     }
+
+    // Copy the compressed quest data as it is, only the quest id needs to be decoded.
+    log.info("Bundle {} quest data files for namespace {} into {} ...", questDataFiles.size(),
+        namespace, questBundleFile);
+    List<Path> bundledQuestDataFiles = new ArrayList<>(questDataFiles.size());
+    int numberOfBundledQuests = 0;
+    try (QuestBundle.Writer questBundleWriter = QuestBundle.create(questBundleFile)) {
+      // Single quest data files are newer than bundled quests and therefore replace them.
+      for (Path questDataFile : questDataFiles) {
+        byte[] compressedData = Files.readAllBytes(questDataFile);
+        ResourceLocation questId;
+        try {
+          CompoundTag compoundTag = NbtIo.readCompressed(new ByteArrayInputStream(compressedData));
+          questId = new ResourceLocation(compoundTag.getString(QuestData.DATA_QUEST_ID_TAG));
+        } catch (IOException | RuntimeException e) {
+          log.error("Skip invalid quest data file: {}", questDataFile, e);
+          continue;
+        }
+        if (questBundleWriter.contains(questId)) {
+          log.warn("Skip duplicated quest {} from file: {}", questId, questDataFile);
+          continue;
+        }
+        questBundleWriter.add(questId, ByteBuffer.wrap(compressedData));
+        bundledQuestDataFiles.add(questDataFile);
+      }
+      if (existingQuestBundle != null) {
+        for (ResourceLocation questId : existingQuestBundle.getQuestIds()) {
+          if (!questBundleWriter.contains(questId)) {
+            questBundleWriter.add(questId, existingQuestBundle.getCompressedData(questId));
+          }
+        }
+      }
+      numberOfBundledQuests = questBundleWriter.size();
+      questBundleWriter.finish();
+    } catch (IOException | RuntimeException e) {
+      log.error("Error while creating quest bundle: {}", questBundleFile, e);
+      return -1;
+    }
+
+    // Remove quest data files which are now part of the quest bundle.
+    for (Path bundledQuestDataFile : bundledQuestDataFiles) {
+      try {
+        Files.deleteIfExists(bundledQuestDataFile);
+        removeKnownQuestDataFile(bundledQuestDataFile);
+      } catch (IOException e) {
+        log.error("Error while removing bundled quest data file: {}", bundledQuestDataFile, e);
+      }
+    }
+
+    // Lazy loaded quests need to be relocated, because the converted files are removed.
+    QuestManager.relocateQuests(questBundleFile);
+    QuestBundle.deleteOldGenerations(questBundleFile);
+
+    return numberOfBundledQuests;
   }
 
-  public static List<Path> getQuestDataFiles() {
-    List<Path> questDataFiles = new ArrayList<>();
+  public static void setKnownQuestDataFiles(Collection<Path> questDataFiles) {
+    knownQuestDataFiles.clear();
+    for (Path questDataFile : questDataFiles) {
+      knownQuestDataFiles.add(questDataFolder.relativize(questDataFile.normalize()));
+    }
+    knownQuestDataFilesVersion.incrementAndGet();
+  }
 
-    // Check if the quest data folder exists.
-    if (!QUEST_DATA_FOLDER.exists()) {
-      return questDataFiles;
+  public static void addKnownQuestDataFile(Path questDataFile) {
+    if (knownQuestDataFiles.add(questDataFolder.relativize(questDataFile.normalize()))) {
+      knownQuestDataFilesVersion.incrementAndGet();
     }
+  }
 
-    try (Stream<Path> walk = Files.walk(QUEST_DATA_FOLDER.toPath())) {
-      // Filter all NBT files and add them to the list.
-      questDataFiles =
-          walk.filter(p -> p.toFile().isFile() && p.getFileName().toString().endsWith(".nbt"))
-              .map(QUEST_DATA_FOLDER_PATH::relativize).collect(Collectors.toList());
-    } catch (IOException e) {
-      log.error("Error while getting quest data files", e);
+  public static void removeKnownQuestDataFile(Path questDataFile) {
+    if (knownQuestDataFiles.remove(questDataFolder.relativize(questDataFile.normalize()))) {
+      knownQuestDataFilesVersion.incrementAndGet();
     }
+  }
 
-    return questDataFiles;
+  public static boolean isKnownQuestDataFile(Path questDataFile) {
+    return knownQuestDataFiles
+        .contains(questDataFolder.relativize(questDataFile.normalize()));
+  }
+
+  public static Set<Path> getKnownQuestDataFiles() {
+    return Collections.unmodifiableSet(knownQuestDataFiles);
+  }
+
+  public static long getKnownQuestDataFilesVersion() {
+    return knownQuestDataFilesVersion.get();
+  }
+
+  public static List<Path> getQuestDataFiles() {
+    return QuestDataLoader.scanQuestDataFiles(questDataFolder).stream()
+        .map(questDataFolder::relativize).collect(Collectors.toList());
   }
 }
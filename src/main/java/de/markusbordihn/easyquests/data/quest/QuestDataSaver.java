@@ -0,0 +1,185 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.quest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.data.storage.QuestStorage;
+import de.markusbordihn.easyquests.data.storage.QuestStorageManager;
+
+@EventBusSubscriber
+public class QuestDataSaver {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+  // Newest snapshot per quest which is not written yet.
+  private static final Map<ResourceLocation, CompoundTag> pendingSaves = new ConcurrentHashMap<>();
+
+  private static ExecutorService executorService = null;
+
+  protected QuestDataSaver() {}
+
+  @SubscribeEvent(priority = EventPriority.LOWEST)
+  public static void handleServerStoppingEvent(ServerStoppingEvent event) {
+    flush();
+  }
+
+  @SubscribeEvent
+  public static void handleServerStoppedEvent(ServerStoppedEvent event) {
+    // Catch saves which are triggered by the final world save after the server stopping event.
+    flush();
+  }
+
+  public static void save(QuestData questData) {
+    if (questData == null) {
+      return;
+    }
+
+    // Snapshot quest data on the calling (main) thread, the quest data itself is not thread safe.
+    ResourceLocation questId = questData.getId();
+    CompoundTag questDataTag = questData.save(new CompoundTag());
+    questData.setDirty(false);
+
+    // Only schedule a new write if there is no pending write for the same quest, otherwise the
+    // pending write will pick up the newest snapshot.
+    if (pendingSaves.put(questId, questDataTag) == null) {
+      getExecutorService().execute(QuestDataSaver::writePendingSaves);
+    } else {
+      log.debug("Coalesced pending save for quest {}", questId);
+    }
+  }
+
+  public static CompoundTag getPendingSave(ResourceLocation questId) {
+    return pendingSaves.get(questId);
+  }
+
+  public static int getPendingSaves() {
+    return pendingSaves.size();
+  }
+
+  public static <T> CompletableFuture<T> submit(Supplier<T> task) {
+    // Runs in order with the pending saves, e.g. to copy all quests into another storage.
+    return CompletableFuture.supplyAsync(task, getExecutorService());
+  }
+
+  public static void awaitPendingSaves() {
+    // Waits for all saves which are already queued, without stopping the quest saver and without
+    // holding the class lock, so that saves on the server thread are not blocked meanwhile.
+    Future<?> pendingSavesBarrier;
+    try {
+      pendingSavesBarrier = getExecutorService().submit(() -> {
+      });
+    } catch (RejectedExecutionException e) {
+      log.debug("Quest saver is shutting down, pending saves are written by the flush.");
+      return;
+    }
+    try {
+      pendingSavesBarrier.get(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (ExecutionException | TimeoutException e) {
+      log.error("Pending quest saves were not written within {} seconds!",
+          SHUTDOWN_TIMEOUT_SECONDS, e);
+    } catch (InterruptedException e) {
+      log.error("Interrupted while waiting for pending quest saves!", e);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public static synchronized void flush() {
+    if (executorService != null) {
+      log.debug("Flushing {} pending quest saves ...", pendingSaves.size());
+      executorService.shutdown();
+      try {
+        if (!executorService.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          log.error("Quest saver did not finish within {} seconds!", SHUTDOWN_TIMEOUT_SECONDS);
+        }
+      } catch (InterruptedException e) {
+        log.error("Interrupted while waiting for the quest saver!", e);
+        Thread.currentThread().interrupt();
+      }
+      executorService = null;
+    }
+
+    // Write remaining snapshots directly, e.g. if the quest saver was not able to finish in time.
+    writePendingSaves();
+  }
+
+  private static void writePendingSaves() {
+    // All pending snapshots are written as one batch, which could be a single write per storage.
+    // Snapshots stay pending until they are written, so that readers never see the old file.
+    Map<ResourceLocation, CompoundTag> questDataTags = new LinkedHashMap<>(pendingSaves);
+    while (!questDataTags.isEmpty()) {
+      QuestStorage questStorage = QuestStorageManager.getQuestStorage();
+      if (questStorage != null) {
+        questStorage.saveAll(questDataTags);
+      } else {
+        log.error("Unable to save {} quests without a quest storage!", questDataTags.size());
+      }
+
+      // Newer snapshots which were queued during the write are written with the next batch.
+      Map<ResourceLocation, CompoundTag> newerQuestDataTags = new LinkedHashMap<>();
+      for (Map.Entry<ResourceLocation, CompoundTag> entry : questDataTags.entrySet()) {
+        if (!pendingSaves.remove(entry.getKey(), entry.getValue())) {
+          CompoundTag questDataTag = pendingSaves.get(entry.getKey());
+          if (questDataTag != null) {
+            newerQuestDataTags.put(entry.getKey(), questDataTag);
+          }
+        }
+      }
+      questDataTags = newerQuestDataTags;
+    }
+  }
+
+  private static synchronized ExecutorService getExecutorService() {
+    if (executorService == null) {
+      executorService = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+          .setNameFormat(Constants.LOG_NAME + " Saver").setDaemon(true).build());
+    }
+    return executorService;
+  }
+
+}
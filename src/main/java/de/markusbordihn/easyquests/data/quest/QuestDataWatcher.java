@@ -0,0 +1,288 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.quest;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.minecraft.resources.ResourceLocation;
+
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.config.CommonConfig;
+import de.markusbordihn.easyquests.data.storage.QuestStorageManager;
+import de.markusbordihn.easyquests.data.storage.QuestStorageType;
+import de.markusbordihn.easyquests.network.QuestSyncManager;
+
+/**
+ * Optional watcher for the quest data folder. Bursts of file changes are debounced, the changed
+ * quest data files are decoded on the watcher thread and applied on the next server tick.
+ */
+@EventBusSubscriber
+public class QuestDataWatcher {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  // Decoded changes which are applied on the next server tick.
+  private static final Queue<QuestFileChange> pendingChanges = new ConcurrentLinkedQueue<>();
+
+  private static WatchService watchService = null;
+  private static Thread watcherThread = null;
+
+  protected QuestDataWatcher() {}
+
+  @SubscribeEvent
+  public static void handleServerStartedEvent(ServerStartedEvent event) {
+    if (!CommonConfig.COMMON.watchQuestDataFolder.get()) {
+      return;
+    }
+    if (QuestStorageManager.getQuestStorageType() != QuestStorageType.FILE) {
+      log.warn("Quest data folder could only be watched for the FILE quest storage!");
+    } else {
+      start(QuestDataManager.getQuestDataFolder(),
+          CommonConfig.COMMON.watchDebounceMillis.get());
+    }
+  }
+
+  @SubscribeEvent
+  public static void handleServerStoppingEvent(ServerStoppingEvent event) {
+    stop();
+  }
+
+  @SubscribeEvent
+  public static void handleServerTickEvent(TickEvent.ServerTickEvent event) {
+    if (event.phase != TickEvent.Phase.END || pendingChanges.isEmpty()) {
+      return;
+    }
+    QuestFileChange questFileChange;
+    while ((questFileChange = pendingChanges.poll()) != null) {
+      applyChange(questFileChange);
+    }
+  }
+
+  public static synchronized void start(Path questDataFolder, long debounceMillis) {
+    if (watchService != null) {
+      return;
+    }
+    try {
+      Files.createDirectories(questDataFolder);
+      watchService = FileSystems.getDefault().newWatchService();
+      Map<WatchKey, Path> watchedFolders = new HashMap<>();
+      registerFolder(watchService, watchedFolders, questDataFolder);
+      WatchService currentWatchService = watchService;
+      watcherThread = new Thread(() -> watch(currentWatchService, watchedFolders, debounceMillis),
+          Constants.LOG_NAME + " Watcher");
+      watcherThread.setDaemon(true);
+      watcherThread.start();
+      log.info("Watching {} folders in {} for quest changes.", watchedFolders.size(),
+          questDataFolder);
+    } catch (IOException e) {
+      log.error("Unable to watch quest data folder {}:", questDataFolder, e);
+      stop();
+    }
+  }
+
+  public static synchronized void stop() {
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException e) {
+        log.error("Error while closing quest data watcher:", e);
+      }
+      watchService = null;
+    }
+    if (watcherThread != null) {
+      watcherThread.interrupt();
+      watcherThread = null;
+    }
+    pendingChanges.clear();
+  }
+
+  public static boolean isWatching() {
+    return watchService != null;
+  }
+
+  private static void watch(WatchService watchService, Map<WatchKey, Path> watchedFolders,
+      long debounceMillis) {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        // Wait for the first change and collect further changes until the folder is quiet again.
+        Set<Path> changedFiles = new LinkedHashSet<>();
+        WatchKey watchKey = watchService.take();
+        do {
+          collectChanges(watchService, watchedFolders, watchKey, changedFiles);
+        } while ((watchKey = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null);
+        decodeChanges(changedFiles);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ClosedWatchServiceException e) {
+      // Watcher was stopped.
+    }
+    log.debug("Stopped quest data watcher.");
+  }
+
+  private static void collectChanges(WatchService watchService,
+      Map<WatchKey, Path> watchedFolders, WatchKey watchKey, Set<Path> changedFiles) {
+    Path folder = watchedFolders.get(watchKey);
+    for (WatchEvent<?> watchEvent : watchKey.pollEvents()) {
+      if (folder == null || watchEvent.kind() == StandardWatchEventKinds.OVERFLOW) {
+        log.warn("Lost quest data file changes in {}, please use the load command.", folder);
+        continue;
+      }
+      Path file = folder.resolve((Path) watchEvent.context());
+      if (watchEvent.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(file)) {
+        // New namespace or sub folders and the files which were already copied into them.
+        try {
+          registerFolder(watchService, watchedFolders, file);
+          try (Stream<Path> files = Files.walk(file)) {
+            files.filter(QuestDataLoader::isQuestDataFile).forEach(changedFiles::add);
+          }
+        } catch (IOException e) {
+          log.error("Unable to watch quest data folder {}:", file, e);
+        }
+      } else if (QuestDataLoader.isQuestDataFile(file)) {
+        changedFiles.add(file);
+      }
+    }
+    if (!watchKey.reset()) {
+      watchedFolders.remove(watchKey);
+    }
+  }
+
+  private static void decodeChanges(Set<Path> changedFiles) {
+    for (Path changedFile : changedFiles) {
+      // Only the final state of the file is relevant, e.g. for atomic moves of temporary files.
+      // Files which were written by the mod itself are known to the reloader and are not decoded.
+      if (Files.isRegularFile(changedFile)) {
+        if (QuestReloader.isUnchangedQuestFile(changedFile)) {
+          continue;
+        }
+        QuestData questData = QuestDataLoader.decodeQuestData(changedFile);
+        if (questData != null) {
+          pendingChanges.add(new QuestFileChange(changedFile, questData.getId(), questData,
+              QuestHeader.ofStored(questData, changedFile, null)));
+        }
+      } else {
+        ResourceLocation questId = QuestDataManager.getQuestId(changedFile);
+        if (questId != null) {
+          pendingChanges.add(new QuestFileChange(changedFile, questId, null, null));
+        }
+      }
+    }
+  }
+
+  private static void applyChange(QuestFileChange questFileChange) {
+    ResourceLocation questId = questFileChange.questId();
+    QuestData questData = questFileChange.questData();
+
+    // Removed quest data file.
+    if (questData == null) {
+      // Files which are removed by the mod itself, e.g. after bundling, are no longer known.
+      if (QuestDataManager.isKnownQuestDataFile(questFileChange.file())) {
+        QuestDataManager.removeKnownQuestDataFile(questFileChange.file());
+        if (QuestManager.removeQuest(questId)) {
+          QuestSyncManager.broadcastRemovedQuest(questId);
+          log.info("Removed quest {} after its file was deleted.", questId);
+        }
+      }
+      return;
+    }
+
+    // Data pack quests are not overwritten by files, like for the reloader.
+    if (QuestManager.getDatapackQuests().containsKey(questId)) {
+      log.warn("Ignored changed file {} for data pack quest {}.", questFileChange.file(), questId);
+      return;
+    }
+
+    // Local changes which are not saved yet are not overwritten.
+    QuestRegistry.Snapshot snapshot = QuestManager.getSnapshot();
+    QuestHeader existingQuestHeader = snapshot.getQuestHeader(questId);
+    QuestData existingQuestData = QuestManager.getLoadedQuests().get(questId);
+    if (QuestDataSaver.getPendingSave(questId) != null
+        || (existingQuestData != null && existingQuestData.isDirty())) {
+      log.warn("Ignored changed file {} for quest {} with unsaved changes.",
+          questFileChange.file(), questId);
+      return;
+    }
+
+    // Files which are written by the mod itself have the same content hash as the stored quest.
+    QuestHeader questHeader = questFileChange.questHeader();
+    QuestDataManager.addKnownQuestDataFile(questFileChange.file());
+    QuestReloader.updateQuestFile(questFileChange.file(), questId);
+    if (existingQuestHeader != null && existingQuestHeader.hasHash()
+        && existingQuestHeader.getHash() == questHeader.getHash()) {
+      return;
+    }
+
+    // Lazy loaded quests keep pointing to their file instead of being pinned in memory.
+    QuestManager.replaceStoredQuests(List.of(questData), Map.of(questId, questHeader),
+        List.of());
+    QuestSyncManager.broadcastQuest(questData);
+    log.info("{} quest {} from file {}", existingQuestHeader != null ? "Updated" : "Added",
+        questId, questFileChange.file());
+  }
+
+  private static void registerFolder(WatchService watchService,
+      Map<WatchKey, Path> watchedFolders, Path folder) throws IOException {
+    Files.walkFileTree(folder, new SimpleFileVisitor<>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes)
+          throws IOException {
+        watchedFolders.put(directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE),
+            directory);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  private record QuestFileChange(Path file, ResourceLocation questId, QuestData questData,
+      QuestHeader questHeader) {
+  }
+
+}
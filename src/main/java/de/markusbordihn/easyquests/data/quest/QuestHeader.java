@@ -0,0 +1,168 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.quest;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+
+import de.markusbordihn.easyquests.network.QuestSyncManager;
+
+public class QuestHeader {
+
+  // Quest headers which are not created from stored quest data have no content hash.
+  public static final long NO_HASH = 0L;
+
+  private final ResourceLocation id;
+  private final String title;
+  private final QuestCategory category;
+  private final QuestDifficulty difficulty;
+  private final QuestType type;
+
+  // Location of the full quest data, if any.
+  private final Path location;
+  private final QuestBundle bundle;
+
+  // Sync hash of the stored quest data, so that it is known without loading the quest.
+  private final long hash;
+
+  public QuestHeader(ResourceLocation id, String title, QuestCategory category,
+      QuestDifficulty difficulty, QuestType type, Path location, QuestBundle bundle, long hash) {
+    this.id = id;
+    this.title = title;
+    this.category = category;
+    this.difficulty = difficulty;
+    this.type = type;
+    this.location = location;
+    this.bundle = bundle;
+    this.hash = hash;
+  }
+
+  public static QuestHeader of(QuestData questData) {
+    return of(questData, null, null, NO_HASH);
+  }
+
+  public static QuestHeader of(QuestData questData, Path location, QuestBundle bundle,
+      long hash) {
+    return new QuestHeader(questData.getId(), questData.getTitle(), questData.getCategory(),
+        questData.getDifficulty(), questData.getType(), location, bundle, hash);
+  }
+
+  public static QuestHeader ofStored(QuestData questData, Path location, QuestBundle bundle) {
+    return of(questData, location, bundle,
+        QuestSyncManager.getQuestHash(questData.save(new CompoundTag())));
+  }
+
+  public static QuestHeader load(CompoundTag compoundTag, Path location, QuestBundle bundle) {
+    // Only the header fields are read, criteria and rewards are decoded with the quest data.
+    // Quest files which are written by the mod have the same hash as the saved quest data.
+    return new QuestHeader(new ResourceLocation(compoundTag.getString(QuestData.DATA_QUEST_ID_TAG)),
+        compoundTag.getString(QuestData.DATA_QUEST_TITLE_TAG),
+        compoundTag.contains(QuestData.DATA_QUEST_CATEGORY_TAG)
+            ? QuestCategory.valueOf(compoundTag.getString(QuestData.DATA_QUEST_CATEGORY_TAG))
+            : QuestCategory.NONE,
+        compoundTag.contains(QuestData.DATA_QUEST_DIFFICULTY_TAG)
+            ? QuestDifficulty.valueOf(compoundTag.getString(QuestData.DATA_QUEST_DIFFICULTY_TAG))
+            : QuestDifficulty.NORMAL,
+        compoundTag.contains(QuestData.DATA_QUEST_TYPE_TAG)
+            ? QuestType.valueOf(compoundTag.getString(QuestData.DATA_QUEST_TYPE_TAG))
+            : QuestType.CUSTOM,
+        location, bundle, QuestSyncManager.getQuestHash(compoundTag));
+  }
+
+  public QuestHeader withLocation(Path location, QuestBundle bundle) {
+    return new QuestHeader(this.id, this.title, this.category, this.difficulty, this.type,
+        location, bundle, this.hash);
+  }
+
+  public ResourceLocation getId() {
+    return this.id;
+  }
+
+  public String getTitle() {
+    return this.title;
+  }
+
+  public QuestCategory getCategory() {
+    return this.category;
+  }
+
+  public QuestDifficulty getDifficulty() {
+    return this.difficulty;
+  }
+
+  public QuestType getType() {
+    return this.type;
+  }
+
+  public Path getLocation() {
+    return this.location;
+  }
+
+  public QuestBundle getBundle() {
+    return this.bundle;
+  }
+
+  public boolean hasLocation() {
+    return this.location != null;
+  }
+
+  public boolean isBundled() {
+    return this.bundle != null;
+  }
+
+  public long getHash() {
+    return this.hash;
+  }
+
+  public boolean hasHash() {
+    return this.hash != NO_HASH;
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (!(object instanceof QuestHeader questHeader)) {
+      return false;
+    }
+    return this.id.equals(questHeader.id) && Objects.equals(this.title, questHeader.title)
+        && this.category == questHeader.category && this.difficulty == questHeader.difficulty
+        && this.type == questHeader.type && Objects.equals(this.location, questHeader.location)
+        && this.bundle == questHeader.bundle && this.hash == questHeader.hash;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.id, this.title, this.category, this.difficulty, this.type,
+        this.location, this.hash);
+  }
+
+  @Override
+  public String toString() {
+    return "QuestHeader [id=" + this.id + ", title=" + this.title + ", category=" + this.category
+        + ", difficulty=" + this.difficulty + ", type=" + this.type + ", location="
+        + this.location + "]";
+  }
+
+}
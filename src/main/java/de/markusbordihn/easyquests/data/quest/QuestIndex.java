@@ -0,0 +1,203 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.quest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Secondary indexes for quest category, difficulty and type over dense quest ordinals of a single
+ * registry snapshot. Combined filters are resolved by bitwise intersections. Title lookups are
+ * resolved by a single hash lookup for all quests with an id derived from their title.
+ */
+public class QuestIndex {
+
+  // Quest headers and loaded quests by quest ordinal, the bitsets are indexed by ordinal as well.
+  private final QuestHeader[] questHeaders;
+  private final QuestData[] questData;
+  private final BitSet questOrdinals = new BitSet();
+  private final EnumMap<QuestCategory, BitSet> categoryIndex = new EnumMap<>(QuestCategory.class);
+  private final EnumMap<QuestDifficulty, BitSet> difficultyIndex =
+      new EnumMap<>(QuestDifficulty.class);
+  private final EnumMap<QuestType, BitSet> typeIndex = new EnumMap<>(QuestType.class);
+
+  // Title to quest id, only for quests with an id which is derived from their title.
+  private final HashMap<String, ResourceLocation> titleIndex = new HashMap<>();
+
+  public QuestIndex(Collection<QuestHeader> questHeaderList,
+      Map<ResourceLocation, QuestData> questDataMap, QuestOrdinals ordinals) {
+    int size = ordinals.size();
+    this.questHeaders = new QuestHeader[size];
+    this.questData = new QuestData[size];
+    for (QuestHeader questHeader : questHeaderList) {
+      int ordinal = ordinals.get(questHeader.getId());
+      if (ordinal >= 0 && ordinal < size) {
+        add(ordinal, questHeader, questDataMap.get(questHeader.getId()));
+      }
+    }
+  }
+
+  private QuestIndex(QuestIndex questIndex, int size) {
+    this.questHeaders = Arrays.copyOf(questIndex.questHeaders, size);
+    this.questData = Arrays.copyOf(questIndex.questData, size);
+    this.questOrdinals.or(questIndex.questOrdinals);
+    copyIndex(questIndex.categoryIndex, this.categoryIndex);
+    copyIndex(questIndex.difficultyIndex, this.difficultyIndex);
+    copyIndex(questIndex.typeIndex, this.typeIndex);
+    this.titleIndex.putAll(questIndex.titleIndex);
+  }
+
+  /**
+   * Creates a copy of this index with updated entries for the changed quest ids. All other
+   * entries are taken over as they are, so titles are not normalized again.
+   */
+  public QuestIndex update(Collection<ResourceLocation> changedQuestIds,
+      Map<ResourceLocation, QuestHeader> questHeaderMap,
+      Map<ResourceLocation, QuestData> questDataMap, QuestOrdinals ordinals) {
+    QuestIndex questIndex =
+        new QuestIndex(this, Math.max(ordinals.size(), this.questHeaders.length));
+    for (ResourceLocation questId : changedQuestIds) {
+      int ordinal = ordinals.get(questId);
+      if (ordinal < 0 || ordinal >= questIndex.questHeaders.length) {
+        continue;
+      }
+      questIndex.remove(ordinal);
+      QuestHeader questHeader = questHeaderMap.get(questId);
+      if (questHeader != null) {
+        questIndex.add(ordinal, questHeader, questDataMap.get(questId));
+      }
+    }
+    return questIndex;
+  }
+
+  private void add(int ordinal, QuestHeader questHeader, QuestData questData) {
+    this.questHeaders[ordinal] = questHeader;
+    this.questData[ordinal] = questData;
+    this.questOrdinals.set(ordinal);
+    this.categoryIndex.computeIfAbsent(questHeader.getCategory(), key -> new BitSet())
+        .set(ordinal);
+    this.difficultyIndex.computeIfAbsent(questHeader.getDifficulty(), key -> new BitSet())
+        .set(ordinal);
+    this.typeIndex.computeIfAbsent(questHeader.getType(), key -> new BitSet()).set(ordinal);
+    String title = questHeader.getTitle();
+    if (title != null && questHeader.getId().equals(QuestData.getQuestId(title))) {
+      this.titleIndex.put(title, questHeader.getId());
+    }
+  }
+
+  private void remove(int ordinal) {
+    QuestHeader questHeader = this.questHeaders[ordinal];
+    if (questHeader == null) {
+      return;
+    }
+    this.questHeaders[ordinal] = null;
+    this.questData[ordinal] = null;
+    this.questOrdinals.clear(ordinal);
+    clearIndex(this.categoryIndex, questHeader.getCategory(), ordinal);
+    clearIndex(this.difficultyIndex, questHeader.getDifficulty(), ordinal);
+    clearIndex(this.typeIndex, questHeader.getType(), ordinal);
+    String title = questHeader.getTitle();
+    if (title != null && questHeader.getId().equals(this.titleIndex.get(title))) {
+      this.titleIndex.remove(title);
+    }
+  }
+
+  public QuestHeader getQuestHeader(int ordinal) {
+    return ordinal >= 0 && ordinal < this.questHeaders.length ? this.questHeaders[ordinal] : null;
+  }
+
+  public QuestData getQuestData(int ordinal) {
+    return ordinal >= 0 && ordinal < this.questData.length ? this.questData[ordinal] : null;
+  }
+
+  public ResourceLocation getQuestId(String title) {
+    return this.titleIndex.get(title);
+  }
+
+  public List<QuestHeader> find(Set<QuestCategory> categories, Set<QuestDifficulty> difficulties,
+      Set<QuestType> types) {
+    BitSet matches = match(categories, difficulties, types);
+    List<QuestHeader> result = new ArrayList<>(matches.cardinality());
+    for (int ordinal = matches.nextSetBit(0); ordinal >= 0;
+        ordinal = matches.nextSetBit(ordinal + 1)) {
+      result.add(this.questHeaders[ordinal]);
+    }
+    return result;
+  }
+
+  public int count(Set<QuestCategory> categories, Set<QuestDifficulty> difficulties,
+      Set<QuestType> types) {
+    return match(categories, difficulties, types).cardinality();
+  }
+
+  public int size() {
+    return this.questOrdinals.cardinality();
+  }
+
+  private BitSet match(Set<QuestCategory> categories, Set<QuestDifficulty> difficulties,
+      Set<QuestType> types) {
+    // A null filter matches all quests.
+    BitSet matches = (BitSet) this.questOrdinals.clone();
+    intersect(matches, this.categoryIndex, categories);
+    intersect(matches, this.difficultyIndex, difficulties);
+    intersect(matches, this.typeIndex, types);
+    return matches;
+  }
+
+  private static <E extends Enum<E>> void intersect(BitSet matches, EnumMap<E, BitSet> index,
+      Set<E> filter) {
+    if (filter == null || matches.isEmpty()) {
+      return;
+    }
+    BitSet union = new BitSet();
+    for (E value : filter) {
+      BitSet bitSet = index.get(value);
+      if (bitSet != null) {
+        union.or(bitSet);
+      }
+    }
+    matches.and(union);
+  }
+
+  private static <E extends Enum<E>> void copyIndex(EnumMap<E, BitSet> source,
+      EnumMap<E, BitSet> target) {
+    for (Map.Entry<E, BitSet> entry : source.entrySet()) {
+      target.put(entry.getKey(), (BitSet) entry.getValue().clone());
+    }
+  }
+
+  private static <E extends Enum<E>> void clearIndex(EnumMap<E, BitSet> index, E value,
+      int ordinal) {
+    BitSet bitSet = index.get(value);
+    if (bitSet != null) {
+      bitSet.clear(ordinal);
+    }
+  }
+
+}
@@ -20,70 +20,447 @@
 package de.markusbordihn.easyquests.data.quest;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+
 import net.minecraftforge.event.server.ServerStartingEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
 
 import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.config.CommonConfig;
+import de.markusbordihn.easyquests.data.criteria.CriteriaManager;
+import de.markusbordihn.easyquests.data.storage.FileQuestStorage;
+import de.markusbordihn.easyquests.data.storage.QuestStorage;
+import de.markusbordihn.easyquests.data.storage.QuestStorageManager;
+import de.markusbordihn.easyquests.data.storage.QuestStorageType;
+import de.markusbordihn.easyquests.metrics.QuestMetrics;
 
 @EventBusSubscriber
 public class QuestManager {
 
   protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
 
-  private static HashMap<ResourceLocation, QuestData> questDataMap = new HashMap<>();
+  private static final QuestRegistry questRegistry = new QuestRegistry();
+
+  // Cache for the lazy loading mode, if enabled.
+  private static volatile QuestDataCache questDataCache = null;
+
+  // Quests from data packs, they are published again after the world quests are loaded.
+  private static volatile Map<ResourceLocation, QuestData> datapackQuests = Map.of();
 
   @SubscribeEvent
   public static void handleServerStartingEventEvent(ServerStartingEvent event) {
-    log.info("Loading quest data ...");
+    // Quest ordinals need to be loaded before any quest is added to the registry.
+    questRegistry.loadQuestOrdinals(QuestDataManager.getQuestOrdinalsFile());
+
+    QuestStorage questStorage = QuestStorageManager.getQuestStorage();
+    if (CommonConfig.COMMON.lazyQuestLoading.get() && questStorage.supportsLazyLoading()) {
+      loadQuestHeaders();
+    } else {
+      if (CommonConfig.COMMON.lazyQuestLoading.get()) {
+        log.warn("Lazy quest loading is not supported by the {} quest storage!",
+            questStorage.getType());
+      }
+      loadQuestData(questStorage);
+    }
+
+    // Data packs are loaded before the server is starting.
+    if (!datapackQuests.isEmpty()) {
+      publishDatapackQuests(List.of());
+    }
+  }
+
+  private static void loadQuestData(QuestStorage questStorage) {
+    log.info("Loading quest data from {} storage ...", questStorage.getType());
+    questDataCache = null;
 
-    // Get all quest data files from folder.
-    List<Path> questDataFiles = QuestDataManager.getQuestDataFiles();
-    if (questDataFiles.isEmpty()) {
+    // Decode all quests from the quest storage.
+    List<QuestData> questDataList = questStorage.loadAll();
+    if (questDataList.isEmpty()) {
       log.info("No quest data files found!");
       return;
     }
 
-    // Process all quest data files and add them to the quest data manager.
-    log.info("Found {} quest data files ...", questDataFiles.size());
-    QuestDataManager.getQuestDataFiles().forEach((questDataFile) -> {
-      QuestData questData = QuestDataManager.loadQuestData(questDataFile);
-      if (questData != null) {
-        QuestManager.addQuest(questData);
+    // Publish all decoded quests in one step.
+    long publishStartTime = System.nanoTime();
+    addQuests(questDataList);
+    log.info("Published {} quests in {} ms.", questDataList.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - publishStartTime));
+  }
+
+  private static void loadQuestHeaders() {
+    log.info("Loading quest headers (lazy loading) ...");
+    questDataCache =
+        new QuestDataCache(CommonConfig.COMMON.questCacheSize.get(), QuestManager::pinQuest);
+
+    // Scan and decode only the quest headers from the quest data folder.
+    List<QuestHeader> questHeaderList =
+        QuestDataLoader.loadQuestHeaders(QuestDataManager.getQuestDataFolder(),
+            QuestReloader::setQuestFiles);
+    if (questHeaderList.isEmpty()) {
+      log.info("No quest data files found!");
+      return;
+    }
+
+    // Publish all decoded quest headers in one step.
+    long publishStartTime = System.nanoTime();
+    questRegistry.addHeaders(questHeaderList);
+    log.info("Published {} quest headers in {} ms.", questHeaderList.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - publishStartTime));
+  }
+
+  @SubscribeEvent
+  public static void handleWorldSaveEvent(WorldEvent.Save event) {
+    if (event.getWorld() instanceof ServerLevel serverLevel
+        && serverLevel.dimension() == Level.OVERWORLD) {
+      int numberOfSavedQuests = saveDirtyQuests();
+      if (numberOfSavedQuests > 0) {
+        log.debug("Saved {} changed quests with world save.", numberOfSavedQuests);
+      }
+      questRegistry.saveQuestOrdinals(QuestDataManager.getQuestOrdinalsFile());
+    }
+  }
+
+  @SubscribeEvent(priority = EventPriority.HIGH)
+  public static void handleServerStoppingEvent(ServerStoppingEvent event) {
+    saveDirtyQuests();
+    questRegistry.saveQuestOrdinals(QuestDataManager.getQuestOrdinalsFile());
+  }
+
+  public static List<QuestData> getDirtyQuests() {
+    QuestRegistry.Snapshot snapshot = questRegistry.getSnapshot();
+    List<QuestData> dirtyQuests = new ArrayList<>();
+    for (QuestData questData : snapshot.getQuestData()) {
+      if (questData.isDirty()) {
+        dirtyQuests.add(questData);
+      }
+    }
+    if (questDataCache != null) {
+      for (QuestData questData : questDataCache.values()) {
+        if (questData.isDirty() && !snapshot.isLoaded(questData.getId())) {
+          dirtyQuests.add(questData);
+        }
+      }
+    }
+    return dirtyQuests;
+  }
+
+  public static int saveDirtyQuests() {
+    List<QuestData> dirtyQuests = getDirtyQuests();
+    if (dirtyQuests.isEmpty()) {
+      return 0;
+    }
+    saveQuests(dirtyQuests);
+    return dirtyQuests.size();
+  }
+
+  public static void saveQuest(QuestData questData) {
+    QuestDataSaver.save(questData);
+    updateStoredQuests(List.of(questData));
+  }
+
+  public static void saveQuests(Collection<QuestData> questDataList) {
+    for (QuestData questData : questDataList) {
+      QuestDataSaver.save(questData);
+    }
+    updateStoredQuests(questDataList);
+  }
+
+  private static void updateStoredQuests(Collection<QuestData> questDataList) {
+    // Only lazy loaded quests need the location of their stored quest data.
+    if (questDataCache == null
+        || QuestStorageManager.getQuestStorageType() != QuestStorageType.FILE) {
+      return;
+    }
+
+    // Saved quests are stored as single quest data files, independent of their former location.
+    questRegistry.update((questDataMap, questHeaderMap) -> {
+      for (QuestData questData : questDataList) {
+        if (questHeaderMap.containsKey(questData.getId())) {
+          questHeaderMap.put(questData.getId(), QuestHeader.ofStored(questData,
+              QuestDataManager.getQuestDataFile(questData.getId()), null));
+        }
       }
     });
   }
 
+  private static Map<ResourceLocation, QuestHeader> storeQuests(
+      Collection<QuestData> questDataList) {
+    // Quests are saved right away, so that their header could point to the stored quest data.
+    Map<ResourceLocation, QuestHeader> storedQuestHeaders = new HashMap<>();
+    for (QuestData questData : questDataList) {
+      QuestDataSaver.save(questData);
+      storedQuestHeaders.put(questData.getId(), QuestHeader.ofStored(questData,
+          QuestDataManager.getQuestDataFile(questData.getId()), null));
+    }
+    return storedQuestHeaders;
+  }
+
+  private static void pinQuest(QuestData questData) {
+    // Changed quest data must not be dropped by the lazy loading cache before it is saved.
+    if (questData.isDirty()) {
+      questRegistry.pin(questData);
+    }
+  }
+
   public static void addQuest(QuestData questData) {
-    questDataMap.put(questData.getId(), questData);
+    addQuests(List.of(questData));
+  }
+
+  public static void addQuests(Collection<QuestData> questDataList) {
+    if (questDataCache != null) {
+      replaceQuests(questDataList, List.of());
+      return;
+    }
+    questRegistry.addAll(questDataList);
+    CriteriaManager.resubscribe(questDataList);
+  }
+
+  public static boolean removeQuest(ResourceLocation questId) {
+    if (questRegistry.getSnapshot().getQuestHeader(questId) == null) {
+      return false;
+    }
+    replaceQuests(List.of(), List.of(questId));
+    return true;
+  }
+
+  public static void replaceQuests(Collection<QuestData> questDataList,
+      Collection<ResourceLocation> removedQuestIds) {
+    // Lazy loaded quests are stored and cached instead of being pinned in memory.
+    replaceQuests(questDataList, questDataCache != null ? storeQuests(questDataList) : null,
+        removedQuestIds);
+  }
+
+  public static void replaceStoredQuests(Collection<QuestData> questDataList,
+      Map<ResourceLocation, QuestHeader> storedQuestHeaders,
+      Collection<ResourceLocation> removedQuestIds) {
+    // Lazy loaded quests are not pinned, their headers point to the changed quest data instead.
+    replaceQuests(questDataList, questDataCache != null ? storedQuestHeaders : null,
+        removedQuestIds);
+  }
+
+  private static void replaceQuests(Collection<QuestData> questDataList,
+      Map<ResourceLocation, QuestHeader> storedQuestHeaders,
+      Collection<ResourceLocation> removedQuestIds) {
+    // Added, changed and removed quests are published as a single snapshot.
+    questRegistry.update((questDataMap, questHeaderMap) -> {
+      for (ResourceLocation questId : removedQuestIds) {
+        questDataMap.remove(questId);
+        questHeaderMap.remove(questId);
+      }
+      for (QuestData questData : questDataList) {
+        QuestHeader storedQuestHeader =
+            storedQuestHeaders != null ? storedQuestHeaders.get(questData.getId()) : null;
+        if (storedQuestHeader != null) {
+          questDataMap.remove(questData.getId());
+          questHeaderMap.put(questData.getId(), storedQuestHeader);
+        } else {
+          questDataMap.put(questData.getId(), questData);
+          questHeaderMap.put(questData.getId(), QuestHeader.of(questData));
+        }
+      }
+    });
+    if (questDataCache != null) {
+      removedQuestIds.forEach(questDataCache::invalidate);
+      for (QuestData questData : questDataList) {
+        // Stored quests which are already in memory don't need to be decoded again.
+        if (storedQuestHeaders != null && storedQuestHeaders.containsKey(questData.getId())) {
+          questDataCache.put(questData);
+        } else {
+          questDataCache.invalidate(questData.getId());
+        }
+      }
+    }
+    for (ResourceLocation questId : removedQuestIds) {
+      int questOrdinal = questRegistry.getQuestOrdinals().get(questId);
+      if (questOrdinal != QuestOrdinals.NO_ORDINAL) {
+        CriteriaManager.unsubscribeQuest(questOrdinal);
+      }
+    }
+    CriteriaManager.resubscribe(questDataList);
+  }
+
+  public static void setDatapackQuests(Map<ResourceLocation, QuestData> questDataMap) {
+    List<ResourceLocation> removedQuestIds = new ArrayList<>();
+    for (ResourceLocation questId : datapackQuests.keySet()) {
+      if (!questDataMap.containsKey(questId)) {
+        removedQuestIds.add(questId);
+      }
+    }
+    datapackQuests = Map.copyOf(questDataMap);
+    publishDatapackQuests(removedQuestIds);
+  }
+
+  public static Map<ResourceLocation, QuestData> getDatapackQuests() {
+    return datapackQuests;
+  }
+
+  private static void publishDatapackQuests(Collection<ResourceLocation> removedQuestIds) {
+    // Data pack quests have no stored quest data, so they stay in memory.
+    replaceQuests(datapackQuests.values(), null, removedQuestIds);
+  }
+
+  public static void relocateQuests(Path questBundleFile) {
+    if (questDataCache == null) {
+      return;
+    }
+
+    // Lazy loaded quests from the bundle need to point to the bundle instead of the old files or
+    // the old generation of the bundle, which is removed afterwards.
+    QuestBundle questBundle =
+        QuestStorageManager.getQuestStorage() instanceof FileQuestStorage fileQuestStorage
+            ? fileQuestStorage.getQuestBundle(questBundleFile)
+            : QuestDataLoader.openQuestBundle(questBundleFile);
+    if (questBundle == null) {
+      return;
+    }
+    questRegistry.update((questDataMap, questHeaderMap) -> {
+      for (ResourceLocation questId : questBundle.getQuestIds()) {
+        QuestHeader questHeader = questHeaderMap.get(questId);
+        if (questHeader != null && questHeader.hasLocation()) {
+          questHeaderMap.put(questId, questHeader.withLocation(questBundleFile, questBundle));
+        }
+      }
+    });
+  }
+
+  public static void updateQuest(QuestData questData) {
+    // Keeps the quest header and secondary indexes in sync after changes of the quest data.
+    questRegistry.refresh(List.of(questData));
+    CriteriaManager.resubscribe(List.of(questData));
+  }
+
+  public static List<QuestHeader> findQuests(QuestCategory category, QuestDifficulty difficulty,
+      QuestType type) {
+    return findQuests(category != null ? EnumSet.of(category) : null,
+        difficulty != null ? EnumSet.of(difficulty) : null, type != null ? EnumSet.of(type) : null);
+  }
+
+  public static List<QuestHeader> findQuests(Set<QuestCategory> categories,
+      Set<QuestDifficulty> difficulties, Set<QuestType> types) {
+    return questRegistry.getSnapshot().getQuestIndex().find(categories, difficulties, types);
+  }
+
+  public static int countQuests(QuestCategory category, QuestDifficulty difficulty,
+      QuestType type) {
+    return questRegistry.getSnapshot().getQuestIndex().count(
+        category != null ? EnumSet.of(category) : null,
+        difficulty != null ? EnumSet.of(difficulty) : null, type != null ? EnumSet.of(type) : null);
+  }
+
+  public static QuestOrdinals getQuestOrdinals() {
+    return questRegistry.getQuestOrdinals();
+  }
+
+  public static QuestRegistry.Snapshot getSnapshot() {
+    return questRegistry.getSnapshot();
   }
 
   public static Collection<QuestData> getQuests() {
-    return questDataMap.values();
+    QuestRegistry.Snapshot snapshot = questRegistry.getSnapshot();
+    if (questDataCache == null) {
+      return snapshot.getQuestData();
+    }
+
+    // Lazy loading mode needs to load all quests, use getQuestHeaders() whenever possible.
+    List<QuestData> questDataList = new ArrayList<>(snapshot.size());
+    for (QuestHeader questHeader : snapshot.getQuestHeaders()) {
+      QuestData questData = getQuest(snapshot, questHeader.getId());
+      if (questData != null) {
+        questDataList.add(questData);
+      }
+    }
+    return questDataList;
+  }
+
+  public static Collection<QuestHeader> getQuestHeaders() {
+    return questRegistry.getSnapshot().getQuestHeaders();
+  }
+
+  public static QuestDataCache getQuestDataCache() {
+    return questDataCache;
   }
 
   public static QuestData getQuest(String title) {
-    return questDataMap.get(QuestData.getQuestId(title));
+    QuestMetrics.LOOKUPS_BY_TITLE.increment();
+    QuestRegistry.Snapshot snapshot = questRegistry.getSnapshot();
+    ResourceLocation id = snapshot.getQuestIndex().getQuestId(title);
+    return getQuest(snapshot, id != null ? id : QuestData.getQuestId(title));
   }
 
   public static QuestData getQuest(ResourceLocation id) {
-    return questDataMap.get(id);
+    QuestMetrics.LOOKUPS_BY_ID.increment();
+    return getQuest(questRegistry.getSnapshot(), id);
+  }
+
+  public static QuestData getQuest(int questOrdinal) {
+    QuestMetrics.LOOKUPS_BY_ORDINAL.increment();
+    QuestRegistry.Snapshot snapshot = questRegistry.getSnapshot();
+    QuestIndex questIndex = snapshot.getQuestIndex();
+    QuestData questData = questIndex.getQuestData(questOrdinal);
+    if (questData != null || questDataCache == null) {
+      return questData;
+    }
+    QuestHeader questHeader = questIndex.getQuestHeader(questOrdinal);
+    return questHeader != null && questHeader.hasLocation() ? questDataCache.get(questHeader)
+        : null;
+  }
+
+  public static Map<ResourceLocation, QuestData> getLoadedQuests() {
+    // Quest data which is already in memory, lazy loaded quests are not decoded for this and
+    // the order of the lazy loading cache is not changed.
+    QuestRegistry.Snapshot snapshot = questRegistry.getSnapshot();
+    Map<ResourceLocation, QuestData> questDataMap = new HashMap<>();
+    if (questDataCache != null) {
+      for (QuestData questData : questDataCache.values()) {
+        questDataMap.put(questData.getId(), questData);
+      }
+    }
+    for (QuestData questData : snapshot.getQuestData()) {
+      questDataMap.put(questData.getId(), questData);
+    }
+    return questDataMap;
+  }
+
+  public static QuestHeader getQuestHeader(int questOrdinal) {
+    return questRegistry.getSnapshot().getQuestIndex().getQuestHeader(questOrdinal);
+  }
+
+  private static QuestData getQuest(QuestRegistry.Snapshot snapshot, ResourceLocation id) {
+    QuestData questData = snapshot.getQuestData(id);
+    if (questData != null || questDataCache == null) {
+      return questData;
+    }
+    QuestHeader questHeader = snapshot.getQuestHeader(id);
+    return questHeader != null && questHeader.hasLocation() ? questDataCache.get(questHeader)
+        : null;
   }
 
   public static boolean hasQuest(String title) {
-    return questDataMap.containsKey(QuestData.getQuestId(title));
+    QuestRegistry.Snapshot snapshot = questRegistry.getSnapshot();
+    return snapshot.getQuestIndex().getQuestId(title) != null
+        || snapshot.contains(QuestData.getQuestId(title));
   }
 
   public static boolean hasQuest(ResourceLocation id) {
-    return questDataMap.containsKey(id);
+    return questRegistry.getSnapshot().contains(id);
   }
 
   public static QuestData createQuest(String title) {
@@ -99,11 +476,11 @@ public class QuestManager {
   }
 
   public static QuestData createQuest(ResourceLocation id, String title, String description) {
-    if (questDataMap.containsKey(id)) {
-      return questDataMap.get(id);
+    if (hasQuest(id)) {
+      return getQuest(id);
     }
     QuestData questData = new QuestData(id, title, description);
-    questDataMap.put(id, questData);
+    addQuest(questData);
     return questData;
   }
 
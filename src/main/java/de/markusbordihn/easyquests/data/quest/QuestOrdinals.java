@@ -0,0 +1,126 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.quest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import net.minecraft.resources.ResourceLocation;
+
+import de.markusbordihn.easyquests.Constants;
+
+/**
+ * Dense int ordinals (quest handles) for quest ids. Ordinals are assigned once per quest id and
+ * never reused, so they could be used as array index or primitive map key for per-player data.
+ * The ids are stored in order, one per line, so that ordinals stay the same after a restart.
+ */
+public class QuestOrdinals {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  public static final int NO_ORDINAL = -1;
+
+  private final Object2IntOpenHashMap<ResourceLocation> ordinals = new Object2IntOpenHashMap<>();
+  private final List<ResourceLocation> ids = new ArrayList<>();
+
+  // Number of ids which are already stored, new ids are appended on save.
+  private int numberOfSavedIds = 0;
+
+  public QuestOrdinals() {
+    this.ordinals.defaultReturnValue(NO_ORDINAL);
+  }
+
+  public synchronized int getOrCreate(ResourceLocation id) {
+    int ordinal = this.ordinals.getInt(id);
+    if (ordinal == NO_ORDINAL) {
+      ordinal = this.ids.size();
+      this.ids.add(id);
+      this.ordinals.put(id, ordinal);
+    }
+    return ordinal;
+  }
+
+  public synchronized int get(ResourceLocation id) {
+    return this.ordinals.getInt(id);
+  }
+
+  public synchronized ResourceLocation getId(int ordinal) {
+    return ordinal >= 0 && ordinal < this.ids.size() ? this.ids.get(ordinal) : null;
+  }
+
+  public synchronized int size() {
+    return this.ids.size();
+  }
+
+  public synchronized void load(Path file) {
+    this.ordinals.clear();
+    this.ids.clear();
+    this.numberOfSavedIds = 0;
+    if (!Files.exists(file)) {
+      return;
+    }
+    try {
+      // Invalid lines still reserve their ordinal, to keep all following ordinals stable.
+      for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+        ResourceLocation id = ResourceLocation.tryParse(line.trim());
+        if (id != null && !this.ordinals.containsKey(id)) {
+          this.ordinals.put(id, this.ids.size());
+        }
+        this.ids.add(id);
+      }
+      this.numberOfSavedIds = this.ids.size();
+      log.info("Loaded {} quest ordinals from {}", this.ids.size(), file);
+    } catch (IOException e) {
+      log.error("Unable to load quest ordinals from {}:", file, e);
+    }
+  }
+
+  public synchronized boolean save(Path file) {
+    if (this.numberOfSavedIds >= this.ids.size()) {
+      return false;
+    }
+    List<String> lines = new ArrayList<>(this.ids.size() - this.numberOfSavedIds);
+    for (int ordinal = this.numberOfSavedIds; ordinal < this.ids.size(); ordinal++) {
+      ResourceLocation id = this.ids.get(ordinal);
+      lines.add(id != null ? id.toString() : "");
+    }
+    try {
+      Files.createDirectories(file.getParent());
+      Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+          StandardOpenOption.APPEND);
+      this.numberOfSavedIds = this.ids.size();
+      return true;
+    } catch (IOException e) {
+      log.error("Unable to save quest ordinals to {}:", file, e);
+      return false;
+    }
+  }
+
+}
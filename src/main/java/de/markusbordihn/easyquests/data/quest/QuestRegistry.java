@@ -0,0 +1,319 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.quest;
+
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Copy-on-write quest registry. Readers on any thread get a consistent, immutable snapshot without
+ * any locking, writers build a new snapshot and publish it with a single volatile write.
+ */
+public class QuestRegistry {
+
+  private final QuestOrdinals questOrdinals = new QuestOrdinals();
+  private Path questOrdinalsFile = null;
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+  public Snapshot getSnapshot() {
+    return this.snapshot;
+  }
+
+  public long getVersion() {
+    return this.snapshot.getVersion();
+  }
+
+  public QuestOrdinals getQuestOrdinals() {
+    return this.questOrdinals;
+  }
+
+  public void add(QuestData questData) {
+    update((questDataMap, questHeaderMap) -> {
+      questDataMap.put(questData.getId(), questData);
+      questHeaderMap.put(questData.getId(), QuestHeader.of(questData));
+    });
+  }
+
+  public void addAll(Collection<QuestData> questDataList) {
+    update((questDataMap, questHeaderMap) -> {
+      for (QuestData questData : questDataList) {
+        questDataMap.put(questData.getId(), questData);
+        questHeaderMap.put(questData.getId(), QuestHeader.of(questData));
+      }
+    });
+  }
+
+  public void addHeaders(Collection<QuestHeader> questHeaderList) {
+    update((questDataMap, questHeaderMap) -> {
+      for (QuestHeader questHeader : questHeaderList) {
+        questHeaderMap.put(questHeader.getId(), questHeader);
+      }
+    });
+  }
+
+  public void refresh(Collection<QuestData> questDataList) {
+    update((questDataMap, questHeaderMap) -> {
+      for (QuestData questData : questDataList) {
+        QuestHeader questHeader = questHeaderMap.get(questData.getId());
+        if (questHeader != null) {
+          // Only the quest data in memory is changed, the stored quest data stays the same.
+          questHeaderMap.put(questData.getId(), QuestHeader.of(questData,
+              questHeader.getLocation(), questHeader.getBundle(), questHeader.getHash()));
+        }
+      }
+    });
+  }
+
+  public void pin(QuestData questData) {
+    update((questDataMap, questHeaderMap) -> {
+      if (questHeaderMap.containsKey(questData.getId())) {
+        questDataMap.putIfAbsent(questData.getId(), questData);
+      }
+    });
+  }
+
+  public void clear() {
+    update((questDataMap, questHeaderMap) -> {
+      questDataMap.clear();
+      questHeaderMap.clear();
+    });
+  }
+
+  public synchronized void loadQuestOrdinals(Path questOrdinalsFile) {
+    // Ordinals of a different world are not valid, so the registry is cleared first.
+    clear();
+    this.questOrdinals.load(questOrdinalsFile);
+    this.questOrdinalsFile = questOrdinalsFile;
+  }
+
+  public boolean saveQuestOrdinals(Path questOrdinalsFile) {
+    return this.questOrdinals.save(questOrdinalsFile);
+  }
+
+  public synchronized void update(
+      BiConsumer<Map<ResourceLocation, QuestData>, Map<ResourceLocation, QuestHeader>> updater) {
+    Snapshot currentSnapshot = this.snapshot;
+    ChangeMap<QuestData> questDataChanges = new ChangeMap<>(currentSnapshot.questDataMap);
+    ChangeMap<QuestHeader> questHeaderChanges = new ChangeMap<>(currentSnapshot.questHeaderMap);
+    updater.accept(questDataChanges, questHeaderChanges);
+
+    // Nothing to publish, readers keep the current snapshot and its indexes.
+    if (!questDataChanges.hasChanges() && !questHeaderChanges.hasChanges()) {
+      return;
+    }
+    Set<ResourceLocation> changedQuestIds = new HashSet<>(questHeaderChanges.getChangedKeys());
+    changedQuestIds.addAll(questDataChanges.getChangedKeys());
+    HashMap<ResourceLocation, QuestData> questDataMap = questDataChanges.toHashMap();
+    HashMap<ResourceLocation, QuestHeader> questHeaderMap = questHeaderChanges.toHashMap();
+
+    // Assign dense ordinals to new quests, ordinals stay the same for removed and re-added quests.
+    int numberOfQuestOrdinals = this.questOrdinals.size();
+    for (ResourceLocation questId : changedQuestIds) {
+      if (questHeaderMap.containsKey(questId)) {
+        this.questOrdinals.getOrCreate(questId);
+      }
+    }
+
+    // New ordinals are appended right away, player progress could refer to them at any time.
+    if (this.questOrdinalsFile != null && this.questOrdinals.size() > numberOfQuestOrdinals) {
+      this.questOrdinals.save(this.questOrdinalsFile);
+    }
+
+    // An already built index is patched for the changed quests instead of being rebuilt.
+    QuestIndex currentQuestIndex = currentSnapshot.questIndex;
+    this.snapshot = new Snapshot(currentSnapshot.getVersion() + 1, questDataMap, questHeaderMap,
+        this.questOrdinals, currentQuestIndex != null
+            ? currentQuestIndex.update(changedQuestIds, questHeaderMap, questDataMap,
+                this.questOrdinals)
+            : null);
+  }
+
+  /**
+   * Map view over the maps of a snapshot, which only records changes. The snapshot maps are
+   * copied only if there is anything to publish.
+   */
+  private static final class ChangeMap<V> extends AbstractMap<ResourceLocation, V> {
+
+    private final Map<ResourceLocation, V> baseMap;
+    private final HashMap<ResourceLocation, V> changedEntries = new HashMap<>();
+    private final Set<ResourceLocation> removedKeys = new HashSet<>();
+    private boolean cleared = false;
+
+    private ChangeMap(Map<ResourceLocation, V> baseMap) {
+      this.baseMap = baseMap;
+    }
+
+    @Override
+    public V get(Object key) {
+      V value = this.changedEntries.get(key);
+      if (value != null) {
+        return value;
+      }
+      return this.cleared || this.removedKeys.contains(key) ? null : this.baseMap.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return get(key) != null;
+    }
+
+    @Override
+    public V put(ResourceLocation key, V value) {
+      V previousValue = get(key);
+      if (!value.equals(previousValue)) {
+        this.removedKeys.remove(key);
+        this.changedEntries.put(key, value);
+      }
+      return previousValue;
+    }
+
+    @Override
+    public V remove(Object key) {
+      V previousValue = get(key);
+      if (previousValue != null && key instanceof ResourceLocation resourceLocation) {
+        this.changedEntries.remove(resourceLocation);
+        this.removedKeys.add(resourceLocation);
+      }
+      return previousValue;
+    }
+
+    @Override
+    public void clear() {
+      this.changedEntries.clear();
+      this.removedKeys.clear();
+      this.cleared = true;
+    }
+
+    @Override
+    public Set<Entry<ResourceLocation, V>> entrySet() {
+      return Collections.unmodifiableMap(toHashMap()).entrySet();
+    }
+
+    private boolean hasChanges() {
+      return !this.changedEntries.isEmpty() || !this.removedKeys.isEmpty()
+          || (this.cleared && !this.baseMap.isEmpty());
+    }
+
+    private Set<ResourceLocation> getChangedKeys() {
+      Set<ResourceLocation> changedKeys = new HashSet<>(this.changedEntries.keySet());
+      changedKeys.addAll(this.removedKeys);
+      if (this.cleared) {
+        changedKeys.addAll(this.baseMap.keySet());
+      }
+      return changedKeys;
+    }
+
+    private HashMap<ResourceLocation, V> toHashMap() {
+      HashMap<ResourceLocation, V> hashMap =
+          this.cleared ? new HashMap<>() : new HashMap<>(this.baseMap);
+      this.removedKeys.forEach(hashMap::remove);
+      hashMap.putAll(this.changedEntries);
+      return hashMap;
+    }
+  }
+
+  public static final class Snapshot {
+
+    public static final Snapshot EMPTY =
+        new Snapshot(0, new HashMap<>(), new HashMap<>(), new QuestOrdinals(), null);
+
+    private final long version;
+
+    // Fully loaded quests, in lazy loading mode only the pinned quests.
+    private final Map<ResourceLocation, QuestData> questDataMap;
+
+    // Lightweight headers of all known quests.
+    private final Map<ResourceLocation, QuestHeader> questHeaderMap;
+
+    // Shared quest ordinals of the registry. Ordinals are only ever appended, so they could
+    // contain newer quests, but the ordinals of the quests in this snapshot never change.
+    private final QuestOrdinals questOrdinals;
+
+    // Secondary indexes, created on first use.
+    private volatile QuestIndex questIndex;
+
+    private Snapshot(long version, HashMap<ResourceLocation, QuestData> questDataMap,
+        HashMap<ResourceLocation, QuestHeader> questHeaderMap, QuestOrdinals questOrdinals,
+        QuestIndex questIndex) {
+      this.version = version;
+      this.questOrdinals = questOrdinals;
+      this.questIndex = questIndex;
+      this.questDataMap = Collections.unmodifiableMap(questDataMap);
+      this.questHeaderMap = Collections.unmodifiableMap(questHeaderMap);
+    }
+
+    public long getVersion() {
+      return this.version;
+    }
+
+    public QuestData getQuestData(ResourceLocation id) {
+      return this.questDataMap.get(id);
+    }
+
+    public QuestHeader getQuestHeader(ResourceLocation id) {
+      return this.questHeaderMap.get(id);
+    }
+
+    public boolean contains(ResourceLocation id) {
+      return this.questHeaderMap.containsKey(id);
+    }
+
+    public boolean isLoaded(ResourceLocation id) {
+      return this.questDataMap.containsKey(id);
+    }
+
+    public Collection<QuestData> getQuestData() {
+      return this.questDataMap.values();
+    }
+
+    public Collection<QuestHeader> getQuestHeaders() {
+      return this.questHeaderMap.values();
+    }
+
+    public QuestIndex getQuestIndex() {
+      QuestIndex index = this.questIndex;
+      if (index == null) {
+        synchronized (this) {
+          index = this.questIndex;
+          if (index == null) {
+            index = new QuestIndex(this.questHeaderMap.values(), this.questDataMap,
+                this.questOrdinals);
+            this.questIndex = index;
+          }
+        }
+      }
+      return index;
+    }
+
+    public int size() {
+      return this.questHeaderMap.size();
+    }
+  }
+
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.quest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.gson.JsonParser;
+
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.PreparableReloadListener;
+import net.minecraft.server.packs.resources.Resource;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.util.profiling.ProfilerFiller;
+
+import net.minecraftforge.event.AddReloadListenerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.network.QuestSyncManager;
+
+/**
+ * Loads quest definitions from data packs under data/&lt;namespace&gt;/easy_quests/quests/.
+ *
+ * All files are listed, read and parsed in parallel on the background executor, only the finished
+ * set of quests is swapped into the quest manager on the server thread.
+ */
+@EventBusSubscriber
+public class QuestReloadListener implements PreparableReloadListener {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  public static final String QUEST_DIRECTORY = Constants.MOD_ID + "/quests";
+  public static final String QUEST_FILE_EXTENSION = ".json";
+
+  @SubscribeEvent
+  public static void handleAddReloadListenerEvent(AddReloadListenerEvent event) {
+    event.addListener(new QuestReloadListener());
+  }
+
+  @Override
+  public CompletableFuture<Void> reload(PreparationBarrier preparationBarrier,
+      ResourceManager resourceManager, ProfilerFiller preparationsProfiler,
+      ProfilerFiller reloadProfiler, Executor backgroundExecutor, Executor gameExecutor) {
+    long startTime = System.nanoTime();
+    return CompletableFuture
+        .supplyAsync(() -> resourceManager.listResources(QUEST_DIRECTORY,
+            fileName -> fileName.endsWith(QUEST_FILE_EXTENSION)), backgroundExecutor)
+        .thenCompose(questFiles -> parseQuestFiles(resourceManager, questFiles,
+            backgroundExecutor))
+        .thenCompose(preparationBarrier::wait).thenAcceptAsync(questDataMap -> {
+          QuestManager.setDatapackQuests(questDataMap);
+          QuestSyncManager.resync();
+          log.info("Loaded {} quests from data packs in {} ms.", questDataMap.size(),
+              TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        }, gameExecutor);
+  }
+
+  private static CompletableFuture<Map<ResourceLocation, QuestData>> parseQuestFiles(
+      ResourceManager resourceManager, Collection<ResourceLocation> questFiles,
+      Executor backgroundExecutor) {
+    List<CompletableFuture<QuestData>> parseTasks = new ArrayList<>(questFiles.size());
+    for (ResourceLocation questFile : questFiles) {
+      parseTasks.add(CompletableFuture
+          .supplyAsync(() -> parseQuestFile(resourceManager, questFile), backgroundExecutor));
+    }
+    return CompletableFuture.allOf(parseTasks.toArray(new CompletableFuture[0])).thenApply(v -> {
+      Map<ResourceLocation, QuestData> questDataMap = new HashMap<>(parseTasks.size());
+      for (CompletableFuture<QuestData> parseTask : parseTasks) {
+        QuestData questData = parseTask.join();
+        if (questData != null) {
+          questDataMap.put(questData.getId(), questData);
+        }
+      }
+      return questDataMap;
+    });
+  }
+
+  private static QuestData parseQuestFile(ResourceManager resourceManager,
+      ResourceLocation questFile) {
+    // data/<namespace>/easy_quests/quests/<path>.json is mapped to the quest id <namespace>:<path>
+    String path = questFile.getPath();
+    ResourceLocation questId = new ResourceLocation(questFile.getNamespace(), path
+        .substring(QUEST_DIRECTORY.length() + 1, path.length() - QUEST_FILE_EXTENSION.length()));
+    try (Resource resource = resourceManager.getResource(questFile);
+        Reader reader = new BufferedReader(
+            new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+      return QuestDataJson.parse(questId, JsonParser.parseReader(reader));
+    } catch (IOException | RuntimeException e) {
+      log.error("Error while loading quest {} from data pack file {}:", questId, questFile, e);
+    }
+    return null;
+  }
+
+}
@@ -0,0 +1,378 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.quest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import net.minecraft.Util;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.data.storage.QuestStorageManager;
+import de.markusbordihn.easyquests.data.storage.QuestStorageType;
+import de.markusbordihn.easyquests.network.QuestSyncManager;
+
+/**
+ * Re-reads the quest data folder in the background and publishes only the differences.
+ *
+ * Files with the same modification time and size as on startup, their last save or the last
+ * reload are not read at all, read files with the same content hash are not decoded.
+ */
+@EventBusSubscriber
+public class QuestReloader {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+  // File states of the loaded, saved and reloaded quest files.
+  private static final Map<Path, QuestFileState> questFileStates = new ConcurrentHashMap<>();
+
+  private static final AtomicBoolean reloading = new AtomicBoolean(false);
+
+  protected QuestReloader() {}
+
+  @SubscribeEvent
+  public static void handleServerStoppedEvent(ServerStoppedEvent event) {
+    questFileStates.clear();
+  }
+
+  public static void setQuestFiles(List<Path> questFiles) {
+    // Files of the startup loading, only their attributes are read and no content hash.
+    Map<Path, QuestFileState> newQuestFileStates = new HashMap<>();
+    List<Path> questDataFiles = new ArrayList<>();
+    for (Path questFile : questFiles) {
+      List<ResourceLocation> questIds;
+      if (QuestDataLoader.isQuestBundleFile(questFile)) {
+        QuestBundle questBundle = QuestDataLoader.openQuestBundle(questFile);
+        questIds = questBundle != null ? List.copyOf(questBundle.getQuestIds()) : null;
+      } else {
+        questDataFiles.add(questFile);
+        ResourceLocation questId = QuestDataManager.getQuestId(questFile);
+        questIds = questId != null ? List.of(questId) : null;
+      }
+      QuestFileState questFileState = questIds != null ? getQuestFileState(questFile, questIds)
+          : null;
+      if (questFileState != null) {
+        newQuestFileStates.put(questFile, questFileState);
+      }
+    }
+    questFileStates.clear();
+    questFileStates.putAll(newQuestFileStates);
+    QuestDataManager.setKnownQuestDataFiles(questDataFiles);
+  }
+
+  public static void updateQuestFile(Path questDataFile, ResourceLocation questId) {
+    // Files which are written by the mod itself are not read again by the next reload.
+    QuestFileState questFileState = getQuestFileState(questDataFile, List.of(questId));
+    if (questFileState != null) {
+      questFileStates.put(questDataFile, questFileState);
+    }
+  }
+
+  public static boolean isUnchangedQuestFile(Path questFile) {
+    // Same modification time and size as on startup, the last save or the last reload.
+    QuestFileState questFileState = questFileStates.get(questFile);
+    if (questFileState == null) {
+      return false;
+    }
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(questFile, BasicFileAttributes.class);
+      return questFileState.lastModified() == attributes.lastModifiedTime().toMillis()
+          && questFileState.size() == attributes.size();
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private static QuestFileState getQuestFileState(Path questFile,
+      List<ResourceLocation> questIds) {
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(questFile, BasicFileAttributes.class);
+      return new QuestFileState(attributes.lastModifiedTime().toMillis(), attributes.size(), 0,
+          false, questIds);
+    } catch (IOException e) {
+      log.warn("Unable to read attributes of quest file {}: {}", questFile, e.getMessage());
+    }
+    return null;
+  }
+
+  public static boolean isReloading() {
+    return reloading.get();
+  }
+
+  public static CompletableFuture<ReloadResult> reload(MinecraftServer server) {
+    if (QuestStorageManager.getQuestStorageType() != QuestStorageType.FILE) {
+      return CompletableFuture.failedFuture(
+          new IllegalStateException("Reload is only supported for the FILE quest storage"));
+    }
+    if (!reloading.compareAndSet(false, true)) {
+      return CompletableFuture.failedFuture(new IllegalStateException("Reload already running"));
+    }
+    return CompletableFuture
+        .supplyAsync(() -> prepare(QuestDataManager.getQuestDataFolder()),
+            Util.backgroundExecutor())
+        .thenApplyAsync(QuestReloader::apply, server)
+        .whenComplete((reloadResult, throwable) -> reloading.set(false));
+  }
+
+  private static PreparedReload prepare(Path questDataFolder) {
+    // Phase 1: Scan the quest data folder.
+    long scanStartTime = System.nanoTime();
+    List<Path> questFiles = QuestDataLoader.scanQuestDataFolder(questDataFolder);
+    long scanTime = System.nanoTime() - scanStartTime;
+
+    // Phase 2: Detect changed files and decode them, bundles first so that files override them.
+    long detectStartTime = System.nanoTime();
+    List<Callable<QuestFileResult>> detectTasks = new ArrayList<>(questFiles.size());
+    for (Path questFile : questFiles) {
+      if (QuestDataLoader.isQuestBundleFile(questFile)) {
+        detectTasks.add(() -> detect(questFile));
+      }
+    }
+    for (Path questFile : questFiles) {
+      if (QuestDataLoader.isQuestDataFile(questFile)) {
+        detectTasks.add(() -> detect(questFile));
+      }
+    }
+    List<QuestFileResult> questFileResults = QuestDataLoader.decode(detectTasks);
+    long detectTime = System.nanoTime() - detectStartTime;
+
+    return new PreparedReload(questFiles, questFileResults, scanTime, detectTime);
+  }
+
+  private static QuestFileResult detect(Path questFile) {
+    QuestFileState questFileState = questFileStates.get(questFile);
+    long lastModified;
+    long size;
+    byte[] data;
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(questFile, BasicFileAttributes.class);
+      lastModified = attributes.lastModifiedTime().toMillis();
+      size = attributes.size();
+      if (questFileState != null && questFileState.lastModified() == lastModified
+          && questFileState.size() == size) {
+        return new QuestFileResult(questFile, questFileState, null, null, false);
+      }
+      data = Files.readAllBytes(questFile);
+    } catch (IOException e) {
+      log.error("Error while reading quest file: {}", questFile, e);
+      return new QuestFileResult(questFile, getBrokenQuestFileState(questFile, questFileState),
+          null, null, true);
+    }
+
+    long hash = HASH_FUNCTION.hashBytes(data).asLong();
+    if (questFileState != null && questFileState.hashed() && questFileState.hash() == hash) {
+      return new QuestFileResult(questFile,
+          new QuestFileState(lastModified, size, hash, true, questFileState.questIds()), null,
+          null, true);
+    }
+
+    List<QuestData> questDataList = new ArrayList<>();
+    QuestBundle questBundle = null;
+    if (QuestDataLoader.isQuestBundleFile(questFile)) {
+      questBundle = QuestDataLoader.openQuestBundle(questFile);
+      if (questBundle != null) {
+        for (ResourceLocation questId : questBundle.getQuestIds()) {
+          QuestData questData = QuestDataLoader.decodeQuestData(questBundle, questId);
+          if (questData != null) {
+            questDataList.add(questData);
+          }
+        }
+      }
+    } else {
+      QuestData questData = QuestDataLoader.decodeQuestData(questFile, data);
+      if (questData != null) {
+        questDataList.add(questData);
+      }
+    }
+    if (questDataList.isEmpty()) {
+      return new QuestFileResult(questFile, getBrokenQuestFileState(questFile, questFileState),
+          null, null, true);
+    }
+    List<ResourceLocation> questIds = new ArrayList<>(questDataList.size());
+    List<QuestHeader> questHeaders = new ArrayList<>(questDataList.size());
+    for (QuestData questData : questDataList) {
+      questIds.add(questData.getId());
+      questHeaders.add(QuestHeader.ofStored(questData, questFile, questBundle));
+    }
+    return new QuestFileResult(questFile,
+        new QuestFileState(lastModified, size, hash, true, questIds), questDataList, questHeaders,
+        true);
+  }
+
+  private static ReloadResult apply(PreparedReload preparedReload) {
+    // Phase 3: Compare the decoded quests with the current quests and publish the differences.
+    long applyStartTime = System.nanoTime();
+    QuestRegistry.Snapshot snapshot = QuestManager.getSnapshot();
+    Map<ResourceLocation, QuestData> loadedQuests = QuestManager.getLoadedQuests();
+    Set<ResourceLocation> datapackQuestIds = QuestManager.getDatapackQuests().keySet();
+    Map<ResourceLocation, QuestData> decodedQuests = new LinkedHashMap<>();
+    Map<ResourceLocation, QuestHeader> storedQuestHeaders = new HashMap<>();
+    Set<ResourceLocation> questIds = new HashSet<>();
+    Map<Path, QuestFileState> newQuestFileStates = new ConcurrentHashMap<>();
+    int numberOfReadFiles = 0;
+    for (QuestFileResult questFileResult : preparedReload.questFileResults()) {
+      if (questFileResult.read()) {
+        numberOfReadFiles++;
+      }
+      if (questFileResult.questFileState() != null) {
+        newQuestFileStates.put(questFileResult.file(), questFileResult.questFileState());
+        questIds.addAll(questFileResult.questFileState().questIds());
+      }
+      if (questFileResult.questDataList() != null) {
+        for (QuestData questData : questFileResult.questDataList()) {
+          decodedQuests.put(questData.getId(), questData);
+        }
+        for (QuestHeader questHeader : questFileResult.questHeaders()) {
+          storedQuestHeaders.put(questHeader.getId(), questHeader);
+        }
+      }
+    }
+
+    int numberOfAddedQuests = 0;
+    int numberOfChangedQuests = 0;
+    int numberOfUnchangedQuests = 0;
+    int numberOfSkippedQuests = 0;
+    List<QuestData> changedQuests = new ArrayList<>();
+    for (QuestData questData : decodedQuests.values()) {
+      // Lazy loaded quests are only compared if they are already in memory, the other ones were
+      // changed since they were loaded, saved or reloaded, because their file was decoded again.
+      ResourceLocation questId = questData.getId();
+      QuestData existingQuestData = loadedQuests.get(questId);
+      if (datapackQuestIds.contains(questId) || hasUnsavedChanges(existingQuestData)) {
+        numberOfSkippedQuests++;
+      } else if (snapshot.getQuestHeader(questId) == null) {
+        numberOfAddedQuests++;
+        changedQuests.add(questData);
+      } else if (existingQuestData != null
+          && existingQuestData.save(new CompoundTag()).equals(questData.save(new CompoundTag()))) {
+        numberOfUnchangedQuests++;
+      } else {
+        numberOfChangedQuests++;
+        changedQuests.add(questData);
+      }
+    }
+    for (ResourceLocation questId : questIds) {
+      if (!decodedQuests.containsKey(questId) && snapshot.getQuestHeader(questId) != null) {
+        numberOfUnchangedQuests++;
+      }
+    }
+
+    // Quests without a file are removed, unless they are from a data pack or not saved yet.
+    List<ResourceLocation> removedQuestIds = new ArrayList<>();
+    for (QuestHeader questHeader : snapshot.getQuestHeaders()) {
+      ResourceLocation questId = questHeader.getId();
+      if (!questIds.contains(questId) && !datapackQuestIds.contains(questId)
+          && !hasUnsavedChanges(loadedQuests.get(questId))
+          && QuestDataSaver.getPendingSave(questId) == null) {
+        removedQuestIds.add(questId);
+      }
+    }
+
+    if (!changedQuests.isEmpty() || !removedQuestIds.isEmpty()) {
+      QuestManager.replaceStoredQuests(changedQuests, storedQuestHeaders, removedQuestIds);
+      QuestSyncManager.resync();
+    }
+    QuestDataManager.setKnownQuestDataFiles(preparedReload.questFiles().stream()
+        .filter(QuestDataLoader::isQuestDataFile).toList());
+    questFileStates.clear();
+    questFileStates.putAll(newQuestFileStates);
+    long applyTime = System.nanoTime() - applyStartTime;
+
+    ReloadResult reloadResult = new ReloadResult(numberOfAddedQuests, numberOfChangedQuests,
+        removedQuestIds.size(), numberOfUnchangedQuests, numberOfSkippedQuests,
+        preparedReload.questFiles().size(), numberOfReadFiles,
+        TimeUnit.NANOSECONDS.toMillis(preparedReload.scanTime()),
+        TimeUnit.NANOSECONDS.toMillis(preparedReload.detectTime()),
+        TimeUnit.NANOSECONDS.toMillis(applyTime));
+    log.info("Reloaded quests: {}", reloadResult);
+    return reloadResult;
+  }
+
+  private static QuestFileState getBrokenQuestFileState(Path questFile,
+      QuestFileState questFileState) {
+    // Broken files keep their last known quests instead of removing them and are read again.
+    List<ResourceLocation> questIds = List.of();
+    if (questFileState != null) {
+      questIds = questFileState.questIds();
+    } else if (QuestDataManager.getQuestId(questFile) != null) {
+      questIds = List.of(QuestDataManager.getQuestId(questFile));
+    }
+    return new QuestFileState(-1, -1, 0, false, questIds);
+  }
+
+  private static boolean hasUnsavedChanges(QuestData questData) {
+    return questData != null
+        && (questData.isDirty() || QuestDataSaver.getPendingSave(questData.getId()) != null);
+  }
+
+  private record QuestFileState(long lastModified, long size, long hash, boolean hashed,
+      List<ResourceLocation> questIds) {
+  }
+
+  private record QuestFileResult(Path file, QuestFileState questFileState,
+      List<QuestData> questDataList, List<QuestHeader> questHeaders, boolean read) {
+  }
+
+  private record PreparedReload(List<Path> questFiles, List<QuestFileResult> questFileResults,
+      long scanTime, long detectTime) {
+  }
+
+  public record ReloadResult(int added, int changed, int removed, int unchanged, int skipped,
+      int files, int readFiles, long scanTime, long detectTime, long applyTime) {
+
+    @Override
+    public String toString() {
+      return added + " added, " + changed + " changed, " + removed + " removed, " + unchanged
+          + " unchanged" + (skipped > 0 ? ", " + skipped + " skipped" : "") + " (scan "
+          + scanTime + " ms, " + readFiles + " of " + files + " files read in " + detectTime
+          + " ms, apply " + applyTime + " ms)";
+    }
+  }
+
+}
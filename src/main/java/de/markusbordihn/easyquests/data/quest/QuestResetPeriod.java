@@ -0,0 +1,100 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.quest;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+
+public enum QuestResetPeriod {
+
+  // @formatter:off
+  NONE,
+  DAILY,
+  WEEKLY,
+  MONTHLY,
+  YEARLY;
+  // @formatter:on
+
+  public static QuestResetPeriod get(QuestType questType) {
+    if (questType == null) {
+      return NONE;
+    }
+    switch (questType) {
+      case DAILY_QUEST:
+      case REPEATABLE_DAILY_QUEST:
+        return DAILY;
+      case WEEKLY_QUEST:
+      case REPEATABLE_WEEKLY_QUEST:
+        return WEEKLY;
+      case MONTHLY_QUEST:
+      case REPEATABLE_MONTHLY_QUEST:
+        return MONTHLY;
+      case YEARLY_QUEST:
+      case REPEATABLE_YEARLY_QUEST:
+        return YEARLY;
+      default:
+        return NONE;
+    }
+  }
+
+  public long getLastReset(long time, ZoneId zoneId) {
+    LocalDate date = Instant.ofEpochMilli(time).atZone(zoneId).toLocalDate();
+    switch (this) {
+      case DAILY:
+        break;
+      case WEEKLY:
+        date = date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        break;
+      case MONTHLY:
+        date = date.withDayOfMonth(1);
+        break;
+      case YEARLY:
+        date = date.withDayOfYear(1);
+        break;
+      default:
+        return Long.MIN_VALUE;
+    }
+    return date.atStartOfDay(zoneId).toInstant().toEpochMilli();
+  }
+
+  public long getNextReset(long time, ZoneId zoneId) {
+    LocalDate date = Instant.ofEpochMilli(getLastReset(time, zoneId)).atZone(zoneId).toLocalDate();
+    switch (this) {
+      case DAILY:
+        date = date.plusDays(1);
+        break;
+      case WEEKLY:
+        date = date.plusWeeks(1);
+        break;
+      case MONTHLY:
+        date = date.plusMonths(1);
+        break;
+      case YEARLY:
+        date = date.plusYears(1);
+        break;
+      default:
+        return Long.MAX_VALUE;
+    }
+    return date.atStartOfDay(zoneId).toInstant().toEpochMilli();
+  }
+}
@@ -36,6 +36,10 @@ public enum QuestType {
   REPEATABLE_YEARLY_QUEST;
   // @formatter:on
 
+  public QuestResetPeriod getResetPeriod() {
+    return QuestResetPeriod.get(this);
+  }
+
   public static QuestType get(String questType) {
     if (questType == null || questType.isEmpty()) {
       return QuestType.CUSTOM;
@@ -19,26 +19,54 @@
 
 package de.markusbordihn.easyquests.data.reward;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import net.minecraft.commands.CommandFunction;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.level.storage.loot.LootTable;
 
 public class RewardData {
 
   public static final RewardData EMPTY = new RewardData(RewardType.CUSTOM);
 
+  // Data Tags
+  public static final String DATA_EXPERIENCE_TAG = "Experience";
+  public static final String DATA_FUNCTION_TAG = "Function";
+  public static final String DATA_LOOT_TAG = "Loot";
+  public static final String DATA_RECIPES_TAG = "Recipes";
+  public static final String DATA_TYPE_TAG = "Type";
+
   private RewardType rewardType;
   private final int experience;
   private final ResourceLocation[] loot;
   private final ResourceLocation[] recipes;
   private final CommandFunction.CacheableFunction function;
 
+  // Loot tables, recipes and function resolved for the current server resources.
+  private int resolvedGeneration = -1;
+  private LootTable[] resolvedLoot = new LootTable[0];
+  private List<Recipe<?>> resolvedRecipes = List.of();
+  private CommandFunction resolvedFunction = null;
+
   public RewardData(RewardType rewardType) {
+    this(rewardType, 0, new ResourceLocation[0], new ResourceLocation[0], null);
+  }
+
+  public RewardData(RewardType rewardType, int experience, ResourceLocation[] loot,
+      ResourceLocation[] recipes, ResourceLocation function) {
     this.rewardType = rewardType;
-    this.experience = 0;
-    this.loot = new ResourceLocation[0];
-    this.recipes = new ResourceLocation[0];
-    this.function = null;
+    this.experience = experience;
+    this.loot = loot;
+    this.recipes = recipes;
+    this.function = function != null ? new CommandFunction.CacheableFunction(function) : null;
   }
 
   public RewardType getType() {
@@ -49,9 +77,103 @@ public class RewardData {
     this.rewardType = rewardType;
   }
 
+  public int getExperience() {
+    return this.experience;
+  }
+
+  public ResourceLocation[] getLoot() {
+    return this.loot;
+  }
+
+  public ResourceLocation[] getRecipes() {
+    return this.recipes;
+  }
+
+  public ResourceLocation getFunction() {
+    return this.function != null ? this.function.getId() : null;
+  }
+
+  public synchronized void resolve(MinecraftServer server, int generation) {
+    if (this.resolvedGeneration == generation) {
+      return;
+    }
+    LootTable[] lootTables = new LootTable[this.loot.length];
+    for (int i = 0; i < this.loot.length; i++) {
+      lootTables[i] = server.getLootTables().get(this.loot[i]);
+    }
+    List<Recipe<?>> recipeList = new ArrayList<>(this.recipes.length);
+    for (ResourceLocation recipe : this.recipes) {
+      server.getRecipeManager().byKey(recipe).ifPresent(recipeList::add);
+    }
+    this.resolvedLoot = lootTables;
+    this.resolvedRecipes = List.copyOf(recipeList);
+    this.resolvedFunction = this.function != null
+        ? server.getFunctions().get(this.function.getId()).orElse(null)
+        : null;
+    this.resolvedGeneration = generation;
+  }
+
+  public LootTable[] getResolvedLoot() {
+    return this.resolvedLoot;
+  }
+
+  public List<Recipe<?>> getResolvedRecipes() {
+    return this.resolvedRecipes;
+  }
+
+  public CommandFunction getResolvedFunction() {
+    return this.resolvedFunction;
+  }
+
   public static RewardData load(CompoundTag compoundTag) {
-    return null;
+    String function = compoundTag.getString(DATA_FUNCTION_TAG);
+    return new RewardData(RewardType.get(compoundTag.getString(DATA_TYPE_TAG)),
+        compoundTag.getInt(DATA_EXPERIENCE_TAG),
+        loadResourceLocations(compoundTag.getList(DATA_LOOT_TAG, Tag.TAG_STRING)),
+        loadResourceLocations(compoundTag.getList(DATA_RECIPES_TAG, Tag.TAG_STRING)),
+        function.isEmpty() ? null : ResourceLocation.tryParse(function));
   }
 
-  public void save(CompoundTag compoundTag) {}
+  public CompoundTag save(CompoundTag compoundTag) {
+    compoundTag.putString(DATA_TYPE_TAG, this.rewardType.name());
+    if (this.experience > 0) {
+      compoundTag.putInt(DATA_EXPERIENCE_TAG, this.experience);
+    }
+    if (this.loot.length > 0) {
+      compoundTag.put(DATA_LOOT_TAG, saveResourceLocations(this.loot));
+    }
+    if (this.recipes.length > 0) {
+      compoundTag.put(DATA_RECIPES_TAG, saveResourceLocations(this.recipes));
+    }
+    if (this.function != null && this.function.getId() != null) {
+      compoundTag.putString(DATA_FUNCTION_TAG, this.function.getId().toString());
+    }
+    return compoundTag;
+  }
+
+  private static ResourceLocation[] loadResourceLocations(ListTag listTag) {
+    List<ResourceLocation> resourceLocations = new ArrayList<>(listTag.size());
+    for (int i = 0; i < listTag.size(); i++) {
+      ResourceLocation resourceLocation = ResourceLocation.tryParse(listTag.getString(i));
+      if (resourceLocation != null) {
+        resourceLocations.add(resourceLocation);
+      }
+    }
+    return resourceLocations.toArray(new ResourceLocation[0]);
+  }
+
+  private static ListTag saveResourceLocations(ResourceLocation[] resourceLocations) {
+    ListTag listTag = new ListTag();
+    for (ResourceLocation resourceLocation : resourceLocations) {
+      listTag.add(StringTag.valueOf(resourceLocation.toString()));
+    }
+    return listTag;
+  }
+
+  @Override
+  public String toString() {
+    return "RewardData [type=" + this.rewardType + ", experience=" + this.experience + ", loot="
+        + Arrays.toString(this.loot) + ", recipes=" + Arrays.toString(this.recipes)
+        + ", function=" + getFunction() + "]";
+  }
 }
@@ -0,0 +1,181 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.reward;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.storage.loot.LootContext;
+import net.minecraft.world.level.storage.loot.LootTable;
+import net.minecraft.world.level.storage.loot.parameters.LootContextParamSets;
+import net.minecraft.world.level.storage.loot.parameters.LootContextParams;
+
+import net.minecraftforge.event.OnDatapackSyncEvent;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.config.CommonConfig;
+import de.markusbordihn.easyquests.data.player.PlayerQuestProgress;
+import de.markusbordihn.easyquests.data.player.PlayerQuestProgressManager;
+import de.markusbordihn.easyquests.data.quest.QuestData;
+import de.markusbordihn.easyquests.data.quest.QuestManager;
+import de.markusbordihn.easyquests.data.quest.QuestStatus;
+
+@EventBusSubscriber
+public class RewardManager {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  // Rewards of completed quests, which are granted in batches on the server tick.
+  private static final Deque<PendingReward> pendingRewards = new ArrayDeque<>();
+
+  // Increased on every reload of the server resources, to resolve the rewards again.
+  private static int resourceGeneration = 0;
+
+  protected RewardManager() {}
+
+  @SubscribeEvent
+  public static void handleServerStartedEvent(ServerStartedEvent event) {
+    resourceGeneration++;
+  }
+
+  @SubscribeEvent
+  public static void handleDatapackSyncEvent(OnDatapackSyncEvent event) {
+    // A missing player means that the data packs were reloaded for all players.
+    if (event.getPlayer() == null) {
+      resourceGeneration++;
+    }
+  }
+
+  @SubscribeEvent
+  public static void handleServerStoppedEvent(ServerStoppedEvent event) {
+    pendingRewards.clear();
+  }
+
+  @SubscribeEvent
+  public static void handlePlayerLoggedInEvent(PlayerEvent.PlayerLoggedInEvent event) {
+    // Rewards which were not granted before the last logout are queued again.
+    PlayerQuestProgress playerQuestProgress =
+        PlayerQuestProgressManager.getPlayerQuestProgress(event.getPlayer());
+    if (playerQuestProgress == null) {
+      return;
+    }
+    for (int questOrdinal : playerQuestProgress.getTrackedQuests()) {
+      if (playerQuestProgress.hasStatus(questOrdinal, QuestStatus.COMPLETED)) {
+        queueRewards(playerQuestProgress.getPlayerId(), questOrdinal);
+      }
+    }
+  }
+
+  @SubscribeEvent
+  public static void handleServerTickEvent(TickEvent.ServerTickEvent event) {
+    if (event.phase != TickEvent.Phase.END || pendingRewards.isEmpty()) {
+      return;
+    }
+    MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+    if (server == null) {
+      return;
+    }
+
+    // Grant only a limited number of rewards per tick, the rest is granted on the next ticks.
+    int budget = CommonConfig.COMMON.rewardGrantsPerTick.get();
+    while (budget-- > 0 && !pendingRewards.isEmpty()) {
+      PendingReward pendingReward = pendingRewards.poll();
+      ServerPlayer player = server.getPlayerList().getPlayer(pendingReward.playerId());
+      PlayerQuestProgress playerQuestProgress =
+          PlayerQuestProgressManager.getPlayerQuestProgress(pendingReward.playerId());
+      if (player == null || playerQuestProgress == null || !playerQuestProgress
+          .hasStatus(pendingReward.questOrdinal(), QuestStatus.COMPLETED)) {
+        continue;
+      }
+      for (RewardData rewardData : pendingReward.rewards()) {
+        grantReward(server, player, rewardData);
+      }
+      playerQuestProgress.setStatus(pendingReward.questOrdinal(), QuestStatus.REWARDED);
+    }
+  }
+
+  public static void queueRewards(UUID playerId, int questOrdinal) {
+    QuestData questData = QuestManager.getQuest(questOrdinal);
+    if (questData == null) {
+      return;
+    }
+    List<RewardData> rewards = questData.getRewards();
+    pendingRewards.add(new PendingReward(playerId, questOrdinal,
+        rewards != null ? List.copyOf(rewards) : List.of()));
+  }
+
+  public static int getNumberOfPendingRewards() {
+    return pendingRewards.size();
+  }
+
+  public static void grantReward(MinecraftServer server, ServerPlayer player,
+      RewardData rewardData) {
+    // Loot tables, recipes and functions are only looked up once per resource reload.
+    rewardData.resolve(server, resourceGeneration);
+
+    if (rewardData.getExperience() > 0) {
+      player.giveExperiencePoints(rewardData.getExperience());
+    }
+
+    LootTable[] lootTables = rewardData.getResolvedLoot();
+    if (lootTables.length > 0) {
+      LootContext lootContext = new LootContext.Builder(player.getLevel())
+          .withParameter(LootContextParams.THIS_ENTITY, player)
+          .withParameter(LootContextParams.ORIGIN, player.position())
+          .withRandom(player.getRandom()).create(LootContextParamSets.ADVANCEMENT_REWARD);
+      for (LootTable lootTable : lootTables) {
+        for (ItemStack itemStack : lootTable.getRandomItems(lootContext)) {
+          if (!player.addItem(itemStack)) {
+            player.drop(itemStack, false);
+          }
+        }
+      }
+      player.containerMenu.broadcastChanges();
+    }
+
+    if (!rewardData.getResolvedRecipes().isEmpty()) {
+      player.awardRecipes(rewardData.getResolvedRecipes());
+    }
+
+    if (rewardData.getResolvedFunction() != null) {
+      server.getFunctions().execute(rewardData.getResolvedFunction(),
+          player.createCommandSourceStack().withSuppressedOutput().withPermission(2));
+    }
+  }
+
+  private record PendingReward(UUID playerId, int questOrdinal, List<RewardData> rewards) {
+  }
+
+}
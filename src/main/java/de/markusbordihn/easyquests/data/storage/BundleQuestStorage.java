@@ -0,0 +1,215 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.data.quest.QuestBundle;
+import de.markusbordihn.easyquests.data.quest.QuestData;
+import de.markusbordihn.easyquests.data.quest.QuestDataLoader;
+import de.markusbordihn.easyquests.metrics.QuestMetrics;
+
+/**
+ * One quest bundle per namespace. Saves rewrite the affected bundles, so this storage is meant for
+ * large quest sets which are mostly read.
+ */
+public class BundleQuestStorage implements QuestStorage {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  private final Path questDataFolder;
+  private final Map<String, QuestBundle> questBundles = new HashMap<>();
+
+  public BundleQuestStorage(Path questDataFolder) {
+    this.questDataFolder = questDataFolder;
+  }
+
+  @Override
+  public QuestStorageType getType() {
+    return QuestStorageType.BUNDLE;
+  }
+
+  @Override
+  public synchronized void open() throws IOException {
+    Files.createDirectories(this.questDataFolder);
+    this.questBundles.clear();
+    try (Stream<Path> files = Files.list(this.questDataFolder)) {
+      for (Path file : QuestBundle
+          .getLatestGenerations(files.filter(QuestDataLoader::isQuestBundleFile).toList())) {
+        QuestBundle.deleteOldGenerations(file);
+        QuestBundle questBundle = QuestDataLoader.openQuestBundle(file);
+        if (questBundle != null) {
+          this.questBundles.put(QuestBundle.getNamespace(file), questBundle);
+        }
+      }
+    }
+  }
+
+  @Override
+  public List<QuestData> loadAll() {
+    List<Callable<QuestData>> decodeTasks = new ArrayList<>();
+    for (QuestBundle questBundle : getQuestBundles()) {
+      for (ResourceLocation questId : questBundle.getQuestIds()) {
+        decodeTasks.add(() -> QuestDataLoader.decodeQuestData(questBundle, questId));
+      }
+    }
+    return QuestDataLoader.decode(decodeTasks);
+  }
+
+  @Override
+  public QuestData load(ResourceLocation questId) {
+    QuestBundle questBundle = getQuestBundle(questId.getNamespace());
+    return questBundle != null && questBundle.contains(questId)
+        ? QuestDataLoader.decodeQuestData(questBundle, questId)
+        : null;
+  }
+
+  @Override
+  public Stream<QuestData> stream() {
+    return getQuestBundles().stream()
+        .flatMap(questBundle -> questBundle.getQuestIds().stream()
+            .map(questId -> QuestDataLoader.decodeQuestData(questBundle, questId)))
+        .filter(questData -> questData != null);
+  }
+
+  @Override
+  public Stream<QuestData> stream(String namespace) {
+    QuestBundle questBundle = getQuestBundle(namespace);
+    return questBundle == null ? Stream.empty()
+        : questBundle.getQuestIds().stream()
+            .map(questId -> QuestDataLoader.decodeQuestData(questBundle, questId))
+            .filter(questData -> questData != null);
+  }
+
+  @Override
+  public synchronized int saveAll(Map<ResourceLocation, CompoundTag> questDataTags) {
+    Map<String, Map<ResourceLocation, CompoundTag>> questDataTagsByNamespace =
+        new LinkedHashMap<>();
+    for (Map.Entry<ResourceLocation, CompoundTag> entry : questDataTags.entrySet()) {
+      questDataTagsByNamespace
+          .computeIfAbsent(entry.getKey().getNamespace(), namespace -> new LinkedHashMap<>())
+          .put(entry.getKey(), entry.getValue());
+    }
+    int numberOfSavedQuests = 0;
+    for (Map.Entry<String, Map<ResourceLocation, CompoundTag>> entry : questDataTagsByNamespace
+        .entrySet()) {
+      if (writeQuestBundle(entry.getKey(), entry.getValue(), Set.of())) {
+        numberOfSavedQuests += entry.getValue().size();
+      }
+    }
+    return numberOfSavedQuests;
+  }
+
+  @Override
+  public synchronized int delete(Collection<ResourceLocation> questIds) {
+    Map<String, Set<ResourceLocation>> questIdsByNamespace = new LinkedHashMap<>();
+    for (ResourceLocation questId : questIds) {
+      QuestBundle questBundle = this.questBundles.get(questId.getNamespace());
+      if (questBundle != null && questBundle.contains(questId)) {
+        questIdsByNamespace.computeIfAbsent(questId.getNamespace(), namespace -> new HashSet<>())
+            .add(questId);
+      }
+    }
+    int numberOfDeletedQuests = 0;
+    for (Map.Entry<String, Set<ResourceLocation>> entry : questIdsByNamespace.entrySet()) {
+      if (writeQuestBundle(entry.getKey(), Map.of(), entry.getValue())) {
+        numberOfDeletedQuests += entry.getValue().size();
+      }
+    }
+    return numberOfDeletedQuests;
+  }
+
+  private boolean writeQuestBundle(String namespace,
+      Map<ResourceLocation, CompoundTag> questDataTags, Set<ResourceLocation> deletedQuestIds) {
+    long startTime = System.nanoTime();
+    Path questBundleFile = QuestBundle.getNextBundleFile(this.questDataFolder, namespace);
+    QuestBundle existingQuestBundle = this.questBundles.get(namespace);
+    try (QuestBundle.Writer questBundleWriter = QuestBundle.create(questBundleFile)) {
+      for (Map.Entry<ResourceLocation, CompoundTag> entry : questDataTags.entrySet()) {
+        questBundleWriter.add(entry.getKey(), entry.getValue());
+      }
+
+      // Unchanged quests are copied as they are, without decoding them.
+      if (existingQuestBundle != null) {
+        for (ResourceLocation questId : existingQuestBundle.getQuestIds()) {
+          if (!questBundleWriter.contains(questId) && !deletedQuestIds.contains(questId)) {
+            questBundleWriter.add(questId, existingQuestBundle.getCompressedData(questId));
+          }
+        }
+      }
+      questBundleWriter.finish();
+      QuestMetrics.BYTES_WRITTEN.add(Files.size(questBundleFile));
+    } catch (IOException | RuntimeException e) {
+      QuestMetrics.QUEST_SAVE_ERRORS.increment();
+      log.error("Error while writing quest bundle: {}", questBundleFile, e);
+      return false;
+    }
+    QuestMetrics.QUEST_SAVES.recordSince(startTime);
+
+    QuestBundle questBundle = QuestDataLoader.openQuestBundle(questBundleFile);
+    if (questBundle != null) {
+      this.questBundles.put(namespace, questBundle);
+      QuestBundle.deleteOldGenerations(questBundleFile);
+    }
+    return true;
+  }
+
+  @Override
+  public synchronized int size() {
+    int numberOfQuests = 0;
+    for (QuestBundle questBundle : this.questBundles.values()) {
+      numberOfQuests += questBundle.size();
+    }
+    return numberOfQuests;
+  }
+
+  private synchronized QuestBundle getQuestBundle(String namespace) {
+    return this.questBundles.get(namespace);
+  }
+
+  private synchronized List<QuestBundle> getQuestBundles() {
+    return new ArrayList<>(this.questBundles.values());
+  }
+
+  @Override
+  public synchronized void close() {
+    this.questBundles.clear();
+  }
+
+}
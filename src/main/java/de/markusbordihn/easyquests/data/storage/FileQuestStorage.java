@@ -0,0 +1,218 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.data.quest.QuestBundle;
+import de.markusbordihn.easyquests.data.quest.QuestData;
+import de.markusbordihn.easyquests.data.quest.QuestDataLoader;
+import de.markusbordihn.easyquests.data.quest.QuestDataManager;
+import de.markusbordihn.easyquests.data.quest.QuestReloader;
+
+/**
+ * One compressed NBT file per quest under &lt;namespace&gt;/&lt;path&gt;.nbt, existing quest
+ * bundles are read as well and are overridden by single quest data files.
+ */
+public class FileQuestStorage implements QuestStorage {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  private final Path questDataFolder;
+
+  // One open quest bundle per namespace, so lazy loads do not map the same bundle again.
+  private final Map<String, QuestBundle> questBundles = new ConcurrentHashMap<>();
+
+  public FileQuestStorage(Path questDataFolder) {
+    this.questDataFolder = questDataFolder;
+  }
+
+  @Override
+  public QuestStorageType getType() {
+    return QuestStorageType.FILE;
+  }
+
+  @Override
+  public void open() throws IOException {
+    Files.createDirectories(this.questDataFolder);
+  }
+
+  @Override
+  public List<QuestData> loadAll() {
+    return QuestDataLoader.loadQuestData(this.questDataFolder,
+        QuestReloader::setQuestFiles);
+  }
+
+  @Override
+  public QuestData load(ResourceLocation questId) {
+    Path questDataFile = QuestDataManager.getQuestDataFile(questId);
+    if (Files.exists(questDataFile)) {
+      return QuestDataLoader.decodeQuestData(questDataFile);
+    }
+    Path questBundleFile = QuestBundle.getBundleFile(this.questDataFolder, questId.getNamespace());
+    if (Files.exists(questBundleFile)) {
+      QuestBundle questBundle = getQuestBundle(questBundleFile);
+      if (questBundle != null && questBundle.contains(questId)) {
+        return QuestDataLoader.decodeQuestData(questBundle, questId);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public Stream<QuestData> stream() {
+    // Bundles first, so that newer single quest data files are streamed after bundled quests.
+    List<Path> questFiles = QuestDataLoader.scanQuestDataFolder(this.questDataFolder);
+    Set<ResourceLocation> questDataFileIds = getQuestDataFileIds(questFiles);
+    return questFiles.stream()
+        .sorted(Comparator.comparing(QuestDataLoader::isQuestBundleFile).reversed())
+        .flatMap(questFile -> streamQuestFile(questFile, questDataFileIds));
+  }
+
+  @Override
+  public Stream<QuestData> stream(String namespace) {
+    Path namespaceFolder = this.questDataFolder.resolve(namespace).normalize();
+    if (!namespaceFolder.startsWith(this.questDataFolder)) {
+      return Stream.empty();
+    }
+    Path questBundleFile = QuestBundle.getBundleFile(this.questDataFolder, namespace);
+    List<Path> questDataFiles = QuestDataLoader.scanQuestDataFiles(namespaceFolder);
+    Set<ResourceLocation> questDataFileIds = getQuestDataFileIds(questDataFiles);
+    return Stream
+        .concat(Files.exists(questBundleFile) ? Stream.of(questBundleFile) : Stream.empty(),
+            questDataFiles.stream())
+        .flatMap(questFile -> streamQuestFile(questFile, questDataFileIds));
+  }
+
+  private Stream<QuestData> streamQuestFile(Path questFile,
+      Set<ResourceLocation> questDataFileIds) {
+    if (QuestDataLoader.isQuestBundleFile(questFile)) {
+      // Bundled quests which were saved again as single quest data file are only streamed once.
+      QuestBundle questBundle = getQuestBundle(questFile);
+      return questBundle == null ? Stream.empty()
+          : questBundle.getQuestIds().stream()
+              .filter(questId -> !questDataFileIds.contains(questId))
+              .map(questId -> QuestDataLoader.decodeQuestData(questBundle, questId))
+              .filter(questData -> questData != null);
+    }
+    return Stream.ofNullable(QuestDataLoader.decodeQuestData(questFile));
+  }
+
+  private static Set<ResourceLocation> getQuestDataFileIds(List<Path> questFiles) {
+    Set<ResourceLocation> questDataFileIds = new HashSet<>();
+    for (Path questFile : questFiles) {
+      ResourceLocation questId = QuestDataLoader.isQuestDataFile(questFile)
+          ? QuestDataManager.getQuestId(questFile)
+          : null;
+      if (questId != null) {
+        questDataFileIds.add(questId);
+      }
+    }
+    return questDataFileIds;
+  }
+
+  @Override
+  public int saveAll(Map<ResourceLocation, CompoundTag> questDataTags) {
+    int numberOfSavedQuests = 0;
+    for (Map.Entry<ResourceLocation, CompoundTag> entry : questDataTags.entrySet()) {
+      if (QuestDataManager.saveQuestData(entry.getKey(), entry.getValue())) {
+        numberOfSavedQuests++;
+      }
+    }
+    return numberOfSavedQuests;
+  }
+
+  @Override
+  public int delete(Collection<ResourceLocation> questIds) {
+    int numberOfDeletedQuests = 0;
+    for (ResourceLocation questId : questIds) {
+      Path questDataFile = QuestDataManager.getQuestDataFile(questId);
+      try {
+        if (Files.deleteIfExists(questDataFile)) {
+          QuestDataManager.removeKnownQuestDataFile(questDataFile);
+          numberOfDeletedQuests++;
+        }
+      } catch (IOException e) {
+        log.error("Error while deleting quest data file: {}", questDataFile, e);
+      }
+    }
+    return numberOfDeletedQuests;
+  }
+
+  @Override
+  public int size() {
+    int numberOfQuests = 0;
+    List<Path> questFiles = QuestDataLoader.scanQuestDataFolder(this.questDataFolder);
+    Set<ResourceLocation> questDataFileIds = getQuestDataFileIds(questFiles);
+    for (Path questFile : questFiles) {
+      if (QuestDataLoader.isQuestBundleFile(questFile)) {
+        // Bundled quests with a newer single quest data file are counted only once.
+        QuestBundle questBundle = getQuestBundle(questFile);
+        if (questBundle != null) {
+          for (ResourceLocation questId : questBundle.getQuestIds()) {
+            if (!questDataFileIds.contains(questId)) {
+              numberOfQuests++;
+            }
+          }
+        }
+      } else {
+        numberOfQuests++;
+      }
+    }
+    return numberOfQuests;
+  }
+
+  public QuestBundle getQuestBundle(Path questBundleFile) {
+    // Bundle files are never changed in place, a new generation replaces the cached bundle.
+    return this.questBundles.compute(QuestBundle.getNamespace(questBundleFile),
+        (namespace, questBundle) -> questBundle != null
+            && questBundle.getBundleFile().equals(questBundleFile) ? questBundle
+                : QuestDataLoader.openQuestBundle(questBundleFile));
+  }
+
+  @Override
+  public boolean supportsLazyLoading() {
+    return true;
+  }
+
+  @Override
+  public void close() {
+    // Quest data files are written and closed with each save, bundles are unmapped by the GC.
+    this.questBundles.clear();
+  }
+
+}
@@ -0,0 +1,428 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.storage;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.resources.ResourceLocation;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.data.quest.QuestData;
+import de.markusbordihn.easyquests.data.quest.QuestDataLoader;
+import de.markusbordihn.easyquests.metrics.QuestMetrics;
+
+/**
+ * Embedded append-only key-value store with all quests in a single file.
+ *
+ * Layout: header (magic, version) followed by records (crc32, key length, key, value length,
+ * compressed NBT value). A value length of -1 marks a deleted quest. The index with the value
+ * offsets is kept in memory, replaced and deleted records are removed by compacting the file.
+ */
+public class KeyValueQuestStorage implements QuestStorage {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  public static final String STORAGE_FILE_NAME = "quests.db";
+
+  private static final int STORAGE_MAGIC = 0x45514B56;
+  private static final int STORAGE_VERSION = 1;
+  private static final int HEADER_SIZE = 8;
+  private static final int RECORD_HEADER_SIZE = 12;
+  private static final int TOMBSTONE = -1;
+  private static final int MAX_KEY_LENGTH = 1024;
+
+  // Compact the file if more than half of it is used by replaced or deleted records.
+  private static final long MIN_COMPACT_SIZE = 1024L * 1024L;
+
+  private final Path storageFile;
+  private final Map<ResourceLocation, Entry> index = new HashMap<>();
+  private FileChannel fileChannel = null;
+  private long fileSize = 0;
+  private long liveSize = 0;
+
+  public KeyValueQuestStorage(Path questDataFolder) {
+    this.storageFile = questDataFolder.resolve(STORAGE_FILE_NAME);
+  }
+
+  @Override
+  public QuestStorageType getType() {
+    return QuestStorageType.KEY_VALUE;
+  }
+
+  public Path getStorageFile() {
+    return this.storageFile;
+  }
+
+  @Override
+  public synchronized void open() throws IOException {
+    Files.createDirectories(this.storageFile.getParent());
+    this.fileChannel = FileChannel.open(this.storageFile, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    if (this.fileChannel.size() == 0) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(STORAGE_MAGIC).putInt(STORAGE_VERSION).flip();
+      write(this.fileChannel, header, 0);
+      this.fileChannel.force(true);
+      this.fileSize = HEADER_SIZE;
+    } else {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      read(this.fileChannel, header, 0);
+      if (header.getInt(0) != STORAGE_MAGIC) {
+        throw new IOException("Invalid quest storage header for " + this.storageFile);
+      }
+      if (header.getInt(4) != STORAGE_VERSION) {
+        throw new IOException(
+            "Unsupported quest storage version " + header.getInt(4) + " for " + this.storageFile);
+      }
+      readIndex();
+    }
+    log.info("Opened quest storage {} with {} quests ({} of {} bytes used).", this.storageFile,
+        this.index.size(), this.liveSize, this.fileSize);
+    if (needsCompaction()) {
+      compact();
+    }
+  }
+
+  private void readIndex() throws IOException {
+    this.index.clear();
+    this.liveSize = 0;
+    long size = this.fileChannel.size();
+    long position = HEADER_SIZE;
+    this.fileChannel.position(position);
+
+    // The stream is not closed, because this would close the file channel as well.
+    DataInputStream dataInputStream = new DataInputStream(
+        new BufferedInputStream(Channels.newInputStream(this.fileChannel)));
+    CRC32 crc32 = new CRC32();
+    while (position < size) {
+      try {
+        int checksum = dataInputStream.readInt();
+        int keyLength = dataInputStream.readInt();
+        if (keyLength <= 0 || keyLength > MAX_KEY_LENGTH) {
+          throw new IOException("Invalid key length " + keyLength);
+        }
+        byte[] key = readBytes(dataInputStream, keyLength);
+        int valueLength = dataInputStream.readInt();
+        if (valueLength < TOMBSTONE || valueLength > size - position) {
+          throw new IOException("Invalid value length " + valueLength);
+        }
+        byte[] value = readBytes(dataInputStream, Math.max(valueLength, 0));
+        crc32.reset();
+        crc32.update(key);
+        crc32.update(value);
+        if ((int) crc32.getValue() != checksum) {
+          throw new IOException("Checksum mismatch");
+        }
+
+        ResourceLocation questId = new ResourceLocation(new String(key, StandardCharsets.UTF_8));
+        int recordSize = RECORD_HEADER_SIZE + keyLength + value.length;
+        Entry previousEntry = valueLength == TOMBSTONE ? this.index.remove(questId)
+            : this.index.put(questId,
+                new Entry(position + recordSize - value.length, valueLength, recordSize));
+        if (previousEntry != null) {
+          this.liveSize -= previousEntry.recordSize();
+        }
+        if (valueLength != TOMBSTONE) {
+          this.liveSize += recordSize;
+        }
+        position += recordSize;
+      } catch (IOException | RuntimeException e) {
+        // Incomplete records at the end are expected after a crash while writing.
+        Path corruptedFile =
+            this.storageFile.resolveSibling(this.storageFile.getFileName() + ".corrupted");
+        log.warn("Truncate quest storage {} at {} of {} bytes, because of: {} (backup: {})",
+            this.storageFile, position, size, e.getMessage(), corruptedFile);
+        Files.copy(this.storageFile, corruptedFile, StandardCopyOption.REPLACE_EXISTING);
+        this.fileChannel.truncate(position);
+        break;
+      }
+    }
+    this.fileSize = position;
+  }
+
+  @Override
+  public List<QuestData> loadAll() {
+    List<Callable<QuestData>> decodeTasks = new ArrayList<>();
+    synchronized (this) {
+      for (Map.Entry<ResourceLocation, Entry> entry : this.index.entrySet()) {
+        ResourceLocation questId = entry.getKey();
+        Entry indexEntry = entry.getValue();
+        decodeTasks.add(() -> decode(questId, indexEntry));
+      }
+    }
+    return QuestDataLoader.decode(decodeTasks);
+  }
+
+  @Override
+  public QuestData load(ResourceLocation questId) {
+    Entry entry;
+    synchronized (this) {
+      entry = this.index.get(questId);
+    }
+    return entry != null ? decode(questId, entry) : null;
+  }
+
+  private QuestData decode(ResourceLocation questId, Entry entry) {
+    byte[] data;
+    try {
+      data = readValue(entry);
+    } catch (IOException e) {
+      QuestMetrics.QUEST_LOAD_ERRORS.increment();
+      log.error("Error while reading quest {} from {}:", questId, this.storageFile, e);
+      return null;
+    }
+    return QuestDataLoader.decodeQuestData(this.storageFile, data);
+  }
+
+  @Override
+  public Stream<QuestData> stream() {
+    List<ResourceLocation> questIds;
+    synchronized (this) {
+      questIds = new ArrayList<>(this.index.keySet());
+    }
+    return questIds.stream().map(this::load).filter(questData -> questData != null);
+  }
+
+  @Override
+  public Stream<QuestData> stream(String namespace) {
+    List<ResourceLocation> questIds = new ArrayList<>();
+    synchronized (this) {
+      for (ResourceLocation questId : this.index.keySet()) {
+        if (namespace.equals(questId.getNamespace())) {
+          questIds.add(questId);
+        }
+      }
+    }
+    return questIds.stream().map(this::load).filter(questData -> questData != null);
+  }
+
+  @Override
+  public synchronized int saveAll(Map<ResourceLocation, CompoundTag> questDataTags) {
+    if (questDataTags.isEmpty()) {
+      return 0;
+    }
+
+    // All records of a batch are appended with a single write and a single sync.
+    long startTime = System.nanoTime();
+    ByteArrayOutputStream recordsOutputStream = new ByteArrayOutputStream();
+    DataOutputStream dataOutputStream = new DataOutputStream(recordsOutputStream);
+    Map<ResourceLocation, Entry> newEntries = new LinkedHashMap<>();
+    try {
+      for (Map.Entry<ResourceLocation, CompoundTag> entry : questDataTags.entrySet()) {
+        ByteArrayOutputStream valueOutputStream = new ByteArrayOutputStream();
+        NbtIo.writeCompressed(entry.getValue(), valueOutputStream);
+        byte[] value = valueOutputStream.toByteArray();
+        long recordOffset = this.fileSize + dataOutputStream.size();
+        int recordSize = writeRecord(dataOutputStream, entry.getKey(), value);
+        newEntries.put(entry.getKey(),
+            new Entry(recordOffset + recordSize - value.length, value.length, recordSize));
+      }
+      append(recordsOutputStream.toByteArray());
+    } catch (IOException | RuntimeException e) {
+      QuestMetrics.QUEST_SAVE_ERRORS.increment();
+      log.error("Error while saving {} quests to {}:", questDataTags.size(), this.storageFile, e);
+      return 0;
+    }
+    for (Map.Entry<ResourceLocation, Entry> entry : newEntries.entrySet()) {
+      Entry previousEntry = this.index.put(entry.getKey(), entry.getValue());
+      if (previousEntry != null) {
+        this.liveSize -= previousEntry.recordSize();
+      }
+      this.liveSize += entry.getValue().recordSize();
+    }
+    QuestMetrics.QUEST_SAVES.recordSince(startTime);
+    QuestMetrics.BYTES_WRITTEN.add(recordsOutputStream.size());
+    return newEntries.size();
+  }
+
+  @Override
+  public synchronized int delete(Collection<ResourceLocation> questIds) {
+    ByteArrayOutputStream recordsOutputStream = new ByteArrayOutputStream();
+    DataOutputStream dataOutputStream = new DataOutputStream(recordsOutputStream);
+    List<ResourceLocation> deletedQuestIds = new ArrayList<>();
+    try {
+      for (ResourceLocation questId : questIds) {
+        if (this.index.containsKey(questId)) {
+          writeRecord(dataOutputStream, questId, null);
+          deletedQuestIds.add(questId);
+        }
+      }
+      if (deletedQuestIds.isEmpty()) {
+        return 0;
+      }
+      append(recordsOutputStream.toByteArray());
+    } catch (IOException e) {
+      log.error("Error while deleting {} quests from {}:", questIds.size(), this.storageFile, e);
+      return 0;
+    }
+    for (ResourceLocation questId : deletedQuestIds) {
+      this.liveSize -= this.index.remove(questId).recordSize();
+    }
+    return deletedQuestIds.size();
+  }
+
+  @Override
+  public synchronized int size() {
+    return this.index.size();
+  }
+
+  public synchronized boolean needsCompaction() {
+    return this.fileSize > MIN_COMPACT_SIZE && this.fileSize - HEADER_SIZE > 2 * this.liveSize;
+  }
+
+  public synchronized void compact() throws IOException {
+    long startTime = System.nanoTime();
+    long oldFileSize = this.fileSize;
+    Path temporaryFile = this.storageFile.resolveSibling(this.storageFile.getFileName() + ".tmp");
+    Map<ResourceLocation, Entry> compactedIndex = new HashMap<>(this.index.size());
+    long position = HEADER_SIZE;
+    try (FileChannel temporaryFileChannel = FileChannel.open(temporaryFile,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(STORAGE_MAGIC).putInt(STORAGE_VERSION).flip();
+      write(temporaryFileChannel, header, 0);
+      for (Map.Entry<ResourceLocation, Entry> entry : this.index.entrySet()) {
+        byte[] value = readValue(entry.getValue());
+        ByteArrayOutputStream recordOutputStream = new ByteArrayOutputStream(
+            RECORD_HEADER_SIZE + value.length + entry.getKey().toString().length());
+        int recordSize =
+            writeRecord(new DataOutputStream(recordOutputStream), entry.getKey(), value);
+        write(temporaryFileChannel, ByteBuffer.wrap(recordOutputStream.toByteArray()), position);
+        compactedIndex.put(entry.getKey(),
+            new Entry(position + recordSize - value.length, value.length, recordSize));
+        position += recordSize;
+      }
+      temporaryFileChannel.force(true);
+    }
+
+    // Replace the existing file only after the compacted file was completely written.
+    this.fileChannel.close();
+    Files.move(temporaryFile, this.storageFile, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    this.fileChannel =
+        FileChannel.open(this.storageFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.index.clear();
+    this.index.putAll(compactedIndex);
+    this.fileSize = position;
+    log.info("Compacted quest storage {} from {} to {} bytes in {} ms.", this.storageFile,
+        oldFileSize, this.fileSize, (System.nanoTime() - startTime) / 1000000);
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (this.fileChannel == null) {
+      return;
+    }
+    if (needsCompaction()) {
+      compact();
+    }
+    this.fileChannel.close();
+    this.fileChannel = null;
+    this.index.clear();
+  }
+
+  private synchronized byte[] readValue(Entry entry) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(entry.length());
+    read(this.fileChannel, buffer, entry.offset());
+    return buffer.array();
+  }
+
+  private void append(byte[] records) throws IOException {
+    write(this.fileChannel, ByteBuffer.wrap(records), this.fileSize);
+    this.fileChannel.force(false);
+    this.fileSize += records.length;
+  }
+
+  private static int writeRecord(DataOutputStream dataOutputStream, ResourceLocation questId,
+      byte[] value) throws IOException {
+    byte[] key = questId.toString().getBytes(StandardCharsets.UTF_8);
+    CRC32 crc32 = new CRC32();
+    crc32.update(key);
+    if (value != null) {
+      crc32.update(value);
+    }
+    dataOutputStream.writeInt((int) crc32.getValue());
+    dataOutputStream.writeInt(key.length);
+    dataOutputStream.write(key);
+    dataOutputStream.writeInt(value != null ? value.length : TOMBSTONE);
+    if (value != null) {
+      dataOutputStream.write(value);
+    }
+    return RECORD_HEADER_SIZE + key.length + (value != null ? value.length : 0);
+  }
+
+  private static byte[] readBytes(DataInputStream dataInputStream, int length)
+      throws IOException {
+    byte[] bytes = dataInputStream.readNBytes(length);
+    if (bytes.length != length) {
+      throw new EOFException("Expected " + length + " bytes, but got " + bytes.length);
+    }
+    return bytes;
+  }
+
+  private static void read(FileChannel fileChannel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      int bytesRead = fileChannel.read(buffer, position + buffer.position());
+      if (bytesRead < 0) {
+        throw new EOFException("Unexpected end of quest storage at " + position);
+      }
+    }
+  }
+
+  private static void write(FileChannel fileChannel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      fileChannel.write(buffer, position + buffer.position());
+    }
+  }
+
+  private record Entry(long offset, int length, int recordSize) {
+  }
+
+}
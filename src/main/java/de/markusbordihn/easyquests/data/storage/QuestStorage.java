@@ -0,0 +1,71 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+
+import de.markusbordihn.easyquests.data.quest.QuestData;
+
+/**
+ * Storage backend for quest data. Quest data is passed as compound tag snapshots for saving,
+ * because saves are written outside of the server thread.
+ */
+public interface QuestStorage extends Closeable {
+
+  QuestStorageType getType();
+
+  void open() throws IOException;
+
+  List<QuestData> loadAll();
+
+  QuestData load(ResourceLocation questId);
+
+  /**
+   * Lazy iteration over all stored quests, the stream needs to be closed after use.
+   */
+  Stream<QuestData> stream();
+
+  default Stream<QuestData> stream(String namespace) {
+    return stream().filter(questData -> namespace.equals(questData.getId().getNamespace()));
+  }
+
+  int saveAll(Map<ResourceLocation, CompoundTag> questDataTags);
+
+  default boolean save(ResourceLocation questId, CompoundTag questDataTag) {
+    return saveAll(Map.of(questId, questDataTag)) == 1;
+  }
+
+  int delete(Collection<ResourceLocation> questIds);
+
+  int size();
+
+  default boolean supportsLazyLoading() {
+    return false;
+  }
+
+}
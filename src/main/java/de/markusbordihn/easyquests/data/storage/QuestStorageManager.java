@@ -0,0 +1,231 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+
+import net.minecraftforge.event.server.ServerAboutToStartEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.config.CommonConfig;
+import de.markusbordihn.easyquests.data.quest.QuestData;
+import de.markusbordihn.easyquests.data.quest.QuestDataManager;
+import de.markusbordihn.easyquests.data.quest.QuestDataSaver;
+import de.markusbordihn.easyquests.data.quest.QuestDataWatcher;
+import de.markusbordihn.easyquests.data.quest.QuestManager;
+
+@EventBusSubscriber
+public class QuestStorageManager {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  // Number of quests which are written to the target storage at once during a migration.
+  private static final int MIGRATION_BATCH_SIZE = 500;
+
+  private static volatile QuestStorage questStorage = null;
+
+  // Quests which were copied by the running migration, only used on the quest saver thread.
+  private static final List<ResourceLocation> migratedQuestIds = new ArrayList<>();
+  private static final AtomicBoolean migrating = new AtomicBoolean(false);
+
+  protected QuestStorageManager() {}
+
+  @SubscribeEvent
+  public static void handleServerAboutToStartEvent(ServerAboutToStartEvent event) {
+    // The quest data folder is part of the world folder, which is only known at this point.
+    QuestDataManager.setQuestDataFolder(event.getServer());
+    QuestStorageType questStorageType = CommonConfig.COMMON.questStorage.get();
+    try {
+      questStorage = openQuestStorage(questStorageType);
+    } catch (IOException e) {
+      log.error("Unable to open {} quest storage, falling back to file storage:",
+          questStorageType, e);
+      questStorage = new FileQuestStorage(QuestDataManager.getQuestDataFolder());
+    }
+    log.info("Using {} quest storage.", questStorage.getType());
+  }
+
+  @SubscribeEvent(priority = EventPriority.LOWEST)
+  public static void handleServerStoppedEvent(ServerStoppedEvent event) {
+    // Pending saves are written at the server stopped event with a normal priority.
+    if (questStorage != null) {
+      try {
+        questStorage.close();
+      } catch (IOException e) {
+        log.error("Error while closing {} quest storage:", questStorage.getType(), e);
+      }
+      questStorage = null;
+    }
+  }
+
+  public static QuestStorage getQuestStorage() {
+    return questStorage;
+  }
+
+  public static QuestStorageType getQuestStorageType() {
+    return questStorage != null ? questStorage.getType() : null;
+  }
+
+  public static QuestStorage openQuestStorage(QuestStorageType questStorageType)
+      throws IOException {
+    Path questDataFolder = QuestDataManager.getQuestDataFolder();
+    QuestStorage newQuestStorage = switch (questStorageType) {
+      case BUNDLE -> new BundleQuestStorage(questDataFolder);
+      case KEY_VALUE -> new KeyValueQuestStorage(questDataFolder);
+      default -> new FileQuestStorage(questDataFolder);
+    };
+    newQuestStorage.open();
+    return newQuestStorage;
+  }
+
+  public static boolean isMigrating() {
+    return migrating.get();
+  }
+
+  public static CompletableFuture<Integer> migrate(MinecraftServer server,
+      QuestStorageType targetQuestStorageType) {
+    QuestStorage sourceQuestStorage = questStorage;
+    if (sourceQuestStorage == null || sourceQuestStorage.getType() == targetQuestStorageType) {
+      return CompletableFuture.completedFuture(0);
+    }
+
+    // Lazy loaded quest headers are pointing to the quest data files.
+    if (QuestManager.getQuestDataCache() != null) {
+      return CompletableFuture.failedFuture(
+          new IllegalStateException("Quest storage migration requires lazyQuestLoading=false"));
+    }
+    if (!migrating.compareAndSet(false, true)) {
+      return CompletableFuture
+          .failedFuture(new IllegalStateException("Quest storage migration already running"));
+    }
+
+    // The copy runs on the quest saver thread in order with all saves, so the server thread is
+    // not blocked and no save could be written to the old storage after it was copied.
+    QuestManager.saveDirtyQuests();
+    return QuestDataSaver.submit(() -> copyQuests(sourceQuestStorage, targetQuestStorageType))
+        .thenApplyAsync(numberOfMigratedQuests -> {
+          // Keep the new storage for the next start, before anything is removed from the old one.
+          CommonConfig.COMMON.questStorage.set(targetQuestStorageType);
+          CommonConfig.COMMON.questStorage.save();
+          if (targetQuestStorageType == QuestStorageType.FILE
+              && CommonConfig.COMMON.watchQuestDataFolder.get()) {
+            QuestDataWatcher.start(QuestDataManager.getQuestDataFolder(),
+                CommonConfig.COMMON.watchDebounceMillis.get());
+          } else if (targetQuestStorageType != QuestStorageType.FILE) {
+            QuestDataWatcher.stop();
+          }
+          return numberOfMigratedQuests;
+        }, server)
+        .thenCompose(numberOfMigratedQuests -> QuestDataSaver
+            .submit(() -> closeSourceStorage(sourceQuestStorage, targetQuestStorageType))
+            .thenApply(closed -> numberOfMigratedQuests))
+        .whenComplete((numberOfMigratedQuests, throwable) -> migrating.set(false));
+  }
+
+  private static int copyQuests(QuestStorage sourceQuestStorage,
+      QuestStorageType targetQuestStorageType) {
+    log.info("Migrating quests from {} to {} storage ...", sourceQuestStorage.getType(),
+        targetQuestStorageType);
+    long startTime = System.nanoTime();
+    QuestStorage targetQuestStorage;
+    try {
+      targetQuestStorage = openQuestStorage(targetQuestStorageType);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to open " + targetQuestStorageType + " storage", e);
+    }
+    migratedQuestIds.clear();
+    Map<ResourceLocation, CompoundTag> questDataTags = new LinkedHashMap<>();
+    try (Stream<QuestData> questDataStream = sourceQuestStorage.stream()) {
+      questDataStream.forEach(questData -> {
+        questDataTags.put(questData.getId(), questData.save(new CompoundTag()));
+        if (questDataTags.size() >= MIGRATION_BATCH_SIZE) {
+          writeMigrationBatch(targetQuestStorage, questDataTags, migratedQuestIds);
+        }
+      });
+      writeMigrationBatch(targetQuestStorage, questDataTags, migratedQuestIds);
+    } catch (RuntimeException e) {
+      // The source storage stays active, already migrated quests are only copies.
+      closeQuestStorage(targetQuestStorage);
+      migratedQuestIds.clear();
+      throw e;
+    }
+
+    // All following saves are written to the new storage.
+    questStorage = targetQuestStorage;
+    log.info("Migrated {} quests to {} storage in {} ms.", migratedQuestIds.size(),
+        targetQuestStorageType, (System.nanoTime() - startTime) / 1000000);
+    return migratedQuestIds.size();
+  }
+
+  private static boolean closeSourceStorage(QuestStorage sourceQuestStorage,
+      QuestStorageType targetQuestStorageType) {
+    // Single quest data files would override the bundles with the same quests. They are only
+    // removed after the new storage was written and configured, so they are a full backup until
+    // then.
+    if (sourceQuestStorage.getType() == QuestStorageType.FILE
+        && targetQuestStorageType == QuestStorageType.BUNDLE) {
+      sourceQuestStorage.delete(migratedQuestIds);
+    }
+    migratedQuestIds.clear();
+    closeQuestStorage(sourceQuestStorage);
+    return true;
+  }
+
+  private static void closeQuestStorage(QuestStorage questStorage) {
+    try {
+      questStorage.close();
+    } catch (IOException e) {
+      log.error("Error while closing {} quest storage:", questStorage.getType(), e);
+    }
+  }
+
+  private static void writeMigrationBatch(QuestStorage targetQuestStorage,
+      Map<ResourceLocation, CompoundTag> questDataTags, List<ResourceLocation> migratedQuestIds) {
+    if (questDataTags.isEmpty()) {
+      return;
+    }
+    if (targetQuestStorage.saveAll(questDataTags) != questDataTags.size()) {
+      throw new IllegalStateException("Unable to write " + questDataTags.size() + " quests to "
+          + targetQuestStorage.getType() + " storage");
+    }
+    migratedQuestIds.addAll(questDataTags.keySet());
+    questDataTags.clear();
+  }
+
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Low overhead latency histogram with power of two microsecond buckets.
+ */
+public class MetricTimer {
+
+  private static final int NUMBER_OF_BUCKETS = 32;
+
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalTime = new LongAdder();
+  private final LongAccumulator maxTime = new LongAccumulator(Math::max, 0);
+  private final LongAdder[] buckets = new LongAdder[NUMBER_OF_BUCKETS];
+
+  public MetricTimer() {
+    for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+      this.buckets[i] = new LongAdder();
+    }
+  }
+
+  public void record(long nanos) {
+    this.count.increment();
+    this.totalTime.add(nanos);
+    this.maxTime.accumulate(nanos);
+    long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+    this.buckets[Math.min(NUMBER_OF_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros))]
+        .increment();
+  }
+
+  public void recordSince(long startTime) {
+    record(System.nanoTime() - startTime);
+  }
+
+  public long getCount() {
+    return this.count.sum();
+  }
+
+  public double getMeanMicros() {
+    long numberOfRecords = this.count.sum();
+    return numberOfRecords > 0 ? this.totalTime.sum() / 1000.0 / numberOfRecords : 0;
+  }
+
+  public long getMaxMicros() {
+    return TimeUnit.NANOSECONDS.toMicros(this.maxTime.get());
+  }
+
+  public long getPercentileMicros(double percentile) {
+    // Upper bound of the bucket which contains the percentile.
+    long numberOfRecords = this.count.sum();
+    if (numberOfRecords == 0) {
+      return 0;
+    }
+    long threshold = (long) Math.ceil(numberOfRecords * percentile);
+    long sum = 0;
+    for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+      sum += this.buckets[i].sum();
+      if (sum >= threshold) {
+        return i == 0 ? 0 : 1L << i;
+      }
+    }
+    return getMaxMicros();
+  }
+
+  public void reset() {
+    this.count.reset();
+    this.totalTime.reset();
+    this.maxTime.reset();
+    for (LongAdder bucket : this.buckets) {
+      bucket.reset();
+    }
+  }
+
+  public JsonObject toJson() {
+    JsonObject jsonObject = new JsonObject();
+    jsonObject.addProperty("count", getCount());
+    jsonObject.addProperty("meanMicros", getMeanMicros());
+    jsonObject.addProperty("p50Micros", getPercentileMicros(0.5));
+    jsonObject.addProperty("p99Micros", getPercentileMicros(0.99));
+    jsonObject.addProperty("maxMicros", getMaxMicros());
+    return jsonObject;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d (mean %.1f us, p50 %d us, p99 %d us, max %d us)", getCount(),
+        getMeanMicros(), getPercentileMicros(0.5), getPercentileMicros(0.99), getMaxMicros());
+  }
+
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.JsonObject;
+
+import de.markusbordihn.easyquests.data.quest.QuestDataCache;
+import de.markusbordihn.easyquests.data.quest.QuestDataSaver;
+import de.markusbordihn.easyquests.data.quest.QuestManager;
+import de.markusbordihn.easyquests.data.quest.QuestRegistry;
+
+public class QuestMetrics {
+
+  // Quest data files
+  public static final MetricTimer QUEST_LOADS = new MetricTimer();
+  public static final MetricTimer QUEST_SAVES = new MetricTimer();
+  public static final LongAdder QUEST_LOAD_ERRORS = new LongAdder();
+  public static final LongAdder QUEST_SAVE_ERRORS = new LongAdder();
+  public static final LongAdder BYTES_READ = new LongAdder();
+  public static final LongAdder BYTES_WRITTEN = new LongAdder();
+
+  // Quest lookups
+  public static final LongAdder LOOKUPS_BY_ID = new LongAdder();
+  public static final LongAdder LOOKUPS_BY_ORDINAL = new LongAdder();
+  public static final LongAdder LOOKUPS_BY_TITLE = new LongAdder();
+
+  // Command suggestions
+  public static final MetricTimer SUGGESTIONS = new MetricTimer();
+
+  protected QuestMetrics() {}
+
+  public static Map<String, String> getMetrics() {
+    Map<String, String> metrics = new LinkedHashMap<>();
+    QuestRegistry.Snapshot snapshot = QuestManager.getSnapshot();
+    metrics.put("Quests", snapshot.size() + " (" + QuestManager.getQuestOrdinals().size()
+        + " ordinals, version " + snapshot.getVersion() + ")");
+    metrics.put("Quest loads", QUEST_LOADS + ", " + QUEST_LOAD_ERRORS.sum() + " errors");
+    metrics.put("Quest saves", QUEST_SAVES + ", " + QUEST_SAVE_ERRORS.sum() + " errors");
+    metrics.put("Bytes read / written", BYTES_READ.sum() + " / " + BYTES_WRITTEN.sum());
+    metrics.put("Pending saves", String.valueOf(QuestDataSaver.getPendingSaves()));
+    metrics.put("Lookups by id / ordinal / title", LOOKUPS_BY_ID.sum() + " / "
+        + LOOKUPS_BY_ORDINAL.sum() + " / " + LOOKUPS_BY_TITLE.sum());
+    QuestDataCache questDataCache = QuestManager.getQuestDataCache();
+    if (questDataCache != null) {
+      metrics.put("Quest cache", questDataCache.toString());
+    }
+    metrics.put("Suggestions", SUGGESTIONS.toString());
+    return metrics;
+  }
+
+  public static JsonObject toJson() {
+    JsonObject jsonObject = new JsonObject();
+    jsonObject.addProperty("timestamp", System.currentTimeMillis());
+
+    QuestRegistry.Snapshot snapshot = QuestManager.getSnapshot();
+    JsonObject registry = new JsonObject();
+    registry.addProperty("quests", snapshot.size());
+    registry.addProperty("ordinals", QuestManager.getQuestOrdinals().size());
+    registry.addProperty("version", snapshot.getVersion());
+    jsonObject.add("registry", registry);
+
+    JsonObject storage = new JsonObject();
+    storage.add("loads", QUEST_LOADS.toJson());
+    storage.add("saves", QUEST_SAVES.toJson());
+    storage.addProperty("loadErrors", QUEST_LOAD_ERRORS.sum());
+    storage.addProperty("saveErrors", QUEST_SAVE_ERRORS.sum());
+    storage.addProperty("bytesRead", BYTES_READ.sum());
+    storage.addProperty("bytesWritten", BYTES_WRITTEN.sum());
+    storage.addProperty("pendingSaves", QuestDataSaver.getPendingSaves());
+    jsonObject.add("storage", storage);
+
+    JsonObject lookups = new JsonObject();
+    lookups.addProperty("byId", LOOKUPS_BY_ID.sum());
+    lookups.addProperty("byOrdinal", LOOKUPS_BY_ORDINAL.sum());
+    lookups.addProperty("byTitle", LOOKUPS_BY_TITLE.sum());
+    jsonObject.add("lookups", lookups);
+
+    QuestDataCache questDataCache = QuestManager.getQuestDataCache();
+    if (questDataCache != null) {
+      JsonObject cache = new JsonObject();
+      cache.addProperty("size", questDataCache.size());
+      cache.addProperty("maxSize", questDataCache.getMaxSize());
+      cache.addProperty("hits", questDataCache.getHits());
+      cache.addProperty("misses", questDataCache.getMisses());
+      cache.addProperty("evictions", questDataCache.getEvictions());
+      jsonObject.add("cache", cache);
+    }
+
+    jsonObject.add("suggestions", SUGGESTIONS.toJson());
+    return jsonObject;
+  }
+
+  public static void reset() {
+    QUEST_LOADS.reset();
+    QUEST_SAVES.reset();
+    QUEST_LOAD_ERRORS.reset();
+    QUEST_SAVE_ERRORS.reset();
+    BYTES_READ.reset();
+    BYTES_WRITTEN.reset();
+    LOOKUPS_BY_ID.reset();
+    LOOKUPS_BY_ORDINAL.reset();
+    LOOKUPS_BY_TITLE.reset();
+    SUGGESTIONS.reset();
+  }
+
+}
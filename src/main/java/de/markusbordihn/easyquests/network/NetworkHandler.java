@@ -0,0 +1,86 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.network;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+
+import net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent;
+import net.minecraftforge.network.NetworkRegistry;
+import net.minecraftforge.network.PacketDistributor;
+import net.minecraftforge.network.simple.SimpleChannel;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.network.message.QuestSyncDeltaMessage;
+import de.markusbordihn.easyquests.network.message.QuestSyncHashesMessage;
+import de.markusbordihn.easyquests.network.message.QuestSyncHelloMessage;
+
+public class NetworkHandler {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  private static final String PROTOCOL_VERSION = "1";
+
+  // Clients without this mod are still able to join, they just don't receive any quests.
+  public static final SimpleChannel INSTANCE =
+      NetworkRegistry.newSimpleChannel(new ResourceLocation(Constants.MOD_ID, "network"),
+          () -> PROTOCOL_VERSION, NetworkRegistry.acceptMissingOr(PROTOCOL_VERSION),
+          PROTOCOL_VERSION::equals);
+
+  private static int id = 0;
+
+  protected NetworkHandler() {}
+
+  public static void registerNetworkHandler(final FMLCommonSetupEvent event) {
+    log.info("Register Network Handler with protocol version {} ...", PROTOCOL_VERSION);
+
+    event.enqueueWork(() -> {
+      // Server -> Client: Quest namespace hashes on login.
+      INSTANCE.registerMessage(id++, QuestSyncHelloMessage.class, QuestSyncHelloMessage::encode,
+          QuestSyncHelloMessage::decode, QuestSyncHelloMessage::handle);
+
+      // Client -> Server: Known quest hashes of the client.
+      INSTANCE.registerMessage(id++, QuestSyncHashesMessage.class, QuestSyncHashesMessage::encode,
+          QuestSyncHashesMessage::decode, QuestSyncHashesMessage::handle);
+
+      // Server -> Client: Added, changed and removed quests.
+      INSTANCE.registerMessage(id++, QuestSyncDeltaMessage.class, QuestSyncDeltaMessage::encode,
+          QuestSyncDeltaMessage::decode, QuestSyncDeltaMessage::handle);
+    });
+  }
+
+  public static boolean isRemotePresent(ServerPlayer player) {
+    return player.connection != null && INSTANCE.isRemotePresent(player.connection.getConnection());
+  }
+
+  public static <M> void sendToPlayer(ServerPlayer player, M message) {
+    if (isRemotePresent(player)) {
+      INSTANCE.send(PacketDistributor.PLAYER.with(() -> player), message);
+    }
+  }
+
+  public static <M> void sendToServer(M message) {
+    INSTANCE.sendToServer(message);
+  }
+
+}
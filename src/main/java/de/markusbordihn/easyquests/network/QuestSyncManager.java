@@ -0,0 +1,301 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+import de.markusbordihn.easyquests.Constants;
+import de.markusbordihn.easyquests.data.quest.QuestData;
+import de.markusbordihn.easyquests.data.quest.QuestDataLoader;
+import de.markusbordihn.easyquests.data.quest.QuestHeader;
+import de.markusbordihn.easyquests.data.quest.QuestManager;
+import de.markusbordihn.easyquests.network.message.QuestSyncDeltaMessage;
+import de.markusbordihn.easyquests.network.message.QuestSyncHashesMessage;
+import de.markusbordihn.easyquests.network.message.QuestSyncHelloMessage;
+
+@EventBusSubscriber
+public class QuestSyncManager {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+  // Upper limit for the quest hashes a single client could send during a sync.
+  private static final int MAX_CLIENT_QUEST_HASHES = 1000000;
+
+  // Content hash per quest, only recalculated if the quest data instance, its content or the
+  // stored quest data changed.
+  private static final Map<ResourceLocation, QuestHash> questHashes = new HashMap<>();
+
+  // Sum of all quest hashes per namespace.
+  private static final Map<String, Long> namespaceHashes = new HashMap<>();
+
+  // Quest hashes of clients which are still sending their known hashes.
+  private static final Map<UUID, ClientHashes> clientHashes = new HashMap<>();
+
+  protected QuestSyncManager() {}
+
+  @SubscribeEvent
+  public static void handlePlayerLoggedInEvent(PlayerEvent.PlayerLoggedInEvent event) {
+    if (event.getPlayer() instanceof ServerPlayer player
+        && NetworkHandler.isRemotePresent(player)) {
+      updateQuestHashes();
+      NetworkHandler.sendToPlayer(player, new QuestSyncHelloMessage(Map.copyOf(namespaceHashes)));
+    }
+  }
+
+  public static void resync() {
+    // Starts a new hash based sync, clients will only receive the changed namespaces.
+    MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+    if (server == null) {
+      return;
+    }
+    updateQuestHashes();
+    QuestSyncHelloMessage message = new QuestSyncHelloMessage(Map.copyOf(namespaceHashes));
+    for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+      if (NetworkHandler.isRemotePresent(player)) {
+        NetworkHandler.sendToPlayer(player, message);
+      }
+    }
+  }
+
+  @SubscribeEvent
+  public static void handlePlayerLoggedOutEvent(PlayerEvent.PlayerLoggedOutEvent event) {
+    clientHashes.remove(event.getPlayer().getUUID());
+  }
+
+  @SubscribeEvent
+  public static void handleServerStoppedEvent(ServerStoppedEvent event) {
+    questHashes.clear();
+    namespaceHashes.clear();
+    clientHashes.clear();
+  }
+
+  public static void handleQuestSyncHashes(ServerPlayer player, QuestSyncHashesMessage message) {
+    ClientHashes knownHashes = clientHashes.computeIfAbsent(player.getUUID(),
+        key -> new ClientHashes(new HashMap<>(), new HashMap<>()));
+    if (knownHashes.questHashes().size() + message.getQuestHashes().size()
+        > MAX_CLIENT_QUEST_HASHES) {
+      log.warn("Ignoring quest sync of {} with too many quest hashes!", player);
+      clientHashes.remove(player.getUUID());
+      return;
+    }
+    knownHashes.namespaceHashes().putAll(message.getNamespaceHashes());
+    knownHashes.questHashes().putAll(message.getQuestHashes());
+    if (message.isLast()) {
+      clientHashes.remove(player.getUUID());
+      sendQuestDelta(player, knownHashes);
+    }
+  }
+
+  public static void broadcastQuest(QuestData questData) {
+    updateQuestHash(questData, QuestManager.getSnapshot().getQuestHeader(questData.getId()));
+    QuestHash questHash = questHashes.get(questData.getId());
+    sendToAll(new QuestSyncDeltaMessage(List.of(questData.save(new CompoundTag())),
+        new long[] {questHash.hash()}, List.of(), true));
+  }
+
+  public static void broadcastRemovedQuest(ResourceLocation questId) {
+    QuestHash questHash = questHashes.remove(questId);
+    if (questHash != null) {
+      namespaceHashes.merge(questId.getNamespace(), -questHash.hash(), Long::sum);
+    }
+    sendToAll(new QuestSyncDeltaMessage(List.of(), new long[0], List.of(questId), true));
+  }
+
+  public static Map<String, Long> getNamespaceHashes() {
+    updateQuestHashes();
+    return Map.copyOf(namespaceHashes);
+  }
+
+  public static long getQuestHash(CompoundTag compoundTag) {
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(256);
+    try (DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream)) {
+      NbtIo.write(compoundTag, dataOutputStream);
+    } catch (IOException e) {
+      log.error("Unable to calculate hash for {}:", compoundTag, e);
+    }
+    return HASH_FUNCTION.hashBytes(byteArrayOutputStream.toByteArray()).asLong();
+  }
+
+  private static void updateQuestHashes() {
+    // Quests in memory are hashed directly, all other quests use the hash of their stored data.
+    // Lazy loaded quests are never decoded for this, as long as their header has a hash.
+    Map<ResourceLocation, QuestData> loadedQuests = QuestManager.getLoadedQuests();
+    Set<ResourceLocation> removedQuests = new HashSet<>(questHashes.keySet());
+    Set<String> namespaces = new HashSet<>();
+    for (QuestHeader questHeader : QuestManager.getSnapshot().getQuestHeaders()) {
+      ResourceLocation questId = questHeader.getId();
+      removedQuests.remove(questId);
+      namespaces.add(questId.getNamespace());
+      QuestData questData = loadedQuests.get(questId);
+      if (questData != null) {
+        updateQuestHash(questData, questHeader);
+      } else {
+        updateQuestHash(questHeader);
+      }
+    }
+    for (ResourceLocation questId : removedQuests) {
+      QuestHash questHash = questHashes.remove(questId);
+      namespaceHashes.merge(questId.getNamespace(), -questHash.hash(), Long::sum);
+    }
+    namespaceHashes.keySet().retainAll(namespaces);
+  }
+
+  private static void updateQuestHash(QuestData questData, QuestHeader questHeader) {
+    QuestHash questHash = questHashes.get(questData.getId());
+    if (questHash != null && questHash.questData() != null
+        && questHash.questData().get() == questData
+        && questHash.changeCount() == questData.getChangeCount()) {
+      return;
+    }
+
+    // Quests without unsaved changes have the same hash as their stored data.
+    long hash = questHeader != null && questHeader.hasHash() && !questData.isDirty()
+        ? questHeader.getHash()
+        : getQuestHash(questData.save(new CompoundTag()));
+    setQuestHash(questData.getId(),
+        new QuestHash(new WeakReference<>(questData), questData.getChangeCount(), null, hash));
+  }
+
+  private static void updateQuestHash(QuestHeader questHeader) {
+    QuestHash questHash = questHashes.get(questHeader.getId());
+    if (questHash != null && questHash.questHeader() == questHeader) {
+      return;
+    }
+
+    // Stored quest data without a known hash is decoded once, but not added to the cache.
+    long hash = questHeader.getHash();
+    if (!questHeader.hasHash()) {
+      QuestData questData = QuestDataLoader.loadQuestData(questHeader);
+      if (questData == null) {
+        return;
+      }
+      hash = getQuestHash(questData.save(new CompoundTag()));
+    }
+    setQuestHash(questHeader.getId(), new QuestHash(null, 0, questHeader, hash));
+  }
+
+  private static void setQuestHash(ResourceLocation questId, QuestHash newQuestHash) {
+    QuestHash questHash = questHashes.put(questId, newQuestHash);
+    if (questHash == null || questHash.hash() != newQuestHash.hash()) {
+      String namespace = questId.getNamespace();
+      if (questHash != null) {
+        namespaceHashes.merge(namespace, -questHash.hash(), Long::sum);
+      }
+      namespaceHashes.merge(namespace, newQuestHash.hash(), Long::sum);
+    }
+  }
+
+  private static void sendQuestDelta(ServerPlayer player, ClientHashes knownHashes) {
+    updateQuestHashes();
+
+    // Only namespaces with a different hash are compared per quest.
+    Set<String> changedNamespaces = new HashSet<>();
+    for (Map.Entry<String, Long> entry : namespaceHashes.entrySet()) {
+      if (!entry.getValue().equals(knownHashes.namespaceHashes().get(entry.getKey()))) {
+        changedNamespaces.add(entry.getKey());
+      }
+    }
+    List<QuestData> changedQuests = new ArrayList<>();
+    for (Map.Entry<ResourceLocation, QuestHash> entry : questHashes.entrySet()) {
+      ResourceLocation questId = entry.getKey();
+      if (changedNamespaces.contains(questId.getNamespace()) && !Long
+          .valueOf(entry.getValue().hash()).equals(knownHashes.questHashes().get(questId))) {
+        QuestData questData = QuestManager.getQuest(questId);
+        if (questData != null) {
+          changedQuests.add(questData);
+        }
+      }
+    }
+    List<ResourceLocation> removedQuests = new ArrayList<>();
+    for (ResourceLocation questId : knownHashes.questHashes().keySet()) {
+      if (!questHashes.containsKey(questId)) {
+        removedQuests.add(questId);
+      }
+    }
+
+    // Send changed quests in several smaller messages.
+    int numberOfMessages = 0;
+    for (int start = 0; start < changedQuests.size() || numberOfMessages == 0;
+        start += QuestSyncDeltaMessage.MAX_QUESTS) {
+      int end = Math.min(start + QuestSyncDeltaMessage.MAX_QUESTS, changedQuests.size());
+      List<CompoundTag> questTags = new ArrayList<>(end - start);
+      long[] questTagHashes = new long[end - start];
+      for (int i = start; i < end; i++) {
+        CompoundTag questTag = changedQuests.get(i).save(new CompoundTag());
+        questTagHashes[questTags.size()] = getQuestHash(questTag);
+        questTags.add(questTag);
+      }
+      boolean last = end >= changedQuests.size();
+      NetworkHandler.sendToPlayer(player, new QuestSyncDeltaMessage(questTags, questTagHashes,
+          last ? removedQuests : List.of(), last));
+      numberOfMessages++;
+    }
+    log.debug("Synced {} changed and {} removed quests with {} messages to {}",
+        changedQuests.size(), removedQuests.size(), numberOfMessages, player);
+  }
+
+  private static void sendToAll(QuestSyncDeltaMessage message) {
+    MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+    if (server != null) {
+      for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+        NetworkHandler.sendToPlayer(player, message);
+      }
+    }
+  }
+
+  private record QuestHash(WeakReference<QuestData> questData, int changeCount,
+      QuestHeader questHeader, long hash) {
+  }
+
+  private record ClientHashes(Map<String, Long> namespaceHashes,
+      Map<ResourceLocation, Long> questHashes) {
+  }
+
+}
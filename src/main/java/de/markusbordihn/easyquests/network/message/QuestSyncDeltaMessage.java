@@ -0,0 +1,108 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.network.message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.network.NetworkEvent;
+
+import de.markusbordihn.easyquests.client.ClientQuestManager;
+
+public class QuestSyncDeltaMessage {
+
+  // Max. number of quests per message, to stay well below the client bound packet limit.
+  public static final int MAX_QUESTS = 100;
+
+  private final List<CompoundTag> changedQuests;
+  private final long[] changedQuestHashes;
+  private final List<ResourceLocation> removedQuests;
+  private final boolean last;
+
+  public QuestSyncDeltaMessage(List<CompoundTag> changedQuests, long[] changedQuestHashes,
+      List<ResourceLocation> removedQuests, boolean last) {
+    this.changedQuests = changedQuests;
+    this.changedQuestHashes = changedQuestHashes;
+    this.removedQuests = removedQuests;
+    this.last = last;
+  }
+
+  public List<CompoundTag> getChangedQuests() {
+    return this.changedQuests;
+  }
+
+  public long[] getChangedQuestHashes() {
+    return this.changedQuestHashes;
+  }
+
+  public List<ResourceLocation> getRemovedQuests() {
+    return this.removedQuests;
+  }
+
+  public boolean isLast() {
+    return this.last;
+  }
+
+  public static void encode(QuestSyncDeltaMessage message, FriendlyByteBuf buffer) {
+    buffer.writeVarInt(message.changedQuests.size());
+    for (int i = 0; i < message.changedQuests.size(); i++) {
+      buffer.writeLong(message.changedQuestHashes[i]);
+      buffer.writeNbt(message.changedQuests.get(i));
+    }
+    buffer.writeVarInt(message.removedQuests.size());
+    for (ResourceLocation removedQuest : message.removedQuests) {
+      buffer.writeResourceLocation(removedQuest);
+    }
+    buffer.writeBoolean(message.last);
+  }
+
+  public static QuestSyncDeltaMessage decode(FriendlyByteBuf buffer) {
+    int numberOfChangedQuests = buffer.readVarInt();
+    List<CompoundTag> changedQuests = new ArrayList<>(numberOfChangedQuests);
+    long[] changedQuestHashes = new long[numberOfChangedQuests];
+    for (int i = 0; i < numberOfChangedQuests; i++) {
+      changedQuestHashes[i] = buffer.readLong();
+      changedQuests.add(buffer.readNbt());
+    }
+    int numberOfRemovedQuests = buffer.readVarInt();
+    List<ResourceLocation> removedQuests = new ArrayList<>(numberOfRemovedQuests);
+    for (int i = 0; i < numberOfRemovedQuests; i++) {
+      removedQuests.add(buffer.readResourceLocation());
+    }
+    return new QuestSyncDeltaMessage(changedQuests, changedQuestHashes, removedQuests,
+        buffer.readBoolean());
+  }
+
+  public static void handle(QuestSyncDeltaMessage message,
+      Supplier<NetworkEvent.Context> contextSupplier) {
+    NetworkEvent.Context context = contextSupplier.get();
+    context.enqueueWork(() -> DistExecutor.unsafeRunWhenOn(Dist.CLIENT,
+        () -> () -> ClientQuestManager.handleQuestSyncDelta(message)));
+    context.setPacketHandled(true);
+  }
+
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.network.message;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+
+import net.minecraftforge.network.NetworkEvent;
+
+import de.markusbordihn.easyquests.network.QuestSyncManager;
+
+public class QuestSyncHashesMessage {
+
+  // Server bound packets are limited to 32 KB, so the hashes are split into several messages.
+  public static final int MAX_ENTRIES = 500;
+
+  private final Map<String, Long> namespaceHashes;
+  private final Map<ResourceLocation, Long> questHashes;
+  private final boolean last;
+
+  public QuestSyncHashesMessage(Map<String, Long> namespaceHashes,
+      Map<ResourceLocation, Long> questHashes, boolean last) {
+    this.namespaceHashes = namespaceHashes;
+    this.questHashes = questHashes;
+    this.last = last;
+  }
+
+  public Map<String, Long> getNamespaceHashes() {
+    return this.namespaceHashes;
+  }
+
+  public Map<ResourceLocation, Long> getQuestHashes() {
+    return this.questHashes;
+  }
+
+  public boolean isLast() {
+    return this.last;
+  }
+
+  public static void encode(QuestSyncHashesMessage message, FriendlyByteBuf buffer) {
+    buffer.writeVarInt(message.namespaceHashes.size());
+    for (Map.Entry<String, Long> entry : message.namespaceHashes.entrySet()) {
+      buffer.writeUtf(entry.getKey());
+      buffer.writeLong(entry.getValue());
+    }
+    buffer.writeVarInt(message.questHashes.size());
+    for (Map.Entry<ResourceLocation, Long> entry : message.questHashes.entrySet()) {
+      buffer.writeResourceLocation(entry.getKey());
+      buffer.writeLong(entry.getValue());
+    }
+    buffer.writeBoolean(message.last);
+  }
+
+  public static QuestSyncHashesMessage decode(FriendlyByteBuf buffer) {
+    int numberOfNamespaces = Math.min(buffer.readVarInt(), MAX_ENTRIES);
+    Map<String, Long> namespaceHashes = new HashMap<>();
+    for (int i = 0; i < numberOfNamespaces; i++) {
+      namespaceHashes.put(buffer.readUtf(), buffer.readLong());
+    }
+    int numberOfQuests = Math.min(buffer.readVarInt(), MAX_ENTRIES);
+    Map<ResourceLocation, Long> questHashes = new HashMap<>();
+    for (int i = 0; i < numberOfQuests; i++) {
+      questHashes.put(buffer.readResourceLocation(), buffer.readLong());
+    }
+    return new QuestSyncHashesMessage(namespaceHashes, questHashes, buffer.readBoolean());
+  }
+
+  public static void handle(QuestSyncHashesMessage message,
+      Supplier<NetworkEvent.Context> contextSupplier) {
+    NetworkEvent.Context context = contextSupplier.get();
+    ServerPlayer player = context.getSender();
+    if (player != null) {
+      context.enqueueWork(() -> QuestSyncManager.handleQuestSyncHashes(player, message));
+    }
+    context.setPacketHandled(true);
+  }
+
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.network.message;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import net.minecraft.network.FriendlyByteBuf;
+
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.network.NetworkEvent;
+
+import de.markusbordihn.easyquests.client.ClientQuestManager;
+
+public class QuestSyncHelloMessage {
+
+  private final Map<String, Long> namespaceHashes;
+
+  public QuestSyncHelloMessage(Map<String, Long> namespaceHashes) {
+    this.namespaceHashes = namespaceHashes;
+  }
+
+  public Map<String, Long> getNamespaceHashes() {
+    return this.namespaceHashes;
+  }
+
+  public static void encode(QuestSyncHelloMessage message, FriendlyByteBuf buffer) {
+    buffer.writeVarInt(message.namespaceHashes.size());
+    for (Map.Entry<String, Long> entry : message.namespaceHashes.entrySet()) {
+      buffer.writeUtf(entry.getKey());
+      buffer.writeLong(entry.getValue());
+    }
+  }
+
+  public static QuestSyncHelloMessage decode(FriendlyByteBuf buffer) {
+    int size = buffer.readVarInt();
+    Map<String, Long> namespaceHashes = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      namespaceHashes.put(buffer.readUtf(), buffer.readLong());
+    }
+    return new QuestSyncHelloMessage(namespaceHashes);
+  }
+
+  public static void handle(QuestSyncHelloMessage message,
+      Supplier<NetworkEvent.Context> contextSupplier) {
+    NetworkEvent.Context context = contextSupplier.get();
+    context.enqueueWork(() -> DistExecutor.unsafeRunWhenOn(Dist.CLIENT,
+        () -> () -> ClientQuestManager.handleQuestSyncHello(message)));
+    context.setPacketHandled(true);
+  }
+
+}
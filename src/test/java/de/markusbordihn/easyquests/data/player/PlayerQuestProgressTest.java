@@ -0,0 +1,177 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.player;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.IntArrayTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.resources.ResourceLocation;
+
+import de.markusbordihn.easyquests.data.quest.QuestOrdinals;
+import de.markusbordihn.easyquests.data.quest.QuestStatus;
+
+class PlayerQuestProgressTest {
+
+  private static final UUID PLAYER_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+  private static final QuestStatus[] QUEST_STATUS_VALUES = QuestStatus.values();
+
+  @Test
+  void testStatusNibbles() {
+    PlayerQuestProgress playerQuestProgress =
+        new PlayerQuestProgress(PLAYER_ID, new QuestOrdinals());
+
+    // Both nibbles of each byte are used by neighbouring quest ordinals.
+    for (int questOrdinal = 0; questOrdinal < 20; questOrdinal++) {
+      playerQuestProgress.setStatus(questOrdinal, getQuestStatus(questOrdinal));
+    }
+    for (int questOrdinal = 0; questOrdinal < 20; questOrdinal++) {
+      assertEquals(getQuestStatus(questOrdinal), playerQuestProgress.getStatus(questOrdinal));
+    }
+    assertEquals(20, playerQuestProgress.getNumberOfTrackedQuests());
+    assertNull(playerQuestProgress.getStatus(20));
+    assertNull(playerQuestProgress.getStatus(-1));
+    assertEquals(QuestStatus.AVAILABLE,
+        playerQuestProgress.getStatus(1000, QuestStatus.AVAILABLE));
+
+    playerQuestProgress.setStatus(5, null);
+    playerQuestProgress.setStatus(-1, QuestStatus.COMPLETED);
+    playerQuestProgress.setStatus(1000, null);
+    assertNull(playerQuestProgress.getStatus(5));
+    assertEquals(getQuestStatus(4), playerQuestProgress.getStatus(4));
+    assertEquals(getQuestStatus(6), playerQuestProgress.getStatus(6));
+    assertEquals(19, playerQuestProgress.getNumberOfTrackedQuests());
+    assertEquals(19, playerQuestProgress.getTrackedQuests().length);
+    assertTrue(playerQuestProgress.hasStatus(7, getQuestStatus(7)));
+  }
+
+  @Test
+  void testCriteriaCounters() {
+    PlayerQuestProgress playerQuestProgress =
+        new PlayerQuestProgress(PLAYER_ID, new QuestOrdinals());
+    playerQuestProgress.setStatus(3, QuestStatus.IN_PROGRESS);
+    playerQuestProgress.setCriteriaCounter(3, 0, 5);
+    assertEquals(7, playerQuestProgress.incrementCriteriaCounter(3, 0, 2));
+    assertEquals(4, playerQuestProgress.incrementCriteriaCounter(3, 255, 4));
+    assertEquals(0, playerQuestProgress.getCriteriaCounter(4, 0));
+
+    // Criteria outside of the counter key range are ignored.
+    assertEquals(0, playerQuestProgress.incrementCriteriaCounter(3, 256, 1));
+    assertEquals(0, playerQuestProgress.incrementCriteriaCounter(3, -1, 1));
+    int maxQuestOrdinal = PlayerQuestProgress.MAX_CRITERIA_QUEST_ORDINAL;
+    assertEquals(1, playerQuestProgress.incrementCriteriaCounter(maxQuestOrdinal, 255, 1));
+    assertEquals(0, playerQuestProgress.incrementCriteriaCounter(maxQuestOrdinal + 1, 0, 1));
+    assertEquals(0, playerQuestProgress.getCriteriaCounter(maxQuestOrdinal + 1, 0));
+
+    playerQuestProgress.clearCriteriaCounters(3, 1);
+    assertEquals(7, playerQuestProgress.getCriteriaCounter(3, 0));
+    assertEquals(0, playerQuestProgress.getCriteriaCounter(3, 255));
+
+    // Untracked quests have no criteria counters.
+    playerQuestProgress.setStatus(3, null);
+    assertEquals(0, playerQuestProgress.getCriteriaCounter(3, 0));
+  }
+
+  @Test
+  void testDeadlines() {
+    PlayerQuestProgress playerQuestProgress =
+        new PlayerQuestProgress(PLAYER_ID, new QuestOrdinals());
+    playerQuestProgress.setStatus(2, QuestStatus.IN_PROGRESS);
+    playerQuestProgress.setDeadline(2, 1000L);
+    assertTrue(playerQuestProgress.hasDeadline(2));
+    playerQuestProgress.setStatus(2, QuestStatus.FAILED);
+    assertFalse(playerQuestProgress.hasDeadline(2));
+  }
+
+  @Test
+  void testSaveAndLoad() {
+    QuestOrdinals questOrdinals = new QuestOrdinals();
+    ResourceLocation firstQuestId = new ResourceLocation("test", "first");
+    ResourceLocation secondQuestId = new ResourceLocation("test", "second");
+    PlayerQuestProgress playerQuestProgress = new PlayerQuestProgress(PLAYER_ID, questOrdinals);
+    playerQuestProgress.setStatus(firstQuestId, QuestStatus.COMPLETED);
+    playerQuestProgress.setStatus(secondQuestId, QuestStatus.IN_PROGRESS);
+    int secondQuestOrdinal = questOrdinals.get(secondQuestId);
+    playerQuestProgress.setCriteriaCounter(secondQuestOrdinal, 0, 3);
+    playerQuestProgress.setCriteriaCounter(secondQuestOrdinal, 2, 9);
+    playerQuestProgress.setDeadline(secondQuestOrdinal, 123456L);
+    playerQuestProgress.setLastReset(42L);
+    assertTrue(playerQuestProgress.isDirty());
+    CompoundTag compoundTag = playerQuestProgress.save(new CompoundTag());
+
+    // Quest ids are stored, so other quest ordinals are mapped to the same quests.
+    QuestOrdinals otherQuestOrdinals = new QuestOrdinals();
+    otherQuestOrdinals.getOrCreate(new ResourceLocation("test", "unrelated"));
+    PlayerQuestProgress loadedQuestProgress =
+        new PlayerQuestProgress(PLAYER_ID, otherQuestOrdinals);
+    loadedQuestProgress.load(compoundTag);
+    int loadedQuestOrdinal = otherQuestOrdinals.get(secondQuestId);
+    assertEquals(QuestStatus.COMPLETED, loadedQuestProgress.getStatus(firstQuestId));
+    assertEquals(QuestStatus.IN_PROGRESS, loadedQuestProgress.getStatus(secondQuestId));
+    assertEquals(3, loadedQuestProgress.getCriteriaCounter(loadedQuestOrdinal, 0));
+    assertEquals(0, loadedQuestProgress.getCriteriaCounter(loadedQuestOrdinal, 1));
+    assertEquals(9, loadedQuestProgress.getCriteriaCounter(loadedQuestOrdinal, 2));
+    assertEquals(123456L, loadedQuestProgress.getDeadline(loadedQuestOrdinal));
+    assertEquals(42L, loadedQuestProgress.getLastReset());
+    assertEquals(2, loadedQuestProgress.getNumberOfTrackedQuests());
+    assertFalse(loadedQuestProgress.isDirty());
+  }
+
+  @Test
+  void testLoadInvalidCriteria() {
+    CompoundTag questTag = new CompoundTag();
+    questTag.putString(PlayerQuestProgress.DATA_QUEST_ID_TAG, "test:first");
+    questTag.putString(PlayerQuestProgress.DATA_STATUS_TAG, QuestStatus.IN_PROGRESS.name());
+    questTag.put(PlayerQuestProgress.DATA_CRITERIA_TAG,
+        new IntArrayTag(new int[] {0, 4, -1, 5, 256, 6, 1, 0, 2, -7, 3}));
+    ListTag questsTag = new ListTag();
+    questsTag.add(questTag);
+    CompoundTag compoundTag = new CompoundTag();
+    compoundTag.put(PlayerQuestProgress.DATA_QUESTS_TAG, questsTag);
+
+    QuestOrdinals questOrdinals = new QuestOrdinals();
+    PlayerQuestProgress playerQuestProgress = new PlayerQuestProgress(PLAYER_ID, questOrdinals);
+    playerQuestProgress.load(compoundTag);
+    int questOrdinal = questOrdinals.get(new ResourceLocation("test", "first"));
+    assertEquals(4, playerQuestProgress.getCriteriaCounter(questOrdinal, 0));
+    assertEquals(0, playerQuestProgress.getCriteriaCounter(questOrdinal, 1));
+    assertEquals(0, playerQuestProgress.getCriteriaCounter(questOrdinal, 2));
+
+    // Only the valid pair is stored again.
+    CompoundTag savedQuestTag = playerQuestProgress.save(new CompoundTag())
+        .getList(PlayerQuestProgress.DATA_QUESTS_TAG, 10).getCompound(0);
+    assertArrayEquals(new int[] {0, 4},
+        savedQuestTag.getIntArray(PlayerQuestProgress.DATA_CRITERIA_TAG));
+  }
+
+  private static QuestStatus getQuestStatus(int questOrdinal) {
+    return QUEST_STATUS_VALUES[questOrdinal % QUEST_STATUS_VALUES.length];
+  }
+
+}
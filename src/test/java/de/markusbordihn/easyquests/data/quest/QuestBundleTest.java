@@ -0,0 +1,165 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.quest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+
+class QuestBundleTest {
+
+  private static final ResourceLocation FIRST_QUEST_ID = new ResourceLocation("test", "first");
+  private static final ResourceLocation SECOND_QUEST_ID = new ResourceLocation("test", "second");
+
+  @TempDir
+  Path questDataFolder;
+
+  @Test
+  void testWriteAndRead() throws IOException {
+    Path bundleFile = writeBundle(questDataFolder.resolve("test.bundle"), FIRST_QUEST_ID,
+        SECOND_QUEST_ID);
+    assertFalse(Files.exists(bundleFile.resolveSibling("test.bundle.tmp")));
+
+    QuestBundle questBundle = QuestBundle.open(bundleFile);
+    assertEquals(2, questBundle.size());
+    assertEquals(List.of(FIRST_QUEST_ID, SECOND_QUEST_ID), List.copyOf(questBundle.getQuestIds()));
+    assertTrue(questBundle.contains(SECOND_QUEST_ID));
+    assertEquals(createQuestTag(FIRST_QUEST_ID), questBundle.readTag(FIRST_QUEST_ID));
+    assertEquals(createQuestTag(SECOND_QUEST_ID), questBundle.readTag(SECOND_QUEST_ID));
+    assertNull(questBundle.readTag(new ResourceLocation("test", "unknown")));
+
+    QuestData questData = questBundle.read(SECOND_QUEST_ID);
+    assertNotNull(questData);
+    assertEquals(SECOND_QUEST_ID, questData.getId());
+    assertEquals("Quest " + SECOND_QUEST_ID.getPath(), questData.getTitle());
+  }
+
+  @Test
+  void testWriteEmptyBundle() throws IOException {
+    Path bundleFile = writeBundle(questDataFolder.resolve("test.bundle"));
+    assertEquals(0, QuestBundle.open(bundleFile).size());
+  }
+
+  @Test
+  void testAddDuplicateQuest() throws IOException {
+    try (QuestBundle.Writer writer = QuestBundle.create(questDataFolder.resolve("test.bundle"))) {
+      writer.add(FIRST_QUEST_ID, createQuestTag(FIRST_QUEST_ID));
+      assertTrue(writer.contains(FIRST_QUEST_ID));
+      assertThrows(IOException.class,
+          () -> writer.add(FIRST_QUEST_ID, createQuestTag(FIRST_QUEST_ID)));
+    }
+  }
+
+  @Test
+  void testUnfinishedWriter() throws IOException {
+    Path bundleFile = questDataFolder.resolve("test.bundle");
+    try (QuestBundle.Writer writer = QuestBundle.create(bundleFile)) {
+      writer.add(FIRST_QUEST_ID, createQuestTag(FIRST_QUEST_ID));
+    }
+    assertFalse(Files.exists(bundleFile));
+    assertFalse(Files.exists(bundleFile.resolveSibling("test.bundle.tmp")));
+  }
+
+  @Test
+  void testOpenInvalidBundle() throws IOException {
+    Path tooSmallFile = Files.write(questDataFolder.resolve("small.bundle"), new byte[8]);
+    assertThrows(IOException.class, () -> QuestBundle.open(tooSmallFile));
+
+    Path invalidHeaderFile = Files.write(questDataFolder.resolve("header.bundle"), new byte[64]);
+    assertThrows(IOException.class, () -> QuestBundle.open(invalidHeaderFile));
+
+    // Index offset behind the end of the bundle.
+    Path bundleFile = writeBundle(questDataFolder.resolve("test.bundle"), FIRST_QUEST_ID);
+    byte[] data = Files.readAllBytes(bundleFile);
+    ByteBuffer.wrap(data).putLong(8, data.length + 1L);
+    Path invalidIndexFile = Files.write(questDataFolder.resolve("index.bundle"), data);
+    assertThrows(IOException.class, () -> QuestBundle.open(invalidIndexFile));
+  }
+
+  @Test
+  void testGenerations() throws IOException {
+    Path firstGenerationFile = questDataFolder.resolve("test.bundle");
+    assertEquals(firstGenerationFile, QuestBundle.getBundleFile(questDataFolder, "test"));
+    assertEquals(firstGenerationFile.resolveSibling("test@1.bundle"),
+        QuestBundle.getNextBundleFile(questDataFolder, "test"));
+
+    writeBundle(firstGenerationFile, FIRST_QUEST_ID);
+    Path secondGenerationFile = writeBundle(
+        QuestBundle.getNextBundleFile(questDataFolder, "test"), FIRST_QUEST_ID, SECOND_QUEST_ID);
+    Path otherBundleFile = writeBundle(questDataFolder.resolve("other.bundle"), FIRST_QUEST_ID);
+    assertEquals(secondGenerationFile, QuestBundle.getBundleFile(questDataFolder, "test"));
+    assertEquals(questDataFolder.resolve("test@2.bundle"),
+        QuestBundle.getNextBundleFile(questDataFolder, "test"));
+
+    // Only the latest generation of each bundle is used, other quest files are kept.
+    Path questDataFile = questDataFolder.resolve("quest.dat");
+    assertEquals(Set.of(secondGenerationFile, otherBundleFile, questDataFile),
+        Set.copyOf(QuestBundle.getLatestGenerations(List.of(firstGenerationFile,
+            secondGenerationFile, otherBundleFile, questDataFile))));
+
+    QuestBundle.deleteOldGenerations(secondGenerationFile);
+    assertFalse(Files.exists(firstGenerationFile));
+    assertTrue(Files.exists(secondGenerationFile));
+    assertTrue(Files.exists(otherBundleFile));
+  }
+
+  @Test
+  void testGenerationFileNames() {
+    assertEquals("test", QuestBundle.getNamespace(Path.of("test.bundle")));
+    assertEquals("test", QuestBundle.getNamespace(Path.of("test@12.bundle")));
+    assertEquals(0, QuestBundle.getGeneration(Path.of("test.bundle")));
+    assertEquals(12, QuestBundle.getGeneration(Path.of("test@12.bundle")));
+    assertEquals(-1, QuestBundle.getGeneration(Path.of("test@invalid.bundle")));
+  }
+
+  private static Path writeBundle(Path bundleFile, ResourceLocation... questIds)
+      throws IOException {
+    try (QuestBundle.Writer writer = QuestBundle.create(bundleFile)) {
+      for (ResourceLocation questId : questIds) {
+        writer.add(questId, createQuestTag(questId));
+      }
+      assertEquals(questIds.length, writer.size());
+      writer.finish();
+    }
+    return bundleFile;
+  }
+
+  private static CompoundTag createQuestTag(ResourceLocation questId) {
+    return new QuestData(questId, "Quest " + questId.getPath(), "Description of " + questId)
+        .save(new CompoundTag());
+  }
+
+}
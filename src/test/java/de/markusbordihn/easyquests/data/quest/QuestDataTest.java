@@ -0,0 +1,79 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.quest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.resources.ResourceLocation;
+
+import de.markusbordihn.easyquests.Constants;
+
+class QuestDataTest {
+
+  @Test
+  void testNormalizeResourceName() {
+    assertEquals("the_lost_map_2", QuestData.normalizeResourceName("The Lost Map #2"));
+    assertEquals("kelvin_k", QuestData.normalizeResourceName("Kelvin \u212a"));
+    assertEquals("", QuestData.normalizeResourceName("\u0000!?"));
+
+    // Already normalized names are returned as they are.
+    String normalizedName = "already_normalized_123";
+    assertSame(normalizedName, QuestData.normalizeResourceName(normalizedName));
+  }
+
+  @Test
+  void testNormalizeResourceNameLikeRegex() {
+    List<String> texts = List.of("", "Quest", "\u00dcber Quest", "Stra\u00dfe", "tab\tand\nnewline",
+        "\u0130stanbul", "snake_case-and-dash", "emoji \ud83d\ude00 quest", "  spaces  ");
+    for (String text : texts) {
+      assertEquals(normalizeWithRegex(text), QuestData.normalizeResourceName(text), text);
+    }
+
+    // Random ASCII and Latin-1 characters, including all special cases of the scanner.
+    Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      char[] chars = new char[random.nextInt(32)];
+      for (int j = 0; j < chars.length; j++) {
+        chars[j] = (char) random.nextInt(256);
+      }
+      String text = new String(chars);
+      assertEquals(normalizeWithRegex(text), QuestData.normalizeResourceName(text), text);
+    }
+  }
+
+  @Test
+  void testGetQuestId() {
+    assertEquals(new ResourceLocation(Constants.QUEST_NAMESPACE, "quests/the_lost_map"),
+        QuestData.getQuestId("The Lost Map"));
+  }
+
+  private static String normalizeWithRegex(String text) {
+    // Previous regex based implementation, which is replaced by the scanner.
+    return text.toLowerCase(Locale.ROOT).replace(" ", "_").replaceAll("\\W", "");
+  }
+
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.quest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.minecraft.resources.ResourceLocation;
+
+class QuestOrdinalsTest {
+
+  private static final ResourceLocation FIRST_QUEST_ID = new ResourceLocation("test", "first");
+  private static final ResourceLocation SECOND_QUEST_ID = new ResourceLocation("test", "second");
+  private static final ResourceLocation THIRD_QUEST_ID = new ResourceLocation("test", "third");
+
+  @TempDir
+  Path worldFolder;
+
+  @Test
+  void testGetOrCreate() {
+    QuestOrdinals questOrdinals = new QuestOrdinals();
+    assertEquals(QuestOrdinals.NO_ORDINAL, questOrdinals.get(FIRST_QUEST_ID));
+    assertEquals(0, questOrdinals.getOrCreate(FIRST_QUEST_ID));
+    assertEquals(1, questOrdinals.getOrCreate(SECOND_QUEST_ID));
+    assertEquals(0, questOrdinals.getOrCreate(FIRST_QUEST_ID));
+    assertEquals(1, questOrdinals.get(SECOND_QUEST_ID));
+    assertEquals(SECOND_QUEST_ID, questOrdinals.getId(1));
+    assertNull(questOrdinals.getId(2));
+    assertNull(questOrdinals.getId(QuestOrdinals.NO_ORDINAL));
+    assertEquals(2, questOrdinals.size());
+  }
+
+  @Test
+  void testSaveAndLoad() throws IOException {
+    Path file = worldFolder.resolve("easy_quests").resolve("quest_ordinals.txt");
+    QuestOrdinals questOrdinals = new QuestOrdinals();
+    questOrdinals.getOrCreate(FIRST_QUEST_ID);
+    questOrdinals.getOrCreate(SECOND_QUEST_ID);
+    assertTrue(questOrdinals.save(file));
+    assertFalse(questOrdinals.save(file));
+
+    // New ordinals are appended, existing lines are never rewritten.
+    QuestOrdinals loadedQuestOrdinals = new QuestOrdinals();
+    loadedQuestOrdinals.load(file);
+    assertEquals(1, loadedQuestOrdinals.get(SECOND_QUEST_ID));
+    assertEquals(2, loadedQuestOrdinals.getOrCreate(THIRD_QUEST_ID));
+    assertTrue(loadedQuestOrdinals.save(file));
+    assertEquals(List.of("test:first", "test:second", "test:third"),
+        Files.readAllLines(file, StandardCharsets.UTF_8));
+
+    questOrdinals.load(file);
+    assertEquals(3, questOrdinals.size());
+    assertEquals(THIRD_QUEST_ID, questOrdinals.getId(2));
+  }
+
+  @Test
+  void testLoadInvalidLines() throws IOException {
+    Path file = Files.write(worldFolder.resolve("quest_ordinals.txt"),
+        List.of("test:first", "Invalid Quest!", "test:first", "test:second"),
+        StandardCharsets.UTF_8);
+    QuestOrdinals questOrdinals = new QuestOrdinals();
+    questOrdinals.load(file);
+
+    // Invalid and duplicated lines still reserve their ordinal.
+    assertEquals(0, questOrdinals.get(FIRST_QUEST_ID));
+    assertNull(questOrdinals.getId(1));
+    assertEquals(3, questOrdinals.get(SECOND_QUEST_ID));
+    assertEquals(4, questOrdinals.getOrCreate(THIRD_QUEST_ID));
+  }
+
+  @Test
+  void testLoadMissingFile() {
+    QuestOrdinals questOrdinals = new QuestOrdinals();
+    questOrdinals.getOrCreate(FIRST_QUEST_ID);
+    questOrdinals.load(worldFolder.resolve("missing.txt"));
+    assertEquals(0, questOrdinals.size());
+    assertEquals(QuestOrdinals.NO_ORDINAL, questOrdinals.get(FIRST_QUEST_ID));
+  }
+
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.quest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+class QuestResetPeriodTest {
+
+  // Wednesday, 15 March 2023.
+  private static final long TIME = Instant.parse("2023-03-15T13:45:00Z").toEpochMilli();
+
+  @Test
+  void testGet() {
+    assertEquals(QuestResetPeriod.NONE, QuestResetPeriod.get(null));
+    assertEquals(QuestResetPeriod.NONE, QuestResetPeriod.get(QuestType.CUSTOM));
+    assertEquals(QuestResetPeriod.DAILY, QuestResetPeriod.get(QuestType.REPEATABLE_DAILY_QUEST));
+    assertEquals(QuestResetPeriod.WEEKLY, QuestResetPeriod.get(QuestType.WEEKLY_QUEST));
+    assertEquals(QuestResetPeriod.MONTHLY, QuestResetPeriod.get(QuestType.MONTHLY_QUEST));
+    assertEquals(QuestResetPeriod.YEARLY, QuestResetPeriod.get(QuestType.YEARLY_QUEST));
+  }
+
+  @Test
+  void testResetTimes() {
+    assertReset(QuestResetPeriod.DAILY, "2023-03-15T00:00:00Z", "2023-03-16T00:00:00Z");
+    assertReset(QuestResetPeriod.WEEKLY, "2023-03-13T00:00:00Z", "2023-03-20T00:00:00Z");
+    assertReset(QuestResetPeriod.MONTHLY, "2023-03-01T00:00:00Z", "2023-04-01T00:00:00Z");
+    assertReset(QuestResetPeriod.YEARLY, "2023-01-01T00:00:00Z", "2024-01-01T00:00:00Z");
+    assertEquals(Long.MIN_VALUE, QuestResetPeriod.NONE.getLastReset(TIME, ZoneOffset.UTC));
+    assertEquals(Long.MAX_VALUE, QuestResetPeriod.NONE.getNextReset(TIME, ZoneOffset.UTC));
+  }
+
+  @Test
+  void testResetTimesWithDaylightSavingTime() {
+    // The day of the switch to summer time has only 23 hours.
+    ZoneId zoneId = ZoneId.of("Europe/Berlin");
+    long time = Instant.parse("2023-03-26T12:00:00Z").toEpochMilli();
+    assertEquals(Instant.parse("2023-03-25T23:00:00Z").toEpochMilli(),
+        QuestResetPeriod.DAILY.getLastReset(time, zoneId));
+    assertEquals(Instant.parse("2023-03-26T22:00:00Z").toEpochMilli(),
+        QuestResetPeriod.DAILY.getNextReset(time, zoneId));
+  }
+
+  private static void assertReset(QuestResetPeriod questResetPeriod, String lastReset,
+      String nextReset) {
+    assertEquals(Instant.parse(lastReset).toEpochMilli(),
+        questResetPeriod.getLastReset(TIME, ZoneOffset.UTC));
+    assertEquals(Instant.parse(nextReset).toEpochMilli(),
+        questResetPeriod.getNextReset(TIME, ZoneOffset.UTC));
+  }
+
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.data.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+
+import de.markusbordihn.easyquests.data.quest.QuestData;
+
+class KeyValueQuestStorageTest {
+
+  private static final ResourceLocation FIRST_QUEST_ID = new ResourceLocation("test", "first");
+  private static final ResourceLocation SECOND_QUEST_ID = new ResourceLocation("test", "second");
+  private static final ResourceLocation OTHER_QUEST_ID = new ResourceLocation("other", "third");
+
+  @TempDir
+  Path questDataFolder;
+
+  private KeyValueQuestStorage questStorage;
+
+  @BeforeEach
+  void openQuestStorage() throws IOException {
+    questStorage = new KeyValueQuestStorage(questDataFolder);
+    questStorage.open();
+  }
+
+  @AfterEach
+  void closeQuestStorage() throws IOException {
+    questStorage.close();
+  }
+
+  @Test
+  void testSaveAndLoad() throws IOException {
+    assertEquals(3, questStorage.saveAll(createQuestTags("", FIRST_QUEST_ID, SECOND_QUEST_ID,
+        OTHER_QUEST_ID)));
+    assertEquals(3, questStorage.size());
+    assertTitle("Quest first", questStorage.load(FIRST_QUEST_ID));
+    assertNull(questStorage.load(new ResourceLocation("test", "unknown")));
+    assertEquals(3, questStorage.loadAll().size());
+    try (Stream<QuestData> questDataStream = questStorage.stream("test")) {
+      assertEquals(Set.of(FIRST_QUEST_ID, SECOND_QUEST_ID),
+          questDataStream.map(QuestData::getId).collect(Collectors.toSet()));
+    }
+
+    reopenQuestStorage();
+    assertEquals(3, questStorage.size());
+    assertTitle("Quest third", questStorage.load(OTHER_QUEST_ID));
+  }
+
+  @Test
+  void testReplaceAndDelete() throws IOException {
+    questStorage.saveAll(createQuestTags("", FIRST_QUEST_ID, SECOND_QUEST_ID));
+    assertTrue(questStorage.save(FIRST_QUEST_ID, createQuestTag(FIRST_QUEST_ID, " v2")));
+    assertEquals(1, questStorage.delete(List.of(SECOND_QUEST_ID, OTHER_QUEST_ID)));
+    assertEquals(0, questStorage.delete(List.of(SECOND_QUEST_ID)));
+
+    // Replaced and deleted records are replayed in order after a restart.
+    reopenQuestStorage();
+    assertEquals(1, questStorage.size());
+    assertTitle("Quest first v2", questStorage.load(FIRST_QUEST_ID));
+    assertNull(questStorage.load(SECOND_QUEST_ID));
+  }
+
+  @Test
+  void testCompact() throws IOException {
+    for (int i = 0; i < 10; i++) {
+      questStorage.saveAll(createQuestTags(" v" + i, FIRST_QUEST_ID, SECOND_QUEST_ID));
+    }
+    questStorage.delete(List.of(SECOND_QUEST_ID));
+    long fileSize = Files.size(questStorage.getStorageFile());
+    questStorage.compact();
+    assertTrue(Files.size(questStorage.getStorageFile()) < fileSize);
+    assertTitle("Quest first v9", questStorage.load(FIRST_QUEST_ID));
+
+    reopenQuestStorage();
+    assertEquals(1, questStorage.size());
+    assertTitle("Quest first v9", questStorage.load(FIRST_QUEST_ID));
+  }
+
+  @Test
+  void testTruncateIncompleteRecord() throws IOException {
+    questStorage.saveAll(createQuestTags("", FIRST_QUEST_ID, SECOND_QUEST_ID));
+    questStorage.close();
+    Path storageFile = questStorage.getStorageFile();
+    long fileSize = Files.size(storageFile);
+
+    // Record header of a crashed write without key and value.
+    Files.write(storageFile, new byte[] {1, 2, 3, 4, 0, 0, 0, 8, 't'},
+        StandardOpenOption.APPEND);
+    reopenQuestStorage();
+    assertEquals(2, questStorage.size());
+    assertEquals(fileSize, Files.size(storageFile));
+    assertTrue(Files.exists(storageFile.resolveSibling(storageFile.getFileName() + ".corrupted")));
+
+    // The storage is still writable after the truncation.
+    questStorage.save(OTHER_QUEST_ID, createQuestTag(OTHER_QUEST_ID, ""));
+    reopenQuestStorage();
+    assertEquals(3, questStorage.size());
+    assertTitle("Quest third", questStorage.load(OTHER_QUEST_ID));
+  }
+
+  @Test
+  void testTruncateChecksumMismatch() throws IOException {
+    questStorage.save(FIRST_QUEST_ID, createQuestTag(FIRST_QUEST_ID, ""));
+    long fileSize = Files.size(questStorage.getStorageFile());
+    questStorage.save(SECOND_QUEST_ID, createQuestTag(SECOND_QUEST_ID, ""));
+    questStorage.close();
+
+    // Flip the last byte of the value of the second record.
+    Path storageFile = questStorage.getStorageFile();
+    byte[] data = Files.readAllBytes(storageFile);
+    data[data.length - 1] ^= 0xFF;
+    Files.write(storageFile, data);
+
+    reopenQuestStorage();
+    assertEquals(1, questStorage.size());
+    assertNotNull(questStorage.load(FIRST_QUEST_ID));
+    assertNull(questStorage.load(SECOND_QUEST_ID));
+    assertEquals(fileSize, Files.size(storageFile));
+  }
+
+  @Test
+  void testOpenInvalidHeader() throws IOException {
+    questStorage.close();
+    Files.write(questStorage.getStorageFile(), new byte[] {0, 0, 0, 0, 0, 0, 0, 1});
+    KeyValueQuestStorage invalidQuestStorage = new KeyValueQuestStorage(questDataFolder);
+    assertThrows(IOException.class, invalidQuestStorage::open);
+  }
+
+  private void reopenQuestStorage() throws IOException {
+    questStorage.close();
+    questStorage = new KeyValueQuestStorage(questDataFolder);
+    questStorage.open();
+  }
+
+  private static void assertTitle(String title, QuestData questData) {
+    assertNotNull(questData);
+    assertEquals(title, questData.getTitle());
+  }
+
+  private static Map<ResourceLocation, CompoundTag> createQuestTags(String suffix,
+      ResourceLocation... questIds) {
+    Map<ResourceLocation, CompoundTag> questDataTags = new LinkedHashMap<>();
+    for (ResourceLocation questId : questIds) {
+      questDataTags.put(questId, createQuestTag(questId, suffix));
+    }
+    return questDataTags;
+  }
+
+  private static CompoundTag createQuestTag(ResourceLocation questId, String suffix) {
+    return new QuestData(questId, "Quest " + questId.getPath() + suffix).save(new CompoundTag());
+  }
+
+}
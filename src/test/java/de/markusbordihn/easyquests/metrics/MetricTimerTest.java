@@ -0,0 +1,77 @@
+/**
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easyquests.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class MetricTimerTest {
+
+  @Test
+  void testEmptyTimer() {
+    MetricTimer metricTimer = new MetricTimer();
+    assertEquals(0, metricTimer.getCount());
+    assertEquals(0, metricTimer.getMeanMicros());
+    assertEquals(0, metricTimer.getPercentileMicros(0.99));
+  }
+
+  @Test
+  void testPercentiles() {
+    MetricTimer metricTimer = new MetricTimer();
+
+    // 90 fast records below 1 us and 10 slow records with 1000 us.
+    for (int i = 0; i < 90; i++) {
+      metricTimer.record(500);
+    }
+    for (int i = 0; i < 10; i++) {
+      metricTimer.record(TimeUnit.MICROSECONDS.toNanos(1000));
+    }
+    assertEquals(100, metricTimer.getCount());
+    assertEquals(0, metricTimer.getPercentileMicros(0.5));
+    assertEquals(0, metricTimer.getPercentileMicros(0.8));
+
+    // Percentiles are reported as the upper bound of their power of two bucket.
+    assertEquals(1024, metricTimer.getPercentileMicros(0.99));
+    assertEquals(1000, metricTimer.getMaxMicros());
+    assertEquals(100.45, metricTimer.getMeanMicros(), 0.001);
+  }
+
+  @Test
+  void testLargeRecords() {
+    MetricTimer metricTimer = new MetricTimer();
+    metricTimer.record(Long.MAX_VALUE);
+    assertEquals(1L << 31, metricTimer.getPercentileMicros(0.5));
+    assertEquals(TimeUnit.NANOSECONDS.toMicros(Long.MAX_VALUE), metricTimer.getMaxMicros());
+  }
+
+  @Test
+  void testReset() {
+    MetricTimer metricTimer = new MetricTimer();
+    metricTimer.record(TimeUnit.MILLISECONDS.toNanos(5));
+    metricTimer.reset();
+    assertEquals(0, metricTimer.getCount());
+    assertEquals(0, metricTimer.getMaxMicros());
+    assertEquals(0, metricTimer.getPercentileMicros(0.5));
+  }
+
+}